@@ -0,0 +1,34 @@
+-- ----------------------------
+-- 部门闭包表（已有数据库升级用）
+-- 每个部门与自身及所有上级部门各一行，depth为层级差（自身为0）；
+-- 按上级查下级、按下级查上级都走主键或索引，代替find_in_set(ancestors)的全表扫描。
+-- sys_dept.ancestors 继续同步维护，迁移完成前可以对照检查。
+-- ----------------------------
+drop table if exists sys_dept_closure;
+create table sys_dept_closure (
+  ancestor          bigint(20)      not null                   comment '上级部门id',
+  descendant        bigint(20)      not null                   comment '下级部门id',
+  depth             int(4)          not null                   comment '层级差',
+  primary key (ancestor, descendant),
+  key idx_sys_dept_closure_d (descendant, ancestor)
+) engine=innodb comment = '部门闭包表';
+
+-- 1、每个部门与自身
+insert into sys_dept_closure (ancestor, descendant, depth)
+select dept_id, dept_id, 0 from sys_dept;
+
+-- 2、按ancestors拆出所有上级部门（支持20级以内），第n个祖级id与本部门的层级差为 祖级个数-n+1，根节点0不是部门
+insert into sys_dept_closure (ancestor, descendant, depth)
+select a.ancestor, a.dept_id, a.depth
+from (
+  select cast(substring_index(substring_index(d.ancestors, ',', n.n), ',', -1) as unsigned) as ancestor, d.dept_id,
+         length(d.ancestors) - length(replace(d.ancestors, ',', '')) + 2 - n.n as depth
+  from sys_dept d
+  join (select 1 n union all select 2 union all select 3 union all select 4 union all select 5
+        union all select 6 union all select 7 union all select 8 union all select 9 union all select 10
+        union all select 11 union all select 12 union all select 13 union all select 14 union all select 15
+        union all select 16 union all select 17 union all select 18 union all select 19 union all select 20) n
+    on n.n <= length(d.ancestors) - length(replace(d.ancestors, ',', '')) + 1
+  where d.ancestors <> ''
+) a
+where a.ancestor <> 0;
@@ -0,0 +1,39 @@
+-- ----------------------------
+-- 审计日志保留（已有数据库升级用）
+-- ----------------------------
+
+-- 1、时间字段索引，列表查询按时间范围检索
+alter table sys_oper_log   add index idx_sys_oper_log_ot (oper_time);
+alter table sys_logininfor add index idx_sys_logininfor_lt (login_time);
+alter table sys_job_log    add index idx_sys_job_log_ct (create_time);
+
+-- 2、清理任务（默认暂停，在定时任务中启用）
+insert into sys_job (job_name, job_group, invoke_target, cron_expression, misfire_policy, concurrent, status, create_by, create_time, remark)
+values ('审计日志清理', 'SYSTEM', 'retentionTask.clean()', '0 30 2 * * ?', '3', '1', '1', 'admin', sysdate(), '按retention配置归档并清理过期日志');
+
+
+-- ----------------------------
+-- 3、按时间分区（可选，数据量大时使用）
+-- 分区键必须包含在主键中，主键改为（ID，时间）；只需建好第一个分区和p_max，
+-- 之后的分区由清理任务按 retention.tables.*.partition（day/month）提前创建，过期分区归档后整段删除。
+-- 第一个分区的上界取执行当天，历史数据都在p_init中，p_max只有当天的数据，之后拆分p_max不需要重写历史数据；
+-- p_init在上界超过保留天数后整段归档删除。
+-- 执行后将application.yml中对应表的partition改为day或month。
+-- ----------------------------
+alter table sys_oper_log modify oper_time datetime not null default current_timestamp comment '操作时间';
+alter table sys_oper_log drop primary key, add primary key (oper_id, oper_time);
+set @sql = concat('alter table sys_oper_log partition by range (to_days(oper_time)) (',
+  'partition p_init values less than (to_days(''', curdate(), ''')),',
+  'partition p_max  values less than maxvalue)');
+prepare stmt from @sql;
+execute stmt;
+deallocate prepare stmt;
+
+alter table sys_logininfor modify login_time datetime not null default current_timestamp comment '访问时间';
+alter table sys_logininfor drop primary key, add primary key (info_id, login_time);
+set @sql = concat('alter table sys_logininfor partition by range (to_days(login_time)) (',
+  'partition p_init values less than (to_days(''', curdate(), ''')),',
+  'partition p_max  values less than maxvalue)');
+prepare stmt from @sql;
+execute stmt;
+deallocate prepare stmt;
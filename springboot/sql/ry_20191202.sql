@@ -35,6 +35,49 @@ insert into sys_dept values(108,  102, '0,100,102',  '市场部门',   1, '若
 insert into sys_dept values(109,  102, '0,100,102',  '财务部门',   2, '若依', '15888888888', 'ry@qq.com', '0', '0', 'admin', '2018-03-16 11-33-00', 'ry', '2018-03-16 11-33-00');
 
 
+-- ----------------------------
+-- 部门闭包表（每个部门与自身及所有上级部门各一行）
+-- ----------------------------
+drop table if exists sys_dept_closure;
+create table sys_dept_closure (
+  ancestor          bigint(20)      not null                   comment '上级部门id',
+  descendant        bigint(20)      not null                   comment '下级部门id',
+  depth             int(4)          not null                   comment '层级差',
+  primary key (ancestor, descendant),
+  key idx_sys_dept_closure_d (descendant, ancestor)
+) engine=innodb comment = '部门闭包表';
+
+-- ----------------------------
+-- 初始化-部门闭包表数据
+-- ----------------------------
+insert into sys_dept_closure values(100, 100, 0);
+insert into sys_dept_closure values(100, 101, 1);
+insert into sys_dept_closure values(100, 102, 1);
+insert into sys_dept_closure values(100, 103, 2);
+insert into sys_dept_closure values(100, 104, 2);
+insert into sys_dept_closure values(100, 105, 2);
+insert into sys_dept_closure values(100, 106, 2);
+insert into sys_dept_closure values(100, 107, 2);
+insert into sys_dept_closure values(100, 108, 2);
+insert into sys_dept_closure values(100, 109, 2);
+insert into sys_dept_closure values(101, 101, 0);
+insert into sys_dept_closure values(101, 103, 1);
+insert into sys_dept_closure values(101, 104, 1);
+insert into sys_dept_closure values(101, 105, 1);
+insert into sys_dept_closure values(101, 106, 1);
+insert into sys_dept_closure values(101, 107, 1);
+insert into sys_dept_closure values(102, 102, 0);
+insert into sys_dept_closure values(102, 108, 1);
+insert into sys_dept_closure values(102, 109, 1);
+insert into sys_dept_closure values(103, 103, 0);
+insert into sys_dept_closure values(104, 104, 0);
+insert into sys_dept_closure values(105, 105, 0);
+insert into sys_dept_closure values(106, 106, 0);
+insert into sys_dept_closure values(107, 107, 0);
+insert into sys_dept_closure values(108, 108, 0);
+insert into sys_dept_closure values(109, 109, 0);
+
+
 -- ----------------------------
 -- 2、用户信息表
 -- ----------------------------
@@ -422,7 +465,8 @@ create table sys_oper_log (
   status            int(1)          default 0                  comment '操作状态（0正常 1异常）',
   error_msg         varchar(2000)   default ''                 comment '错误消息',
   oper_time         datetime                                   comment '操作时间',
-  primary key (oper_id)
+  primary key (oper_id),
+  key idx_sys_oper_log_ot (oper_time)
 ) engine=innodb auto_increment=100 comment = '操作日志记录';
 
 
@@ -547,7 +591,8 @@ create table sys_logininfor (
   status         char(1)        default '0'               comment '登录状态（0成功 1失败）',
   msg            varchar(255)   default ''                comment '提示消息',
   login_time     datetime                                 comment '访问时间',
-  primary key (info_id)
+  primary key (info_id),
+  key idx_sys_logininfor_lt (login_time)
 ) engine=innodb auto_increment=100 comment = '系统访问记录';
 
 
@@ -575,6 +620,7 @@ create table sys_job (
 insert into sys_job values(1, '系统默认（无参）', 'DEFAULT', 'ryTask.ryNoParams',        '0/10 * * * * ?', '3', '1', '1', 'admin', '2018-03-16 11-33-00', 'ry', '2018-03-16 11-33-00', '');
 insert into sys_job values(2, '系统默认（有参）', 'DEFAULT', 'ryTask.ryParams(\'ry\')',  '0/15 * * * * ?', '3', '1', '1', 'admin', '2018-03-16 11-33-00', 'ry', '2018-03-16 11-33-00', '');
 insert into sys_job values(3, '系统默认（多参）', 'DEFAULT', 'ryTask.ryMultipleParams(\'ry\', true, 2000L, 316.50D, 100)',  '0/20 * * * * ?', '3', '1', '1', 'admin', '2018-03-16 11-33-00', 'ry', '2018-03-16 11-33-00', '');
+insert into sys_job values(4, '审计日志清理',     'SYSTEM',  'retentionTask.clean()',  '0 30 2 * * ?', '3', '1', '1', 'admin', '2018-03-16 11-33-00', 'ry', '2018-03-16 11-33-00', '按retention配置归档并清理过期日志');
 
 
 -- ----------------------------
@@ -590,7 +636,8 @@ create table sys_job_log (
   status              char(1)        default '0'                comment '执行状态（0正常 1失败）',
   exception_info      varchar(2000)  default ''                 comment '异常信息',
   create_time         datetime                                  comment '创建时间',
-  primary key (job_log_id)
+  primary key (job_log_id),
+  key idx_sys_job_log_ct (create_time)
 ) engine=innodb comment = '定时任务调度日志表';
 
 
@@ -0,0 +1,89 @@
+package com.ruoyi.common.utils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.alibaba.fastjson.JSON;
+import com.ruoyi.framework.web.page.TableDataInfo;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * 操作日志记录返回结果：整体序列化后截取与限制长度的序列化对比
+ *
+ * 分配量加 -prof gc 查看：mvn -Pbench test-compile exec:exec -Djmh.args="JsonUtils -prof gc"
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsBenchmark {
+    /**
+     * 与LogAspect中返回参数的长度上限一致
+     */
+    private static final int MAX_LENGTH = 2000;
+
+    /**
+     * 列表接口返回的行数
+     */
+    @Param({ "10", "1000", "10000" })
+    private int rows;
+
+    private TableDataInfo result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SysUser> list = new ArrayList<SysUser>(rows);
+        for (int i = 0; i < rows; i++) {
+            SysDept dept = new SysDept();
+            dept.setDeptId(103L);
+            dept.setDeptName("研发部门");
+            dept.setLeader("若依");
+            SysUser user = new SysUser();
+            user.setUserId((long) i);
+            user.setDeptId(103L);
+            user.setUserName("user" + i);
+            user.setNickName("用户" + i);
+            user.setEmail("user" + i + "@163.com");
+            user.setPhonenumber("158" + String.format("%08d", i));
+            user.setSex(String.valueOf(i % 2));
+            user.setStatus("0");
+            user.setLoginIp("127.0.0.1");
+            user.setLoginDate(new Date(1575158400000L + i * 1000L));
+            user.setCreateTime(new Date(1575158400000L));
+            user.setDept(dept);
+            list.add(user);
+        }
+        result = new TableDataInfo(list, rows);
+    }
+
+    /**
+     * 改造前：序列化整个结果后截取
+     */
+    @Benchmark
+    public String fullThenTruncate() {
+        return StringUtils.substring(JSON.toJSONString(result), 0, MAX_LENGTH);
+    }
+
+    @Benchmark
+    public String limited() {
+        return JsonUtils.toJSONString(result, MAX_LENGTH);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ruoyi.common.utils.ip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.alibaba.fastjson.JSONObject;
+import com.ruoyi.common.utils.http.HttpUtils;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 查询IP地址：离线地址库与远程HTTP查询（本机模拟的接口，不含公网延迟）对比
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpLookupBenchmark {
+    /**
+     * 地址库的IPv4地址段数
+     */
+    private static final int RANGES = 100000;
+
+    private static final String[] PROVINCES = { "北京市", "上海市", "广东省", "浙江省", "福建省", "四川省", "湖北省",
+            "江苏省" };
+
+    private static final String RESPONSE = "{\"code\":0,\"data\":{\"ip\":\"1.0.1.1\",\"country\":\"中国\","
+            + "\"region\":\"福建省\",\"city\":\"福州市\",\"isp\":\"电信\"}}";
+
+    private Path file;
+
+    private IpDatabase database;
+
+    private HttpServer server;
+
+    private String url;
+
+    private String[] ips;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("ip-bench", ".csv");
+        List<String> lines = new ArrayList<String>(RANGES);
+        for (int i = 0; i < RANGES; i++) {
+            int start = (1 << 24) + (i << 8);
+            lines.add(toText(start) + "," + toText(start + 255) + "," + PROVINCES[i % PROVINCES.length] + ",城市" + i);
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        database = IpDatabase.load(file);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/service/getIpInfo.php", exchange -> {
+            // 读完请求体，连接才能复用
+            while (exchange.getRequestBody().read() != -1) {
+                continue;
+            }
+            byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/service/getIpInfo.php";
+
+        Random random = new Random(42);
+        ips = new String[1024];
+        for (int i = 0; i < ips.length; i++) {
+            ips[i] = toText((1 << 24) + random.nextInt(RANGES << 8));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String offline() {
+        return database.lookup(nextIp());
+    }
+
+    /**
+     * 与AddressUtils的远程查询相同的请求和解析
+     */
+    @Benchmark
+    public String http() {
+        String rspStr = HttpUtils.sendPost(url, "ip=" + nextIp(), 2000, 3000);
+        JSONObject data = JSONObject.parseObject(rspStr).getObject("data", JSONObject.class);
+        return data.getString("region") + " " + data.getString("city");
+    }
+
+    private String nextIp() {
+        return ips[next++ & (ips.length - 1)];
+    }
+
+    private static String toText(int ip) {
+        return (ip >>> 24) + "." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ruoyi.common.utils.poi;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ruoyi.common.utils.file.FileUtils;
+import com.ruoyi.framework.config.RuoYiConfig;
+import com.ruoyi.framework.web.domain.AjaxResult;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+
+/**
+ * 导出操作日志：列计划串行与并行转换对比
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx1g" })
+public class ExcelExportBenchmark
+{
+    @Param({ "100000" })
+    private int rows;
+
+    private List<SysOperLog> list;
+
+    private File profile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        profile = Files.createTempDirectory("ruoyi-bench").toFile();
+        new RuoYiConfig().setProfile(profile.getPath());
+        list = new ArrayList<SysOperLog>(rows);
+        for (int i = 0; i < rows; i++)
+        {
+            SysOperLog operLog = new SysOperLog();
+            operLog.setOperId((long) i);
+            operLog.setTitle("用户管理");
+            operLog.setBusinessType(i % 4);
+            operLog.setMethod("com.ruoyi.project.system.controller.SysUserController.edit()");
+            operLog.setRequestMethod("PUT");
+            operLog.setOperatorType(i % 3);
+            operLog.setOperName("admin");
+            operLog.setDeptName("研发部门");
+            operLog.setOperUrl("/system/user");
+            operLog.setOperIp("127.0.0.1");
+            operLog.setOperLocation("内网IP");
+            operLog.setOperParam("{\"userId\":" + i + "}");
+            operLog.setJsonResult("{\"code\":200}");
+            operLog.setStatus(i % 2);
+            operLog.setErrorMsg(i % 2 == 0 ? null : "错误" + i);
+            operLog.setOperTime(new Date(1575158400000L + i * 1000L));
+            list.add(operLog);
+        }
+    }
+
+    /**
+     * 每轮结束删除生成的下载文件
+     */
+    @TearDown(Level.Iteration)
+    public void deleteDownloads()
+    {
+        File[] files = new File(RuoYiConfig.getDownloadPath()).listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        deleteDownloads();
+        new File(RuoYiConfig.getDownloadPath()).delete();
+        FileUtils.deleteFile(profile.getPath());
+    }
+
+    @Benchmark
+    public AjaxResult plan()
+    {
+        return new ExcelUtil<SysOperLog>(SysOperLog.class).exportExcel(list, "操作日志");
+    }
+
+    @Benchmark
+    public AjaxResult planParallel()
+    {
+        return new ExcelUtil<SysOperLog>(SysOperLog.class).exportExcel(list, "操作日志", true);
+    }
+}
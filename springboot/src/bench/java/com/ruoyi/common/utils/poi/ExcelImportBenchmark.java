@@ -0,0 +1,99 @@
+package com.ruoyi.common.utils.poi;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.ruoyi.common.utils.file.FileUtils;
+import com.ruoyi.framework.config.RuoYiConfig;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * 导入用户：一次读取全部与分批读取对比，文件由导出生成
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = { "-Xmx1g" })
+public class ExcelImportBenchmark
+{
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({ "100000" })
+    private int rows;
+
+    private byte[] xlsx;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        File profile = Files.createTempDirectory("ruoyi-bench").toFile();
+        new RuoYiConfig().setProfile(profile.getPath());
+        List<SysUser> list = new ArrayList<SysUser>(rows);
+        for (int i = 0; i < rows; i++)
+        {
+            SysUser user = new SysUser();
+            user.setUserId((long) i);
+            user.setDeptId(103L);
+            user.setUserName("user" + i);
+            user.setNickName("用户" + i);
+            user.setEmail("u" + i + "@163.com");
+            user.setPhonenumber(String.valueOf(15800000000L + i));
+            user.setSex(String.valueOf(i % 3));
+            user.setStatus(String.valueOf(i % 2));
+            user.setLoginIp("127.0.0.1");
+            user.setLoginDate(new Date(1575158400000L + i * 1000L));
+            SysDept dept = new SysDept();
+            dept.setDeptName("研发部门");
+            dept.setLeader("若依");
+            user.setDept(dept);
+            list.add(user);
+        }
+        String filename = new ExcelUtil<SysUser>(SysUser.class).exportExcel(list, "用户数据").get("msg").toString();
+        File file = new File(RuoYiConfig.getDownloadPath() + filename);
+        try (InputStream in = new FileInputStream(file))
+        {
+            xlsx = IOUtils.toByteArray(in);
+        }
+        file.delete();
+        new File(RuoYiConfig.getDownloadPath()).delete();
+        FileUtils.deleteFile(profile.getPath());
+    }
+
+    @Benchmark
+    public List<SysUser> plan() throws Exception
+    {
+        return new ExcelUtil<SysUser>(SysUser.class).importExcel(new ByteArrayInputStream(xlsx));
+    }
+
+    @Benchmark
+    public void planChunked(Blackhole blackhole) throws Exception
+    {
+        new ExcelUtil<SysUser>(SysUser.class).importExcel("", new ByteArrayInputStream(xlsx), CHUNK_SIZE,
+                blackhole::consume);
+    }
+}
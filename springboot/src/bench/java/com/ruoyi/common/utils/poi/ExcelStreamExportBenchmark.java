@@ -0,0 +1,164 @@
+package com.ruoyi.common.utils.poi;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+
+/**
+ * 流式导出操作日志到响应：100万行在256MB堆内完成，数据逐行生成，响应内容只计数不保存
+ *
+ * @author ruoyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx256m" })
+public class ExcelStreamExportBenchmark
+{
+    @Param({ "1000000" })
+    private int rows;
+
+    private CountingResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @Setup(Level.Iteration)
+    public void newResponse()
+    {
+        response = new CountingResponse();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%d rows: %d MB written, heap used %d MB of %d MB%n", rows, response.bytes >> 20,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20, runtime.maxMemory() >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void xlsx()
+    {
+        new ExcelUtil<SysOperLog>(SysOperLog.class).exportExcel(response, "操作日志", this::query);
+    }
+
+    @Benchmark
+    public void xlsxParallel()
+    {
+        new ExcelUtil<SysOperLog>(SysOperLog.class).exportExcel(response, "操作日志", this::query, true);
+    }
+
+    @Benchmark
+    public void csv()
+    {
+        new ExcelUtil<SysOperLog>(SysOperLog.class).exportCsv(response, "操作日志", this::query);
+    }
+
+    /**
+     * 模拟流式查询，逐行生成数据交给ResultHandler
+     */
+    private void query(ResultHandler<SysOperLog> handler)
+    {
+        DefaultResultContext<SysOperLog> context = new DefaultResultContext<SysOperLog>();
+        for (int i = 0; i < rows && !context.isStopped(); i++)
+        {
+            context.nextResultObject(operLog(i));
+            handler.handleResult(context);
+        }
+    }
+
+    private static SysOperLog operLog(int i)
+    {
+        SysOperLog operLog = new SysOperLog();
+        operLog.setOperId((long) i);
+        operLog.setTitle("用户管理");
+        operLog.setBusinessType(i % 4);
+        operLog.setMethod("com.ruoyi.project.system.controller.SysUserController.edit()");
+        operLog.setRequestMethod("PUT");
+        operLog.setOperatorType(i % 3);
+        operLog.setOperName("admin");
+        operLog.setDeptName("研发部门");
+        operLog.setOperUrl("/system/user");
+        operLog.setOperIp("127.0.0.1");
+        operLog.setOperLocation("内网IP");
+        operLog.setOperParam("{\"userId\":" + i + "}");
+        operLog.setJsonResult("{\"code\":200}");
+        operLog.setStatus(i % 2);
+        operLog.setErrorMsg(i % 2 == 0 ? null : "错误" + i);
+        operLog.setOperTime(new Date(1575158400000L + i * 1000L));
+        return operLog;
+    }
+
+    /**
+     * 只统计写出的字节数，不保存内容
+     */
+    private static class CountingResponse extends MockHttpServletResponse
+    {
+        private long bytes;
+
+        private final ServletOutputStream out = new ServletOutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+                bytes += len;
+            }
+
+            @Override
+            public boolean isReady()
+            {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener)
+            {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream()
+        {
+            return out;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.ruoyi.framework.config;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysRole;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * redis值序列化：FastJson与紧凑二进制的编码、解码耗时及数据大小对比
+ *
+ * 分配量加 -prof gc 查看：mvn -Pbench test-compile exec:exec -Djmh.args="RedisSerializer -prof gc"
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark
+{
+    @Param({ "json", "compact" })
+    private String format;
+
+    @Param({ "loginUser", "sysUser", "string" })
+    private String value;
+
+    private RedisSerializer<Object> serializer;
+
+    private Object object;
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void setUp()
+    {
+        // 与RedisConfig中redisTemplate的配置一致
+        FastJson2JsonRedisSerializer json = new FastJson2JsonRedisSerializer(Object.class);
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+        json.setObjectMapper(mapper);
+        serializer = "compact".equals(format) ? RedisConfig.compactSerializer(json) : json;
+
+        if ("loginUser".equals(value))
+        {
+            object = loginUser();
+        }
+        else if ("sysUser".equals(value))
+        {
+            object = user();
+        }
+        else
+        {
+            object = "f0ba6a6a-7c8d-4f0b-9a63-5a2d1c0c2e11";
+        }
+        bytes = serializer.serialize(object);
+        System.out.println("payload " + format + "/" + value + ": " + bytes.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode()
+    {
+        return serializer.serialize(object);
+    }
+
+    @Benchmark
+    public Object decode()
+    {
+        return serializer.deserialize(bytes);
+    }
+
+    private static SysDept dept()
+    {
+        SysDept dept = new SysDept();
+        dept.setDeptId(103L);
+        dept.setParentId(101L);
+        dept.setAncestors("0,100,101");
+        dept.setDeptName("研发部门");
+        dept.setOrderNum("1");
+        dept.setLeader("若依");
+        dept.setStatus("0");
+        dept.setDelFlag("0");
+        dept.setCreateBy("admin");
+        dept.setCreateTime(new Date(1575158400123L));
+        return dept;
+    }
+
+    private static SysRole role(Long roleId, String roleKey)
+    {
+        SysRole role = new SysRole();
+        role.setRoleId(roleId);
+        role.setRoleName("角色" + roleId);
+        role.setRoleKey(roleKey);
+        role.setRoleSort(String.valueOf(roleId));
+        role.setDataScope("2");
+        role.setStatus("0");
+        role.setFlag(true);
+        role.setMenuIds(new Long[] { 1L, 100L, 1001L });
+        return role;
+    }
+
+    private static SysUser user()
+    {
+        SysUser user = new SysUser();
+        user.setUserId(1L);
+        user.setDeptId(103L);
+        user.setUserName("admin");
+        user.setNickName("若依");
+        user.setEmail("ry@163.com");
+        user.setPhonenumber("15888888888");
+        user.setSex("1");
+        user.setPassword("$2a$10$7JB720yubVSZvUI0rEqK/.VqGOZTH.ulu33dHOiBE8ByOhJIrdAu2");
+        user.setStatus("0");
+        user.setDelFlag("0");
+        user.setLoginIp("127.0.0.1");
+        user.setLoginDate(new Date(1575158400000L));
+        user.setDept(dept());
+        user.setRoles(Arrays.asList(role(1L, "admin"), role(2L, "common")));
+        user.setRoleIds(new Long[] { 1L, 2L });
+        return user;
+    }
+
+    private static LoginUser loginUser()
+    {
+        LoginUser loginUser = new LoginUser(user(),
+                new HashSet<String>(Arrays.asList("system:user:list", "system:user:add", "monitor:online:list")));
+        loginUser.setToken("f0ba6a6a-7c8d-4f0b-9a63-5a2d1c0c2e11");
+        loginUser.setLoginTime(1575158400000L);
+        loginUser.setExpireTime(1575160200000L);
+        loginUser.setIpaddr("10.0.0.8");
+        loginUser.setLoginLocation("内网IP");
+        loginUser.setBrowser("Chrome 78");
+        loginUser.setOs("Windows 10");
+        return loginUser;
+    }
+}
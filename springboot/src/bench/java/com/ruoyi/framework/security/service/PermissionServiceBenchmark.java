@@ -0,0 +1,147 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.ruoyi.common.utils.ServletUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.security.LoginUser;
+
+/**
+ * hasPermi：改造前按权限字符串在Set中查找与权限位图对比
+ * 登录用户每个请求反序列化一份，bitsetPerRequest轮流使用不同的副本，位图按uuid和权限版本从缓存中取
+ *
+ * @author ruoyi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionServiceBenchmark {
+    private static final String ALL_PERMISSION = "*:*:*";
+
+    /**
+     * 用户拥有的权限数
+     */
+    @Param({ "20", "200" })
+    private int permissions;
+
+    /**
+     * 同一个会话的多份副本，模拟每个请求反序列化出来的新对象
+     */
+    private static final int COPIES = 16;
+
+    private LoginUser loginUser;
+
+    private LoginUser[] copies;
+
+    private int next;
+
+    private TokenService tokenService;
+
+    private PermissionService permissionService;
+
+    private String permission;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Set<String> perms = new HashSet<String>();
+        for (int i = 0; i < permissions; i++) {
+            perms.add("system:module" + i + ":list");
+        }
+        loginUser = TokenServiceFixture.loginUser();
+        loginUser.setPermissions(perms);
+        // 注解里最后一个权限，两种方式都需要完整比较
+        permission = "system:module" + (permissions - 1) + ":list";
+
+        PermissionDictionary dictionary = new PermissionDictionary();
+        for (int i = 0; i < 500; i++) {
+            dictionary.indexOf("system:module" + i + ":list");
+        }
+        PermissionBitsCache bitsCache = new PermissionBitsCache();
+        ReflectionTestUtils.setField(bitsCache, "expireTime", 30);
+        ReflectionTestUtils.setField(bitsCache, "maxSize", 10000);
+        ReflectionTestUtils.setField(bitsCache, "permissionDictionary", dictionary);
+        bitsCache.init();
+        copies = new LoginUser[COPIES];
+        for (int i = 0; i < COPIES; i++) {
+            copies[i] = TokenServiceFixture.loginUser();
+            copies[i].setPermissions(new HashSet<String>(perms));
+            copies[i].setPermissionVersion(loginUser.getPermissionVersion());
+        }
+        tokenService = new FixedTokenService(loginUser);
+        permissionService = new PermissionService();
+        ReflectionTestUtils.setField(permissionService, "tokenService", tokenService);
+        ReflectionTestUtils.setField(permissionService, "permissionDictionary", dictionary);
+        ReflectionTestUtils.setField(permissionService, "permissionBitsCache", bitsCache);
+        permissionService.init();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 改造前的hasPermi
+     */
+    @Benchmark
+    public boolean legacySet() {
+        LoginUser user = tokenService.getLoginUser(ServletUtils.getRequest());
+        if (StringUtils.isNull(user) || CollectionUtils.isEmpty(user.getPermissions())) {
+            return false;
+        }
+        Set<String> authorities = user.getPermissions();
+        return authorities.contains(ALL_PERMISSION) || authorities.contains(StringUtils.trim(permission));
+    }
+
+    @Benchmark
+    public boolean bitset() {
+        return permissionService.hasPermi(permission);
+    }
+
+    @Benchmark
+    public boolean bitsetPerRequest() {
+        ((FixedTokenService) tokenService).loginUser = copies[next++ & (COPIES - 1)];
+        return permissionService.hasPermi(permission);
+    }
+
+    /**
+     * 返回指定的登录用户，只比较权限校验本身
+     */
+    private static class FixedTokenService extends TokenService {
+        private LoginUser loginUser;
+
+        private FixedTokenService(LoginUser loginUser) {
+            this.loginUser = loginUser;
+        }
+
+        @Override
+        public LoginUser getLoginUser(HttpServletRequest request) {
+            return loginUser;
+        }
+    }
+}
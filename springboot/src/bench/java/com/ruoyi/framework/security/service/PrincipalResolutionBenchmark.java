@@ -0,0 +1,63 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import com.ruoyi.common.constant.Constants;
+
+/**
+ * 一个请求内解析登录用户：每次都重新解析（过滤器、权限校验、数据权限、操作日志各一次）与只解析一次对比
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrincipalResolutionBenchmark {
+    /**
+     * 一个请求内获取登录用户的次数
+     */
+    private static final int LOOKUPS = 4;
+
+    @Param({ "false", "true" })
+    private boolean cacheEnabled;
+
+    private TokenServiceFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TokenServiceFixture(cacheEnabled);
+    }
+
+    @Benchmark
+    public void resolveEveryTime(Blackhole blackhole) {
+        MockHttpServletRequest request = fixture.newRequest();
+        for (int i = 0; i < LOOKUPS; i++) {
+            request.removeAttribute(Constants.LOGIN_USER_ATTRIBUTE);
+            blackhole.consume(fixture.tokenService.getLoginUser(request));
+        }
+    }
+
+    @Benchmark
+    public void resolveOnce(Blackhole blackhole) {
+        MockHttpServletRequest request = fixture.newRequest();
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(fixture.tokenService.getLoginUser(request));
+        }
+    }
+}
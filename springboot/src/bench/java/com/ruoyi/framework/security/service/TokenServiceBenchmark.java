@@ -0,0 +1,50 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ruoyi.framework.security.LoginUser;
+
+/**
+ * 获取登录用户：未缓存（每次验签并反序列化）与已缓存令牌、登录用户对比
+ *
+ * @author ruoyi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+    private TokenServiceFixture cold;
+
+    private TokenServiceFixture warm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cold = new TokenServiceFixture(false);
+        warm = new TokenServiceFixture(true);
+        // 第一次访问写入缓存
+        warm.tokenService.getLoginUser(warm.newRequest());
+    }
+
+    @Benchmark
+    public LoginUser cold() {
+        return cold.tokenService.getLoginUser(cold.newRequest());
+    }
+
+    @Benchmark
+    public LoginUser warm() {
+        return warm.tokenService.getLoginUser(warm.newRequest());
+    }
+}
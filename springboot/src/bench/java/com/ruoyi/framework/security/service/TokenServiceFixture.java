@@ -0,0 +1,114 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.framework.config.RedisConfig;
+import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysUser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * 基准测试用的TokenService：redis换成内存中的字节，读取时照常反序列化，不含网络往返
+ *
+ * @author ruoyi
+ */
+class TokenServiceFixture {
+    private static final String HEADER = "Authorization";
+
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final String UUID = "f0ba6a6a-7c8d-4f0b-9a63-5a2d1c0c2e11";
+
+    final TokenService tokenService = new TokenService();
+
+    private final String token;
+
+    TokenServiceFixture(boolean cacheEnabled) {
+        MemoryRedisCache redisCache = new MemoryRedisCache();
+        // 与应用相同的序列化配置，连接工厂不会被使用
+        redisCache.redisTemplate = new RedisConfig().redisTemplate(new LettuceConnectionFactory());
+
+        LoginUser loginUser = loginUser();
+        loginUser.setExpireTime(System.currentTimeMillis() + 3600 * 1000L);
+        redisCache.values.put(Constants.LOGIN_TOKEN_KEY + UUID,
+                redisCache.redisTemplate.getValueSerializer().serialize(loginUser));
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Constants.LOGIN_USER_KEY, UUID);
+        token = Jwts.builder().setClaims(claims).signWith(SignatureAlgorithm.HS512, SECRET).compact();
+
+        ReflectionTestUtils.setField(tokenService, "header", HEADER);
+        ReflectionTestUtils.setField(tokenService, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "expireTime", 30);
+        ReflectionTestUtils.setField(tokenService, "cacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(tokenService, "tokenCacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 10000);
+        ReflectionTestUtils.setField(tokenService, "cacheExpireSeconds", 3600);
+        ReflectionTestUtils.setField(tokenService, "redisCache", redisCache);
+        // 未启动的监听容器，只登记不订阅
+        ReflectionTestUtils.setField(tokenService, "listenerContainer", new RedisMessageListenerContainer());
+        tokenService.init();
+    }
+
+    /**
+     * 携带令牌的新请求
+     */
+    MockHttpServletRequest newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/system/user/list");
+        request.addHeader(HEADER, Constants.TOKEN_PREFIX + token);
+        return request;
+    }
+
+    static LoginUser loginUser() {
+        SysDept dept = new SysDept();
+        dept.setDeptId(103L);
+        dept.setParentId(101L);
+        dept.setAncestors("0,100,101");
+        dept.setDeptName("研发部门");
+        dept.setLeader("若依");
+        SysUser user = new SysUser();
+        user.setUserId(1L);
+        user.setDeptId(103L);
+        user.setUserName("admin");
+        user.setNickName("若依");
+        user.setEmail("ry@163.com");
+        user.setPhonenumber("15888888888");
+        user.setPassword("$2a$10$7JB720yubVSZvUI0rEqK/.VqGOZTH.ulu33dHOiBE8ByOhJIrdAu2");
+        user.setLoginDate(new Date(1575158400000L));
+        user.setDept(dept);
+        LoginUser loginUser = new LoginUser(user,
+                new HashSet<String>(Arrays.asList("system:user:list", "system:user:add", "monitor:online:list")));
+        loginUser.setToken(UUID);
+        loginUser.setLoginTime(System.currentTimeMillis());
+        loginUser.setIpaddr("10.0.0.8");
+        loginUser.setLoginLocation("内网IP");
+        loginUser.setBrowser("Chrome 78");
+        loginUser.setOs("Windows 10");
+        return loginUser;
+    }
+
+    /**
+     * 只实现读取，数据以序列化后的字节保存
+     */
+    private static class MemoryRedisCache extends RedisCache {
+        private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getCacheObject(String key) {
+            return (T) redisTemplate.getValueSerializer().deserialize(values.get(key));
+        }
+    }
+}
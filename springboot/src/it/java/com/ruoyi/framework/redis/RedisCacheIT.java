@@ -0,0 +1,273 @@
+package com.ruoyi.framework.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import com.ruoyi.framework.config.RedisConfig;
+import redis.embedded.RedisServer;
+
+/**
+ * RedisCache批量操作：与逐个命令的写法结果一致，命令数和耗时对比；以前按JDK方式序列化的hash可以读取并改写
+ * 在内嵌Redis上执行，运行 mvn -Pit verify
+ *
+ * @author ruoyi
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class RedisCacheIT {
+    private static final int SIZE = 1000;
+
+    private static final int WARMUP = 5;
+
+    private static final int ROUNDS = 20;
+
+    private static RedisServer server;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static RedisTemplate<Object, Object> template;
+
+    private static RedisCache redisCache;
+
+    private List<String> values;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        template = new RedisConfig().redisTemplate(connectionFactory);
+        redisCache = new RedisCache();
+        redisCache.redisTemplate = template;
+    }
+
+    @AfterClass
+    public static void stopRedis() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.flushDb();
+        }
+        values = new ArrayList<String>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            values.add("value-" + i);
+        }
+    }
+
+    @Test
+    public void listMatchesElementWiseCommands() throws Exception {
+        legacySetCacheList("legacy", values);
+        resetStats();
+        redisCache.setCacheList("bulk", values);
+        assertEquals(1, calls("lpush"));
+        assertEquals(legacyGetCacheList("legacy"), redisCache.getCacheList("bulk"));
+        assertEquals(1, calls("lrange"));
+
+        report("setCacheList", () -> {
+            template.delete("legacy");
+            legacySetCacheList("legacy", values);
+        }, () -> {
+            template.delete("bulk");
+            redisCache.setCacheList("bulk", values);
+        });
+        report("getCacheList", () -> legacyGetCacheList("legacy"), () -> redisCache.getCacheList("bulk"));
+    }
+
+    @Test
+    public void setAndMapMatchElementWiseCommands() throws Exception {
+        Set<String> set = new HashSet<String>(values);
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (String value : values) {
+            map.put(value, value.toUpperCase());
+        }
+        legacySetCacheSet("legacySet", set);
+        legacySetCacheMap("legacyMap", map);
+        resetStats();
+        redisCache.setCacheSet("bulkSet", set);
+        redisCache.setCacheMap("bulkMap", map);
+        assertEquals(1, calls("sadd"));
+        assertEquals(1, calls("hmset"));
+        assertEquals(redisCache.getCacheSet("legacySet"), redisCache.getCacheSet("bulkSet"));
+        assertEquals(redisCache.getCacheMap("legacyMap"), redisCache.getCacheMap("bulkMap"));
+
+        report("setCacheSet", () -> legacySetCacheSet("legacySet", set), () -> redisCache.setCacheSet("bulkSet", set));
+        report("setCacheMap", () -> legacySetCacheMap("legacyMap", map),
+                () -> redisCache.setCacheMap("bulkMap", map));
+    }
+
+    @Test
+    public void multiSetMatchesElementWiseCommands() throws Exception {
+        Map<String, String> data = new LinkedHashMap<String, String>();
+        for (String value : values) {
+            data.put("key:" + value, value);
+        }
+        List<String> keys = new ArrayList<String>(data.keySet());
+        resetStats();
+        redisCache.multiSet(data);
+        assertEquals(1, calls("mset"));
+        assertEquals(values, redisCache.multiGet(keys));
+        assertEquals(1, calls("mget"));
+
+        redisCache.multiSet(data, 30, TimeUnit.MINUTES);
+        for (Long expire : redisCache.getExpires(keys, TimeUnit.MINUTES)) {
+            assertTrue(expire > 0 && expire <= 30);
+        }
+
+        ValueOperations operations = template.opsForValue();
+        report("multiSet", () -> {
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                operations.set(entry.getKey(), entry.getValue(), 30, TimeUnit.MINUTES);
+            }
+        }, () -> redisCache.multiSet(data, 30, TimeUnit.MINUTES));
+        report("multiGet", () -> {
+            for (String key : keys) {
+                operations.get(key);
+            }
+        }, () -> redisCache.multiGet(keys));
+    }
+
+    @Test
+    public void legacyJdkHashIsReadAndMigrated() throws Exception {
+        // 以前模板未设置hash序列化方式，field和value都按JDK方式写入
+        RedisTemplate<Object, Object> jdkTemplate = new RedisTemplate<Object, Object>();
+        jdkTemplate.setConnectionFactory(connectionFactory);
+        jdkTemplate.setKeySerializer(new StringRedisSerializer());
+        jdkTemplate.afterPropertiesSet();
+        Map<String, Object> legacy = new LinkedHashMap<String, Object>();
+        legacy.put("name", "old");
+        legacy.put("count", 3L);
+        jdkTemplate.opsForHash().putAll("map", legacy);
+        // 升级后在旧数据上写入的同名字段以新格式为准
+        redisCache.setCacheMap("map", Collections.singletonMap("name", "new"));
+
+        Map<String, Object> map = redisCache.getCacheMap("map");
+        assertEquals(2, map.size());
+        assertEquals("new", map.get("name"));
+        assertEquals(3L, map.get("count"));
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Map<byte[], byte[]> raw = connection.hGetAll("map".getBytes("UTF-8"));
+            assertEquals(2, raw.size());
+            for (byte[] field : raw.keySet()) {
+                assertFalse(field[0] == (byte) 0xAC);
+            }
+        }
+        assertEquals(map, redisCache.getCacheMap("map"));
+    }
+
+    /**
+     * 改造前的setCacheList：逐个LPUSH
+     */
+    private void legacySetCacheList(String key, List<String> dataList) {
+        ListOperations listOperation = template.opsForList();
+        for (String value : dataList) {
+            listOperation.leftPush(key, value);
+        }
+    }
+
+    /**
+     * 改造前的getCacheList：LLEN后逐个LINDEX
+     */
+    private List<Object> legacyGetCacheList(String key) {
+        List<Object> dataList = new ArrayList<Object>();
+        ListOperations listOperation = template.opsForList();
+        Long size = listOperation.size(key);
+        for (int i = 0; i < size; i++) {
+            dataList.add(listOperation.index(key, i));
+        }
+        return dataList;
+    }
+
+    private void legacySetCacheSet(String key, Set<String> dataSet) {
+        SetOperations setOperation = template.opsForSet();
+        for (String value : dataSet) {
+            setOperation.add(key, value);
+        }
+    }
+
+    private void legacySetCacheMap(String key, Map<String, String> dataMap) {
+        HashOperations hashOperations = template.opsForHash();
+        for (Map.Entry<String, String> entry : dataMap.entrySet()) {
+            hashOperations.put(key, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 预热后各执行ROUNDS次，输出平均耗时
+     */
+    private static void report(String name, Runnable legacy, Runnable bulk) {
+        long legacyNanos = time(legacy);
+        long bulkNanos = time(bulk);
+        System.out.printf("%s x%d: legacy %.2f ms, bulk %.2f ms%n", name, SIZE, legacyNanos / 1e6, bulkNanos / 1e6);
+    }
+
+    private static long time(Runnable task) {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+
+    private static void resetStats() throws Exception {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.resetConfigStats();
+        }
+    }
+
+    /**
+     * 从INFO commandstats读取命令的调用次数
+     */
+    private static long calls(String command) throws Exception {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Properties info = connection.info("commandstats");
+            String stats = info.getProperty("cmdstat_" + command);
+            if (stats == null) {
+                return 0;
+            }
+            for (String part : stats.split(",")) {
+                if (part.startsWith("calls=")) {
+                    return Long.parseLong(part.substring("calls=".length()));
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.ruoyi.framework.security.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.framework.config.RedisConfig;
+import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.monitor.domain.SysUserOnline;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysUser;
+import com.ruoyi.project.system.service.impl.SysUserOnlineServiceImpl;
+import redis.embedded.RedisServer;
+
+/**
+ * 令牌续期：整体重写与只续期写入redis的字节数对比，只续期时在线用户列表显示续期后的登录时间
+ * 在内嵌Redis上执行，运行 mvn -Pit verify
+ *
+ * @author ruoyi
+ */
+public class TokenRefreshIT {
+    private static final int REFRESHES = 10000;
+
+    private static RedisServer server;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static CountingSerializer keyCounter;
+
+    private static CountingSerializer valueCounter;
+
+    private static RedisCache redisCache;
+
+    private LoginUserRegistry registry;
+
+    @BeforeClass
+    @SuppressWarnings("unchecked")
+    public static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+
+        // 与应用相同的序列化配置，外面包一层统计写入的字节数
+        RedisTemplate<Object, Object> template = new RedisConfig().redisTemplate(connectionFactory);
+        keyCounter = new CountingSerializer((RedisSerializer<Object>) template.getKeySerializer());
+        valueCounter = new CountingSerializer((RedisSerializer<Object>) template.getValueSerializer());
+        template.setKeySerializer(keyCounter);
+        template.setValueSerializer(valueCounter);
+        template.afterPropertiesSet();
+        redisCache = new RedisCache();
+        redisCache.redisTemplate = template;
+    }
+
+    @AfterClass
+    public static void stopRedis() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.flushDb();
+        }
+        registry = new LoginUserRegistry();
+        ReflectionTestUtils.setField(registry, "redisCache", redisCache);
+    }
+
+    @Test
+    public void refreshExpireOnlyWritesFewerBytes() {
+        long full = bytesWritten(false);
+        long expireOnly = bytesWritten(true);
+        System.out.println("redis bytes written per " + REFRESHES + " refreshes: rewrite=" + full + ", expireOnly="
+                + expireOnly);
+        assertTrue(expireOnly * 5 < full);
+    }
+
+    @Test
+    public void onlineListShowsRefreshedLoginTime() throws Exception {
+        TokenService tokenService = tokenService(true);
+        LoginUser loginUser = loginUser();
+        tokenService.refreshToken(loginUser);
+        long written = loginUser.getLoginTime();
+        Thread.sleep(5);
+        tokenService.refreshExpire(loginUser);
+        assertTrue(loginUser.getLoginTime() > written);
+
+        SysUserOnlineServiceImpl onlineService = new SysUserOnlineServiceImpl();
+        ReflectionTestUtils.setField(onlineService, "loginUserRegistry", registry);
+        ReflectionTestUtils.setField(onlineService, "redisCache", redisCache);
+        List<SysUserOnline> all = onlineService.selectOnlineList(null, null, null, null);
+        List<SysUserOnline> filtered = onlineService.selectOnlineList(null, "admin", null, null);
+        assertEquals(1, all.size());
+        assertEquals(loginUser.getLoginTime(), all.get(0).getLoginTime());
+        assertEquals(1, filtered.size());
+        assertEquals(loginUser.getLoginTime(), filtered.get(0).getLoginTime());
+    }
+
+    /**
+     * 登录一次后续期REFRESHES次，返回续期期间写入的键和值的字节数
+     */
+    private long bytesWritten(boolean refreshExpireOnly) {
+        TokenService tokenService = tokenService(refreshExpireOnly);
+        LoginUser loginUser = loginUser();
+        tokenService.refreshToken(loginUser);
+        keyCounter.reset();
+        valueCounter.reset();
+        for (int i = 0; i < REFRESHES; i++) {
+            if (refreshExpireOnly) {
+                tokenService.refreshExpire(loginUser);
+            } else {
+                tokenService.refreshToken(loginUser);
+            }
+        }
+        return keyCounter.bytes + valueCounter.bytes;
+    }
+
+    private TokenService tokenService(boolean refreshExpireOnly) {
+        TokenService tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "expireTime", 30);
+        ReflectionTestUtils.setField(tokenService, "refreshExpireOnly", refreshExpireOnly);
+        // 不订阅失效通知，只统计续期本身的写入
+        ReflectionTestUtils.setField(tokenService, "cacheEnabled", false);
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(tokenService, "redisCache", redisCache);
+        ReflectionTestUtils.setField(tokenService, "loginUserRegistry", registry);
+        PermissionBitsCache bitsCache = new PermissionBitsCache();
+        ReflectionTestUtils.setField(bitsCache, "expireTime", 30);
+        ReflectionTestUtils.setField(bitsCache, "maxSize", 100);
+        ReflectionTestUtils.setField(bitsCache, "permissionDictionary", new PermissionDictionary());
+        bitsCache.init();
+        ReflectionTestUtils.setField(tokenService, "permissionBitsCache", bitsCache);
+        tokenService.init();
+        return tokenService;
+    }
+
+    private static LoginUser loginUser() {
+        SysDept dept = new SysDept();
+        dept.setDeptId(103L);
+        dept.setDeptName("研发部门");
+        SysUser user = new SysUser();
+        user.setUserId(1L);
+        user.setDeptId(103L);
+        user.setUserName("admin");
+        user.setNickName("若依");
+        user.setPassword("$2a$10$7JB720yubVSZvUI0rEqK/.VqGOZTH.ulu33dHOiBE8ByOhJIrdAu2");
+        user.setDept(dept);
+        LoginUser loginUser = new LoginUser(user,
+                new HashSet<String>(Arrays.asList("system:user:list", "system:user:add", "monitor:online:list")));
+        loginUser.setToken("f0ba6a6a-7c8d-4f0b-9a63-5a2d1c0c2e11");
+        loginUser.setIpaddr("10.0.0.8");
+        loginUser.setLoginLocation("内网IP");
+        loginUser.setBrowser("Chrome 78");
+        loginUser.setOs("Windows 10");
+        return loginUser;
+    }
+
+    /**
+     * 统计序列化后的字节数
+     */
+    private static class CountingSerializer implements RedisSerializer<Object> {
+        private final RedisSerializer<Object> delegate;
+
+        private volatile long bytes;
+
+        private CountingSerializer(RedisSerializer<Object> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] serialize(Object value) throws SerializationException {
+            byte[] data = delegate.serialize(value);
+            if (data != null) {
+                bytes += data.length;
+            }
+            return data;
+        }
+
+        @Override
+        public Object deserialize(byte[] data) throws SerializationException {
+            return delegate.deserialize(data);
+        }
+
+        private void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.ruoyi.project.system.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.sql.DataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.exception.CustomException;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.mapper.SysDeptMapper;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * 部门闭包表：新增、移动子树、删除后与按parent_id重新计算的结果一致
+ * 在内嵌MariaDB上执行ry_20191202.sql和真实的SysDeptMapper.xml，运行 mvn -Pit verify
+ *
+ * @author ruoyi
+ */
+public class SysDeptServiceImplIT {
+    private static DB db;
+
+    private static DataSource dataSource;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private static SysDeptMapper deptMapper;
+
+    private SysDeptServiceImpl deptService;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // 容器中常以root运行，mysqld默认拒绝
+            config.addArg("--user=root");
+        }
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        // 不用DB.createDB，它依赖mysql命令行客户端
+        String url = config.getURL("");
+        new JdbcTemplate(new DriverManagerDataSource(url, "root", "")).execute(
+                "create database `ry-it` default character set utf8mb4");
+        dataSource = new DriverManagerDataSource(config.getURL("ry-it")
+                + "?useUnicode=true&characterEncoding=utf8&useSSL=false&serverTimezone=GMT%2B8", "root", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setConfigLocation(new ClassPathResource("mybatis/mybatis-config.xml"));
+        factory.setTypeAliases(new Class<?>[] { SysDept.class });
+        factory.setMapperLocations(new ClassPathResource[] { new ClassPathResource("mybatis/system/SysDeptMapper.xml") });
+        SqlSessionFactory sqlSessionFactory = factory.getObject();
+        deptMapper = new SqlSessionTemplate(sqlSessionFactory).getMapper(SysDeptMapper.class);
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws Exception {
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        executeScript("sql/ry_20191202.sql");
+        deptService = new SysDeptServiceImpl();
+        ReflectionTestUtils.setField(deptService, "deptMapper", deptMapper);
+    }
+
+    @Test
+    public void initialDataMatchesParentIds() {
+        assertClosure();
+    }
+
+    @Test
+    public void upgradeScriptMatchesParentIds() throws Exception {
+        // 旧库升级：按ancestors回填
+        executeScript("sql/dept_closure.sql");
+        assertClosure();
+    }
+
+    @Test
+    public void insertMoveAndDelete() {
+        Long a = insert(103L, "A");
+        Long b = insert(a, "B");
+        Long c = insert(b, "C");
+        Long d = insert(a, "D");
+        assertClosure();
+
+        // 4个部门、3层的子树移到另一个分支下
+        move(a, 108L);
+        assertClosure();
+
+        // 带下级的原有部门移到同级部门下，子树加深一层
+        move(101L, 102L);
+        assertClosure();
+
+        // 再移回根部门下，子树变浅
+        move(a, 100L);
+        assertClosure();
+
+        // 同一上级下修改，关系不变
+        move(b, a);
+        assertClosure();
+
+        // 不能移到自己的下级部门下，闭包表保持不变
+        try {
+            move(102L, 104L);
+            fail("上级部门不能是自己的下级部门");
+        } catch (CustomException e) {
+            assertClosure();
+        }
+
+        deptService.deleteDeptById(c);
+        deptService.deleteDeptById(d);
+        assertClosure();
+        deptService.deleteDeptById(b);
+        deptService.deleteDeptById(a);
+        assertClosure();
+    }
+
+    private Long insert(Long parentId, String deptName) {
+        SysDept dept = new SysDept();
+        dept.setParentId(parentId);
+        dept.setDeptName(deptName);
+        dept.setOrderNum("1");
+        dept.setStatus("0");
+        dept.setCreateBy("admin");
+        deptService.insertDept(dept);
+        return dept.getDeptId();
+    }
+
+    private void move(Long deptId, Long parentId) {
+        SysDept dept = deptMapper.selectDeptById(deptId);
+        dept.setParentId(parentId);
+        dept.setUpdateBy("admin");
+        deptService.updateDept(dept);
+    }
+
+    /**
+     * 闭包表、按上级查下级都与按parent_id逐级向上计算的结果一致
+     */
+    private static void assertClosure() {
+        Map<Long, Long> parents = new HashMap<Long, Long>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "select dept_id, parent_id from sys_dept where del_flag = '0'")) {
+            parents.put(((Number) row.get("dept_id")).longValue(), ((Number) row.get("parent_id")).longValue());
+        }
+        Set<String> expected = new TreeSet<String>();
+        Map<Long, Set<Long>> children = new HashMap<Long, Set<Long>>();
+        for (Long deptId : parents.keySet()) {
+            children.put(deptId, new TreeSet<Long>());
+        }
+        for (Long deptId : parents.keySet()) {
+            int depth = 0;
+            for (Long ancestor = deptId; parents.containsKey(ancestor); ancestor = parents.get(ancestor)) {
+                expected.add(ancestor + "->" + deptId + ":" + depth);
+                if (depth > 0) {
+                    children.get(ancestor).add(deptId);
+                }
+                depth++;
+                if (depth > parents.size()) {
+                    fail("parent_id存在环：" + deptId);
+                }
+            }
+        }
+        Set<String> actual = new TreeSet<String>(jdbcTemplate.queryForList(
+                "select concat(ancestor, '->', descendant, ':', depth) from sys_dept_closure", String.class));
+        assertEquals(String.join("\n", expected), String.join("\n", actual));
+
+        for (Long deptId : parents.keySet()) {
+            Set<Long> selected = new TreeSet<Long>();
+            for (SysDept child : deptMapper.selectChildrenDeptById(deptId)) {
+                selected.add(child.getDeptId());
+            }
+            assertEquals("下级部门 " + deptId, children.get(deptId), selected);
+        }
+    }
+
+    private static void executeScript(String path) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(new FileSystemResource(new File(path)), "UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.ruoyi.project.system.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.io.File;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.common.exception.CustomException;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysRole;
+import com.ruoyi.project.system.domain.SysUser;
+import com.ruoyi.project.system.domain.SysUserPost;
+import com.ruoyi.project.system.domain.SysUserRole;
+import com.ruoyi.project.system.mapper.SysUserMapper;
+import com.ruoyi.project.system.mapper.SysUserPostMapper;
+import com.ruoyi.project.system.mapper.SysUserRoleMapper;
+import com.ruoyi.project.system.service.ISysConfigService;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * 用户批量导入：整批失败后逐条重试、文件内重复账号、同一批内先新增后更新
+ * 在内嵌MariaDB上执行ry_20191202.sql和真实的用户、角色、岗位Mapper.xml，运行 mvn -Pit verify
+ *
+ * @author ruoyi
+ */
+public class SysUserServiceImplIT {
+    /**
+     * 计时导入的用户数
+     */
+    private static final int TIMING_SIZE = 100000;
+
+    private static DB db;
+
+    private static DataSource dataSource;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private static SqlSessionTemplate sqlSession;
+
+    private SysUserServiceImpl userService;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // 容器中常以root运行，mysqld默认拒绝
+            config.addArg("--user=root");
+        }
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        // 不用DB.createDB，它依赖mysql命令行客户端
+        JdbcTemplate root = new JdbcTemplate(new DriverManagerDataSource(config.getURL(""), "root", ""));
+        root.execute("create database `ry-it` default character set utf8mb4");
+        // 与生产库一致使用严格模式，非空字段写入null时整条insert失败而不是写入默认值
+        root.execute("set global sql_mode = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION'");
+        dataSource = new DriverManagerDataSource(config.getURL("ry-it")
+                + "?useUnicode=true&characterEncoding=utf8&useSSL=false&serverTimezone=GMT%2B8", "root", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setConfigLocation(new ClassPathResource("mybatis/mybatis-config.xml"));
+        factory.setTypeAliases(new Class<?>[] { SysUser.class, SysDept.class, SysRole.class, SysUserRole.class, SysUserPost.class });
+        factory.setMapperLocations(new ClassPathResource[] { new ClassPathResource("mybatis/system/SysUserMapper.xml"),
+                new ClassPathResource("mybatis/system/SysUserRoleMapper.xml"),
+                new ClassPathResource("mybatis/system/SysUserPostMapper.xml") });
+        SqlSessionFactory sqlSessionFactory = factory.getObject();
+        sqlSession = new SqlSessionTemplate(sqlSessionFactory);
+    }
+
+    @AfterClass
+    public static void stopDatabase() throws Exception {
+        if (db != null) {
+            db.stop();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        executeScript("sql/ry_20191202.sql");
+        ISysConfigService configService = mock(ISysConfigService.class);
+        when(configService.selectConfigByKey("sys.user.initPassword")).thenReturn("123456");
+        userService = new SysUserServiceImpl();
+        ReflectionTestUtils.setField(userService, "userMapper", sqlSession.getMapper(SysUserMapper.class));
+        ReflectionTestUtils.setField(userService, "userRoleMapper", sqlSession.getMapper(SysUserRoleMapper.class));
+        ReflectionTestUtils.setField(userService, "userPostMapper", sqlSession.getMapper(SysUserPostMapper.class));
+        ReflectionTestUtils.setField(userService, "configService", configService);
+        ReflectionTestUtils.setField(userService, "transactionManager", new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    public void failedBatchIsRetriedRowByRow() {
+        // 昵称不能为空，多行insert整批失败
+        List<SysUser> users = Arrays.asList(user("it_a", "A", 2L), user("it_b", "B", 2L), user("it_bad", null, 2L),
+                user("it_c", "C", 2L));
+        String message = importFailure(users, false);
+        assertTrue(message, message.contains("共 1 条"));
+        assertTrue(message, message.contains("账号 it_bad 导入失败"));
+        assertEquals(Arrays.asList("it_a", "it_b", "it_c"), userNames());
+        // 整批回滚后重试，角色关联不重复也不残留失败的行
+        assertEquals(Arrays.asList("it_a:2", "it_b:2", "it_c:2"), userRoles());
+    }
+
+    @Test
+    public void duplicateInOneFileIsReportedAsExisting() {
+        List<SysUser> users = Arrays.asList(user("it_dup", "first", null), user("it_b", "B", null),
+                user("it_dup", "second", null));
+        String message = importFailure(users, false);
+        assertTrue(message, message.contains("账号 it_dup 已存在"));
+        assertEquals(Arrays.asList("it_b", "it_dup"), userNames());
+        assertEquals("first", nickName("it_dup"));
+    }
+
+    @Test
+    public void duplicateAcrossBatchesIsReportedAsExisting() {
+        List<SysUser> users = new ArrayList<SysUser>();
+        for (int i = 0; i < 1000; i++) {
+            users.add(user("it_" + i, "N" + i, null));
+        }
+        // 第二批中重复第一批的账号
+        users.add(user("it_0", "again", null));
+        String message = importFailure(users, false);
+        assertTrue(message, message.contains("账号 it_0 已存在"));
+        assertEquals(1000, userCount());
+        assertEquals("N0", nickName("it_0"));
+    }
+
+    @Test
+    public void updateOfRowInsertedInSameBatch() {
+        List<SysUser> users = Arrays.asList(user("it_a", "first", 2L), user("it_b", "B", null),
+                user("it_a", "second", 1L));
+        String message = userService.importUser(users, true, "admin");
+        assertTrue(message, message.contains("账号 it_a 导入成功"));
+        assertTrue(message, message.contains("账号 it_a 更新成功"));
+        assertEquals(Arrays.asList("it_a", "it_b"), userNames());
+        assertEquals("second", nickName("it_a"));
+        assertEquals("admin", jdbcTemplate.queryForObject("select update_by from sys_user where user_name = 'it_a'", String.class));
+        // 更新时指定了角色，替换新增时的关联
+        assertEquals(Collections.singletonList("it_a:1"), userRoles());
+    }
+
+    @Test
+    public void updateOfRowInsertedInSameBatchAfterRetry() {
+        List<SysUser> users = Arrays.asList(user("it_a", "first", null), user("it_bad", null, null),
+                user("it_a", "second", null));
+        String message = importFailure(users, true);
+        assertTrue(message, message.contains("共 1 条"));
+        assertTrue(message, message.contains("账号 it_bad 导入失败"));
+        // 逐条重试按行的顺序，先新增再更新
+        assertEquals(Collections.singletonList("it_a"), userNames());
+        assertEquals("second", nickName("it_a"));
+    }
+
+    @Test
+    public void import100kUsers() {
+        List<SysUser> users = new ArrayList<SysUser>(TIMING_SIZE);
+        for (int i = 0; i < TIMING_SIZE; i++) {
+            users.add(user("it_" + i, "N" + i, 2L));
+        }
+        long start = System.nanoTime();
+        userService.importUser(users, false, "admin");
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.println("import " + TIMING_SIZE + " users: " + millis + " ms");
+        assertEquals(TIMING_SIZE, userCount());
+        assertEquals(TIMING_SIZE, jdbcTemplate.queryForObject(
+                "select count(*) from sys_user_role ur join sys_user u on u.user_id = ur.user_id where u.user_name like 'it\\_%'",
+                Integer.class).intValue());
+    }
+
+    private String importFailure(List<SysUser> users, boolean updateSupport) {
+        try {
+            userService.importUser(users, updateSupport, "admin");
+        } catch (CustomException e) {
+            return e.getMessage();
+        }
+        fail("导入应当有失败的行");
+        return null;
+    }
+
+    private static SysUser user(String userName, String nickName, Long roleId) {
+        SysUser user = new SysUser();
+        user.setUserName(userName);
+        user.setNickName(nickName);
+        user.setDeptId(103L);
+        if (roleId != null) {
+            user.setRoleIds(new Long[] { roleId });
+        }
+        return user;
+    }
+
+    private static List<String> userNames() {
+        return jdbcTemplate.queryForList(
+                "select user_name from sys_user where user_name like 'it\\_%' order by user_name", String.class);
+    }
+
+    private static int userCount() {
+        return jdbcTemplate.queryForObject("select count(*) from sys_user where user_name like 'it\\_%'", Integer.class);
+    }
+
+    private static String nickName(String userName) {
+        return jdbcTemplate.queryForObject("select nick_name from sys_user where user_name = ?", String.class, userName);
+    }
+
+    private static List<String> userRoles() {
+        return jdbcTemplate.queryForList("select concat(u.user_name, ':', ur.role_id) from sys_user_role ur"
+                + " join sys_user u on u.user_id = ur.user_id where u.user_name like 'it\\_%' order by u.user_name, ur.role_id",
+                String.class);
+    }
+
+    private static void executeScript(String path) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(new FileSystemResource(new File(path)), "UTF-8"));
+        }
+    }
+}
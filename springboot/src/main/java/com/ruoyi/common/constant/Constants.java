@@ -49,6 +49,41 @@ public class Constants
      */
     public static final String LOGIN_TOKEN_KEY = "login_tokens:";
 
+    /**
+     * 登录用户有效期 redis key（仅续期时写入 登录时间:过期时间）
+     */
+    public static final String LOGIN_TOKEN_EXPIRE_KEY = "login_tokens_expire:";
+
+    /**
+     * 在线用户索引 redis key（有序集合，uuid按过期时间排序）
+     */
+    public static final String LOGIN_TOKEN_INDEX_KEY = "login_tokens_index";
+
+    /**
+     * 在线用户按用户名称索引 redis key
+     */
+    public static final String LOGIN_TOKEN_USER_KEY = "login_tokens_user:";
+
+    /**
+     * 在线用户按登录地址索引 redis key
+     */
+    public static final String LOGIN_TOKEN_IP_KEY = "login_tokens_ip:";
+
+    /**
+     * 登录用户本地缓存失效通知 redis channel
+     */
+    public static final String LOGIN_TOKEN_TOPIC = "login_tokens_topic";
+
+    /**
+     * 参数配置、字典数据快照变更通知 redis channel
+     */
+    public static final String SNAPSHOT_TOPIC = "snapshot_topic";
+
+    /**
+     * 分页总数缓存表版本变更通知 redis channel
+     */
+    public static final String COUNT_CACHE_TOPIC = "count_cache_topic";
+
     /**
      * 验证码有效期（分钟）
      */
@@ -69,6 +104,11 @@ public class Constants
      */
     public static final String LOGIN_USER_KEY = "login_user_key";
 
+    /**
+     * 当前请求已解析的登录用户 request attribute
+     */
+    public static final String LOGIN_USER_ATTRIBUTE = "login_user_attribute";
+
     /**
      * 用户ID
      */
@@ -0,0 +1,205 @@
+package com.ruoyi.common.core.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内本地缓存（有界 + 过期时间）
+ * 读操作无锁，容量超出上限时先清理过期条目，再按过期时间从早到晚淘汰到容量的90%，避免每次写入都触发淘汰。
+ * 不是LRU：读取不会延后条目的淘汰，有效期相同时最早写入的先淘汰。
+ *
+ * @author ruoyi
+ */
+public class LocalCache<K, V> {
+    /**
+     * 缓存名称
+     */
+    private final String name;
+
+    /**
+     * 最大条目数
+     */
+    private final int maximumSize;
+
+    /**
+     * 写入后过期时间（毫秒），小于等于0表示不过期
+     */
+    private final long expireMillis;
+
+    private final ConcurrentHashMap<K, Entry<V>> store;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public LocalCache(String name, int maximumSize, long expireMillis) {
+        this.name = name;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.expireMillis = expireMillis;
+        this.store = new ConcurrentHashMap<>(Math.min(this.maximumSize, 1024));
+    }
+
+    /**
+     * 获取缓存，不存在或已过期返回null
+     *
+     * @param key 缓存键值
+     * @return 缓存值
+     */
+    public V get(K key) {
+        Entry<V> entry = store.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            store.remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存，使用缓存默认的过期时间
+     *
+     * @param key   缓存键值
+     * @param value 缓存值
+     */
+    public void put(K key, V value) {
+        put(key, value, expireMillis);
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key          缓存键值
+     * @param value        缓存值
+     * @param expireMillis 过期时间（毫秒），小于等于0表示不过期
+     */
+    public void put(K key, V value, long expireMillis) {
+        if (key == null || value == null) {
+            return;
+        }
+        long expireAt = expireMillis > 0 ? System.currentTimeMillis() + expireMillis : Long.MAX_VALUE;
+        store.put(key, new Entry<>(value, expireAt));
+        if (store.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 缓存键值
+     */
+    public void remove(K key) {
+        if (key != null) {
+            store.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        store.clear();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maximumSize", maximumSize);
+        stats.put("expireMillis", expireMillis);
+        stats.put("hitCount", getHitCount());
+        stats.put("missCount", getMissCount());
+        stats.put("evictionCount", getEvictionCount());
+        stats.put("hitRate", getHitRate());
+        return stats;
+    }
+
+    /**
+     * 淘汰缓存，先清理过期条目，仍超出时按过期时间从早到晚淘汰到容量的90%
+     */
+    private synchronized void evict() {
+        if (store.size() <= maximumSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<K, Entry<V>>> it = store.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+                evictionCount.increment();
+            }
+        }
+        int excess = store.size() - (maximumSize - maximumSize / 10);
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<K, Entry<V>>> entries = new ArrayList<>(store.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().expireAt));
+        for (int i = 0; i < excess && i < entries.size(); i++) {
+            Map.Entry<K, Entry<V>> entry = entries.get(i);
+            if (store.remove(entry.getKey(), entry.getValue())) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+    }
+}
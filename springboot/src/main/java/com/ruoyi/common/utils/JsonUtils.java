@@ -0,0 +1,173 @@
+package com.ruoyi.common.utils;
+
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+
+/**
+ * 限制长度的JSON序列化
+ * 输出达到上限后立即停止序列化，不会先把整个对象转成字符串再截取；输出缓冲按线程复用。
+ *
+ * @author ruoyi
+ */
+public class JsonUtils {
+    /**
+     * FastJson内部缓冲大小，缓冲写满才会输出，超出上限后最多多序列化这么多字符
+     */
+    private static final int SERIALIZE_BUFFER_SIZE = 256;
+
+    private static final SerializerFeature[] DEFAULT_FEATURES = Arrays.stream(SerializerFeature.values())
+            .filter(f -> SerializerFeature.isEnabled(JSON.DEFAULT_GENERATE_FEATURE, f))
+            .toArray(SerializerFeature[]::new);
+
+    private static final ThreadLocal<LimitedWriter> WRITER = ThreadLocal.withInitial(LimitedWriter::new);
+
+    /**
+     * 序列化对象，超出长度的部分丢弃
+     *
+     * @param object    对象
+     * @param maxLength 最大长度
+     * @return JSON字符串
+     */
+    public static String toJSONString(Object object, int maxLength) {
+        LimitedWriter writer = WRITER.get().reset(maxLength);
+        try {
+            write(writer, object);
+        } catch (RuntimeException e) {
+            // 达到上限时序列化会被中断，其它异常照常抛出
+            if (!writer.isFull()) {
+                throw e;
+            }
+        }
+        return writer.result();
+    }
+
+    /**
+     * 序列化多个对象，以空格分隔，超出长度的部分丢弃
+     *
+     * @param objects   对象数组
+     * @param maxLength 最大长度
+     * @param filter    需要跳过的对象
+     * @return JSON字符串
+     */
+    public static String toJSONString(Object[] objects, int maxLength, Predicate<Object> filter) {
+        LimitedWriter writer = WRITER.get().reset(maxLength);
+        if (objects == null) {
+            return "";
+        }
+        try {
+            for (Object object : objects) {
+                if (filter != null && filter.test(object)) {
+                    continue;
+                }
+                if (writer.length() > 0) {
+                    writer.write(' ');
+                }
+                write(writer, object);
+            }
+        } catch (RuntimeException e) {
+            if (!writer.isFull()) {
+                throw e;
+            }
+        }
+        return writer.result();
+    }
+
+    private static void write(LimitedWriter writer, Object object) {
+        // 不调用close，避免把小缓冲放进FastJson的线程缓存
+        SerializeWriter out = new SerializeWriter(writer, SERIALIZE_BUFFER_SIZE);
+        // 与JSON.toJSONString使用相同的默认特性
+        for (SerializerFeature feature : DEFAULT_FEATURES) {
+            out.config(feature, true);
+        }
+        new JSONSerializer(out).write(object);
+        out.flush();
+    }
+
+    /**
+     * 超出长度时中断序列化，不记录堆栈
+     */
+    private static final class LimitExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private static final LimitExceededException INSTANCE = new LimitExceededException();
+
+        private LimitExceededException() {
+            super("json length limit exceeded", null, false, false);
+        }
+    }
+
+    /**
+     * 达到长度上限后抛出异常中断写入
+     */
+    private static final class LimitedWriter extends Writer {
+        private final StringBuilder buffer = new StringBuilder(256);
+
+        private int limit;
+
+        private boolean full;
+
+        private LimitedWriter reset(int limit) {
+            this.limit = limit;
+            this.full = false;
+            buffer.setLength(0);
+            return this;
+        }
+
+        @Override
+        public void write(int c) {
+            if (buffer.length() >= limit) {
+                full = true;
+                throw LimitExceededException.INSTANCE;
+            }
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            int remaining = limit - buffer.length();
+            if (len > remaining) {
+                buffer.append(cbuf, off, Math.max(remaining, 0));
+                full = true;
+                throw LimitExceededException.INSTANCE;
+            }
+            buffer.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            int remaining = limit - buffer.length();
+            if (len > remaining) {
+                buffer.append(str, off, off + Math.max(remaining, 0));
+                full = true;
+                throw LimitExceededException.INSTANCE;
+            }
+            buffer.append(str, off, off + len);
+        }
+
+        private int length() {
+            return buffer.length();
+        }
+
+        private boolean isFull() {
+            return full;
+        }
+
+        private String result() {
+            return buffer.toString();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ruoyi.common.utils.http;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 熔断器
+ * 连续失败达到阈值后打开，打开期间直接拒绝调用；超过打开时间后放行一次试探调用，成功则关闭，失败则继续打开。
+ *
+ * @author ruoyi
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    /**
+     * 连续失败多少次后打开
+     */
+    private final int failureThreshold;
+
+    /**
+     * 打开后多久允许试探（毫秒）
+     */
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile State state = State.CLOSED;
+
+    private volatile long openedAt;
+
+    private final LongAdder successCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder openCount = new LongAdder();
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 是否允许调用，打开期间返回false
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+                // 只放行一次试探调用
+                state = State.HALF_OPEN;
+                return true;
+            }
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    public void recordSuccess() {
+        successCount.increment();
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            synchronized (this) {
+                state = State.CLOSED;
+            }
+        }
+    }
+
+    public void recordFailure() {
+        failureCount.increment();
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            synchronized (this) {
+                if (state != State.OPEN) {
+                    state = State.OPEN;
+                    openedAt = System.currentTimeMillis();
+                    openCount.increment();
+                }
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("state", state.name());
+        stats.put("failureThreshold", failureThreshold);
+        stats.put("openMillis", openMillis);
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("successCount", successCount.sum());
+        stats.put("failureCount", failureCount.sum());
+        stats.put("rejectedCount", rejectedCount.sum());
+        stats.put("openCount", openCount.sum());
+        return stats;
+    }
+}
@@ -81,6 +81,19 @@ public class HttpUtils {
      * @return 所代表远程资源的响应结果
      */
     public static String sendPost(String url, String param) {
+        return sendPost(url, param, 0, 0);
+    }
+
+    /**
+     * 向指定 URL 发送POST方法的请求
+     *
+     * @param url            发送请求的 URL
+     * @param param          请求参数，请求参数应该是 name1=value1&name2=value2 的形式。
+     * @param connectTimeout 连接超时时间（毫秒），0表示不限制
+     * @param readTimeout    读取超时时间（毫秒），0表示不限制
+     * @return 所代表远程资源的响应结果
+     */
+    public static String sendPost(String url, String param, int connectTimeout, int readTimeout) {
         PrintWriter out = null;
         BufferedReader in = null;
         StringBuilder result = new StringBuilder();
@@ -94,6 +107,8 @@ public class HttpUtils {
             conn.setRequestProperty("user-agent", "Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.1;SV1)");
             conn.setRequestProperty("Accept-Charset", "utf-8");
             conn.setRequestProperty("contentType", "utf-8");
+            conn.setConnectTimeout(connectTimeout);
+            conn.setReadTimeout(readTimeout);
             conn.setDoOutput(true);
             conn.setDoInput(true);
             out = new PrintWriter(conn.getOutputStream());
@@ -1,9 +1,17 @@
 package com.ruoyi.common.utils.ip;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.alibaba.fastjson.JSONObject;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.http.CircuitBreaker;
 import com.ruoyi.common.utils.http.HttpUtils;
 import com.ruoyi.framework.config.RuoYiConfig;
 
@@ -18,24 +26,123 @@ public class AddressUtils {
 
     public static final String IP_URL = "http://ip.taobao.com/service/getIpInfo.php";
 
+    public static final String UNKNOWN = "XX XX";
+
+    /**
+     * 远程查询连接超时时间（毫秒）
+     */
+    private static final int CONNECT_TIMEOUT = 2000;
+
+    /**
+     * 远程查询读取超时时间（毫秒）
+     */
+    private static final int READ_TIMEOUT = 3000;
+
+    /**
+     * 远程查询结果缓存，只缓存查询成功的结果
+     */
+    private static final LocalCache<String, String> CACHE = new LocalCache<>("address", 10000, 3600 * 1000L);
+
+    /**
+     * 正在查询中的IP，同一IP的并发查询只请求一次
+     */
+    private static final Map<String, CompletableFuture<String>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    /**
+     * 连续失败5次后熔断60秒
+     */
+    private static final CircuitBreaker BREAKER = new CircuitBreaker("address", 5, 60 * 1000L);
+
+    private static final LongAdder REMOTE_COUNT = new LongAdder();
+
+    private static final LongAdder COALESCED_COUNT = new LongAdder();
+
     public static String getRealAddressByIP(String ip) {
-        String address = "XX XX";
         // 内网不查询
         if (IpUtils.internalIp(ip)) {
             return "内网IP";
         }
-        if (RuoYiConfig.isAddressEnabled()) {
-            String rspStr = HttpUtils.sendPost(IP_URL, "ip=" + ip);
-            if (StringUtils.isEmpty(rspStr)) {
-                log.error("获取地理位置异常 {}", ip);
-                return address;
+        // 优先查询离线地址库
+        IpDatabase database = IpDatabase.getCurrent();
+        if (database != null) {
+            String location = database.lookup(ip);
+            if (location != null) {
+                return location;
             }
+        }
+        if (RuoYiConfig.isAddressEnabled()) {
+            return getRemoteAddress(ip);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * 远程查询地址，先查缓存，熔断期间直接返回未知地址
+     */
+    private static String getRemoteAddress(String ip) {
+        if (StringUtils.isEmpty(ip)) {
+            return UNKNOWN;
+        }
+        String address = CACHE.get(ip);
+        if (address != null) {
+            return address;
+        }
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> running = IN_FLIGHT.putIfAbsent(ip, future);
+        if (running != null) {
+            // 其它线程正在查询同一IP，等待其结果
+            COALESCED_COUNT.increment();
+            return running.join();
+        }
+        try {
+            address = queryRemote(ip);
+            future.complete(address);
+            return address;
+        } catch (RuntimeException e) {
+            future.complete(UNKNOWN);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(ip, future);
+        }
+    }
+
+    private static String queryRemote(String ip) {
+        if (!BREAKER.allowRequest()) {
+            return UNKNOWN;
+        }
+        REMOTE_COUNT.increment();
+        String rspStr = HttpUtils.sendPost(IP_URL, "ip=" + ip, CONNECT_TIMEOUT, READ_TIMEOUT);
+        if (StringUtils.isEmpty(rspStr)) {
+            BREAKER.recordFailure();
+            log.error("获取地理位置异常 {}", ip);
+            return UNKNOWN;
+        }
+        try {
             JSONObject obj = JSONObject.parseObject(rspStr);
             JSONObject data = obj.getObject("data", JSONObject.class);
             String region = data.getString("region");
             String city = data.getString("city");
-            address = region + " " + city;
+            String address = region + " " + city;
+            BREAKER.recordSuccess();
+            CACHE.put(ip, address);
+            return address;
+        } catch (Exception e) {
+            BREAKER.recordFailure();
+            log.error("解析地理位置异常 {} {}", ip, rspStr);
+            return UNKNOWN;
         }
-        return address;
+    }
+
+    /**
+     * 远程查询统计信息
+     */
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", RuoYiConfig.isAddressEnabled());
+        stats.put("remoteCount", REMOTE_COUNT.sum());
+        stats.put("coalescedCount", COALESCED_COUNT.sum());
+        stats.put("cache", CACHE.getStats());
+        stats.put("circuitBreaker", BREAKER.getStats());
+        return stats;
     }
 }
@@ -0,0 +1,374 @@
+package com.ruoyi.common.utils.ip;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 离线IP地址库
+ * 数据文件每行一个地址段：起始IP,结束IP,省份,城市（支持IPv4和IPv6，#开头为注释），
+ * 加载后按起始地址排序存放在基本类型数组中，查询时二分查找，不做任何网络请求。
+ * 重叠的地址段在加载时拆成互不重叠的地址段：同一地址以起始地址较晚的地址段为准，起始地址相同时以范围较小的为准，
+ * 即嵌套的小地址段覆盖大地址段中的对应部分。
+ *
+ * @author ruoyi
+ */
+public class IpDatabase {
+    private static final Logger log = LoggerFactory.getLogger(IpDatabase.class);
+
+    /**
+     * 当前使用的地址库，重新加载时整体替换
+     */
+    private static volatile IpDatabase current;
+
+    /**
+     * IPv4地址段，按起始地址排序，地址按无符号数比较
+     */
+    private final int[] v4Start;
+
+    private final int[] v4End;
+
+    private final int[] v4Location;
+
+    /**
+     * IPv6地址段，每个地址拆成高64位和低64位，按无符号数比较
+     */
+    private final long[] v6StartHigh;
+
+    private final long[] v6StartLow;
+
+    private final long[] v6EndHigh;
+
+    private final long[] v6EndLow;
+
+    private final int[] v6Location;
+
+    /**
+     * 地址名称，相同的地址只保存一份
+     */
+    private final String[] locations;
+
+    private final String source;
+
+    private final long loadTime;
+
+    private IpDatabase(List<Range> v4, List<Range> v6, List<String> locations, String source) {
+        v4.sort(Range::compareTo);
+        v6.sort(Range::compareTo);
+        this.v4Start = new int[v4.size()];
+        this.v4End = new int[v4.size()];
+        this.v4Location = new int[v4.size()];
+        for (int i = 0; i < v4.size(); i++) {
+            Range r = v4.get(i);
+            v4Start[i] = (int) r.startLow;
+            v4End[i] = (int) r.endLow;
+            v4Location[i] = r.location;
+        }
+        this.v6StartHigh = new long[v6.size()];
+        this.v6StartLow = new long[v6.size()];
+        this.v6EndHigh = new long[v6.size()];
+        this.v6EndLow = new long[v6.size()];
+        this.v6Location = new int[v6.size()];
+        for (int i = 0; i < v6.size(); i++) {
+            Range r = v6.get(i);
+            v6StartHigh[i] = r.startHigh;
+            v6StartLow[i] = r.startLow;
+            v6EndHigh[i] = r.endHigh;
+            v6EndLow[i] = r.endLow;
+            v6Location[i] = r.location;
+        }
+        this.locations = locations.toArray(new String[0]);
+        this.source = source;
+        this.loadTime = System.currentTimeMillis();
+    }
+
+    public static IpDatabase getCurrent() {
+        return current;
+    }
+
+    public static void setCurrent(IpDatabase database) {
+        current = database;
+    }
+
+    /**
+     * 从数据文件加载地址库，格式错误的行会被跳过
+     *
+     * @param file 数据文件
+     * @return 地址库
+     */
+    public static IpDatabase load(Path file) throws IOException {
+        List<Range> v4 = new ArrayList<>();
+        List<Range> v6 = new ArrayList<>();
+        List<String> locations = new ArrayList<>();
+        Map<String, Integer> locationIndex = new HashMap<>();
+        int lineNumber = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                byte[] start = columns.length >= 2 ? toBytes(columns[0]) : null;
+                byte[] end = start != null ? toBytes(columns[1]) : null;
+                if (end == null || start.length != end.length) {
+                    if (skipped++ < 10) {
+                        log.warn("IP地址库第{}行格式错误：{}", lineNumber, line);
+                    }
+                    continue;
+                }
+                String location = (column(columns, 2) + " " + column(columns, 3)).trim();
+                Integer index = locationIndex.get(location);
+                if (index == null) {
+                    index = locations.size();
+                    locations.add(location);
+                    locationIndex.put(location, index);
+                }
+                Range range = new Range(start, end, index);
+                if (range.compareEnd() < 0) {
+                    continue;
+                }
+                (start.length == 4 ? v4 : v6).add(range);
+            }
+        }
+        IpDatabase database = new IpDatabase(flatten(v4, "IPv4"), flatten(v6, "IPv6"), locations, file.toString());
+        log.info("加载IP地址库 {}，IPv4 {}段，IPv6 {}段，跳过{}行", file, v4.size(), v6.size(), skipped);
+        return database;
+    }
+
+    /**
+     * 重叠的地址段拆成互不重叠的地址段，二分查找只需要比较前一个地址段
+     * 按起始地址升序、结束地址降序扫描，栈中是覆盖当前位置的地址段，栈顶优先
+     *
+     * @param ranges 地址段
+     * @param family 地址类型，用于日志
+     * @return 按起始地址排序、互不重叠的地址段
+     */
+    private static List<Range> flatten(List<Range> ranges, String family) {
+        ranges.sort((a, b) -> {
+            int c = a.compareTo(b);
+            return c != 0 ? c : compare(b.endHigh, b.endLow, a.endHigh, a.endLow);
+        });
+        List<Range> result = new ArrayList<>(ranges.size());
+        Deque<Range> stack = new ArrayDeque<>();
+        Cursor cursor = new Cursor();
+        int overlaps = 0;
+        for (Range range : ranges) {
+            // 结束在当前地址段之前的地址段输出剩余部分
+            while (!stack.isEmpty() && compare(stack.peek().endHigh, stack.peek().endLow, range.startHigh, range.startLow) < 0) {
+                cursor.emitTo(stack.pop(), result);
+            }
+            if (!stack.isEmpty()) {
+                overlaps++;
+                // 外层地址段在当前地址段之前的部分
+                if (cursor.before(range.startHigh, range.startLow)) {
+                    long endHigh = range.startLow == 0 ? range.startHigh - 1 : range.startHigh;
+                    result.add(new Range(cursor.high, cursor.low, endHigh, range.startLow - 1, stack.peek().location));
+                }
+            }
+            cursor.moveTo(range.startHigh, range.startLow);
+            stack.push(range);
+        }
+        while (!stack.isEmpty()) {
+            cursor.emitTo(stack.pop(), result);
+        }
+        if (overlaps > 0) {
+            log.warn("IP地址库有{}个{}地址段与其它地址段重叠，已按较小的地址段拆分", overlaps, family);
+        }
+        return result;
+    }
+
+    /**
+     * 查询IP对应的地址
+     *
+     * @param ip IP地址
+     * @return 地址，不在地址库中返回null
+     */
+    public String lookup(String ip) {
+        byte[] bytes = toBytes(ip);
+        if (bytes == null) {
+            return null;
+        }
+        int index = bytes.length == 4 ? searchV4(bytes) : searchV6(bytes);
+        return index < 0 ? null : locations[index];
+    }
+
+    private int searchV4(byte[] bytes) {
+        int key = (int) toLong(bytes, 0, 4);
+        int low = 0;
+        int high = v4Start.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(v4Start[mid], key) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0 && Integer.compareUnsigned(key, v4End[found]) <= 0) {
+            return v4Location[found];
+        }
+        return -1;
+    }
+
+    private int searchV6(byte[] bytes) {
+        long keyHigh = toLong(bytes, 0, 8);
+        long keyLow = toLong(bytes, 8, 8);
+        int low = 0;
+        int high = v6StartHigh.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(v6StartHigh[mid], v6StartLow[mid], keyHigh, keyLow) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0 && compare(keyHigh, keyLow, v6EndHigh[found], v6EndLow[found]) <= 0) {
+            return v6Location[found];
+        }
+        return -1;
+    }
+
+    public int getV4Size() {
+        return v4Start.length;
+    }
+
+    public int getV6Size() {
+        return v6StartHigh.length;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * IP地址转字节，IPv4为4字节，IPv6为16字节（IPv4映射地址按IPv4处理），格式错误返回null
+     */
+    private static byte[] toBytes(String ip) {
+        return IpUtils.textToNumericFormat(ip);
+    }
+
+    private static long toLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int compare(long high1, long low1, long high2, long low2) {
+        int c = Long.compareUnsigned(high1, high2);
+        return c != 0 ? c : Long.compareUnsigned(low1, low2);
+    }
+
+    private static String column(String[] columns, int index) {
+        return index < columns.length ? columns[index].trim() : "";
+    }
+
+    /**
+     * 拆分地址段时下一个待输出的位置（128位）
+     */
+    private static final class Cursor {
+        private long high;
+
+        private long low;
+
+        /**
+         * 已经输出到最大地址，之后没有可输出的位置
+         */
+        private boolean covered;
+
+        private boolean before(long high, long low) {
+            return !covered && compare(this.high, this.low, high, low) < 0;
+        }
+
+        private void moveTo(long high, long low) {
+            this.high = high;
+            this.low = low;
+            this.covered = false;
+        }
+
+        /**
+         * 输出地址段从当前位置到结束地址的部分，当前位置已超过结束地址时不输出
+         */
+        private void emitTo(Range range, List<Range> result) {
+            if (covered || compare(high, low, range.endHigh, range.endLow) > 0) {
+                return;
+            }
+            result.add(new Range(high, low, range.endHigh, range.endLow, range.location));
+            covered = range.endHigh == -1L && range.endLow == -1L;
+            high = range.endLow == -1L ? range.endHigh + 1 : range.endHigh;
+            low = range.endLow + 1;
+        }
+    }
+
+    private static final class Range implements Comparable<Range> {
+        private final long startHigh;
+
+        private final long startLow;
+
+        private final long endHigh;
+
+        private final long endLow;
+
+        private final int location;
+
+        private Range(byte[] start, byte[] end, int location) {
+            if (start.length == 4) {
+                this.startHigh = 0;
+                this.startLow = toLong(start, 0, 4);
+                this.endHigh = 0;
+                this.endLow = toLong(end, 0, 4);
+            } else {
+                this.startHigh = toLong(start, 0, 8);
+                this.startLow = toLong(start, 8, 8);
+                this.endHigh = toLong(end, 0, 8);
+                this.endLow = toLong(end, 8, 8);
+            }
+            this.location = location;
+        }
+
+        private Range(long startHigh, long startLow, long endHigh, long endLow, int location) {
+            this.startHigh = startHigh;
+            this.startLow = startLow;
+            this.endHigh = endHigh;
+            this.endLow = endLow;
+            this.location = location;
+        }
+
+        /**
+         * 结束地址与起始地址比较，小于0表示地址段无效
+         */
+        private int compareEnd() {
+            return compare(endHigh, endLow, startHigh, startLow);
+        }
+
+        @Override
+        public int compareTo(Range o) {
+            return compare(startHigh, startLow, o.startHigh, o.startLow);
+        }
+    }
+}
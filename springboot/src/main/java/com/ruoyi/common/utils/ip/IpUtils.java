@@ -38,10 +38,24 @@ public class IpUtils {
     }
 
     public static boolean internalIp(String ip) {
-        byte[] addr = textToNumericFormatV4(ip);
+        byte[] addr = textToNumericFormat(ip);
+        if (addr != null && addr.length == 16) {
+            return internalIpV6(addr);
+        }
         return internalIp(addr) || "127.0.0.1".equals(ip);
     }
 
+    /**
+     * IPv6内网地址：::1、fc00::/7（唯一本地地址）、fe80::/10（链路本地地址）
+     */
+    private static boolean internalIpV6(byte[] addr) {
+        boolean loopback = addr[15] == 1;
+        for (int i = 0; i < 15 && loopback; i++) {
+            loopback = addr[i] == 0;
+        }
+        return loopback || (addr[0] & 0xFE) == 0xFC || ((addr[0] & 0xFF) == 0xFE && (addr[1] & 0xC0) == 0x80);
+    }
+
     private static boolean internalIp(byte[] addr) {
         if (StringUtils.isNull(addr) || addr.length < 2) {
             return true;
@@ -74,6 +88,57 @@ public class IpUtils {
         }
     }
 
+    /**
+     * 将IPv4或IPv6地址转换成字节，IPv4为4字节，IPv6为16字节（IPv4映射地址转为4字节）
+     *
+     * @param text IP地址
+     * @return byte 字节，格式错误返回null
+     */
+    public static byte[] textToNumericFormat(String text) {
+        if (text == null) {
+            return null;
+        }
+        text = text.trim();
+        if (text.indexOf(':') < 0) {
+            return text.isEmpty() ? null : textToNumericFormatV4(text);
+        }
+        return textToNumericFormatV6(text);
+    }
+
+    /**
+     * 将IPv6地址转换成字节
+     * 地址来自x-forwarded-for等客户端可控的请求头，只接受由十六进制数字、冒号和点组成、
+     * 以十六进制数字或冒号开头的字面量，此时InetAddress只按字面量解析，不会发起DNS查询
+     *
+     * @param text IPv6地址，可以带[]和%网卡标识
+     * @return byte 字节，格式错误返回null
+     */
+    public static byte[] textToNumericFormatV6(String text) {
+        if (text.length() > 2 && text.charAt(0) == '[' && text.charAt(text.length() - 1) == ']') {
+            text = text.substring(1, text.length() - 1);
+        }
+        int zone = text.indexOf('%');
+        if (zone > 0) {
+            text = text.substring(0, zone);
+        }
+        if (text.length() < 2 || text.length() > 45 || text.indexOf(':') < 0) {
+            return null;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            // 其他字符开头时InetAddress会当作主机名查询
+            if (!hex && c != ':' && (c != '.' || i == 0)) {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(text).getAddress();
+        } catch (UnknownHostException | SecurityException e) {
+            return null;
+        }
+    }
+
     /**
      * 将IPv4地址转换成字节
      *
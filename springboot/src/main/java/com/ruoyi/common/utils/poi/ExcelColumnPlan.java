@@ -0,0 +1,540 @@
+package com.ruoyi.common.utils.poi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.poi.ss.usermodel.DateUtil;
+import com.ruoyi.common.core.text.Convert;
+import com.ruoyi.common.exception.CustomException;
+import com.ruoyi.common.utils.DateUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.aspectj.lang.annotation.Excel;
+import com.ruoyi.framework.aspectj.lang.annotation.Excel.ColumnType;
+import com.ruoyi.framework.aspectj.lang.annotation.Excel.Type;
+import com.ruoyi.framework.aspectj.lang.annotation.Excels;
+
+/**
+ * Excel列计划
+ * 每个类按导出、导入类型只解析一次：列顺序、取值和赋值的MethodHandle、日期格式、转换表达式都预先处理，
+ * 读写单元格时不再查找注解、反射方法或拆分表达式。
+ *
+ * @author ruoyi
+ */
+public class ExcelColumnPlan<T>
+{
+    private static final Map<Type, Map<Class<?>, ExcelColumnPlan<?>>> CACHE = new EnumMap<Type, Map<Class<?>, ExcelColumnPlan<?>>>(Type.class);
+
+    static
+    {
+        for (Type type : Type.values())
+        {
+            CACHE.put(type, new ConcurrentHashMap<Class<?>, ExcelColumnPlan<?>>());
+        }
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<T> clazz;
+
+    private final MethodHandle constructor;
+
+    private final List<Column> columns;
+
+    /** 读取导入数据时使用的列：只有本类字段上的单注解，与改造前的导入一致 */
+    private final List<Column> readColumns;
+
+    /**
+     * 获取类的列计划
+     *
+     * @param clazz 实体类
+     * @param type 导出或导入
+     * @return 列计划
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ExcelColumnPlan<T> of(Class<T> clazz, Type type)
+    {
+        return (ExcelColumnPlan<T>) CACHE.get(type).computeIfAbsent(clazz, k -> new ExcelColumnPlan<T>(clazz, type));
+    }
+
+    private ExcelColumnPlan(Class<T> clazz, Type type)
+    {
+        this.clazz = clazz;
+        this.constructor = findConstructor(clazz);
+        List<Column> columns = new ArrayList<Column>();
+        List<Column> readColumns = new ArrayList<Column>();
+        List<Field> tempFields = new ArrayList<Field>();
+        tempFields.addAll(Arrays.asList(clazz.getSuperclass().getDeclaredFields()));
+        tempFields.addAll(Arrays.asList(clazz.getDeclaredFields()));
+        for (Field field : tempFields)
+        {
+            // 单注解
+            if (field.isAnnotationPresent(Excel.class))
+            {
+                Column column = addColumn(columns, field, field.getAnnotation(Excel.class), type);
+                if (column != null && field.getDeclaringClass() == clazz)
+                {
+                    readColumns.add(column);
+                }
+            }
+            // 多注解
+            if (field.isAnnotationPresent(Excels.class))
+            {
+                for (Excel excel : field.getAnnotation(Excels.class).value())
+                {
+                    addColumn(columns, field, excel, type);
+                }
+            }
+        }
+        this.columns = Collections.unmodifiableList(columns);
+        this.readColumns = Collections.unmodifiableList(readColumns);
+    }
+
+    private Column addColumn(List<Column> columns, Field field, Excel attr, Type type)
+    {
+        if (attr != null && (attr.type() == Type.ALL || attr.type() == type))
+        {
+            Column column = new Column(field, attr);
+            columns.add(column);
+            return column;
+        }
+        return null;
+    }
+
+    public List<Column> getColumns()
+    {
+        return columns;
+    }
+
+    public List<Column> getReadColumns()
+    {
+        return readColumns;
+    }
+
+    /**
+     * 创建实体对象
+     */
+    public T newInstance()
+    {
+        if (constructor == null)
+        {
+            throw new CustomException("导入对象缺少无参构造方法：" + clazz.getName());
+        }
+        try
+        {
+            return clazz.cast(constructor.invoke());
+        }
+        catch (Throwable e)
+        {
+            throw new CustomException("创建导入对象失败：" + clazz.getName());
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> clazz)
+    {
+        try
+        {
+            java.lang.reflect.Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(constructor);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * 单个列
+     */
+    public static class Column
+    {
+        private final Field field;
+
+        private final Excel attr;
+
+        /** 取值，依次调用，中间结果为null时结果为null */
+        private final MethodHandle[] getters;
+
+        /** 赋值前需要依次调用的取值（关联对象），最后一个为赋值 */
+        private final MethodHandle[] setterPath;
+
+        private final MethodHandle setter;
+
+        /** 导入时按字段类型转换 */
+        private final Function<Object, Object> typeConverter;
+
+        /** 导出时 值=显示 */
+        private final Map<String, String> exportMap;
+
+        /** 导入时 显示=值 */
+        private final Map<String, String> importMap;
+
+        private final DateTimeFormatter dateFormatter;
+
+        private Column(Field field, Excel attr)
+        {
+            this.field = field;
+            this.attr = attr;
+            field.setAccessible(true);
+            List<MethodHandle> path = new ArrayList<MethodHandle>();
+            path.add(unreflectGetter(field));
+            Class<?> valueType = field.getType();
+            MethodHandle setter = null;
+            if (StringUtils.isNotEmpty(attr.targetAttr()))
+            {
+                String[] targets = attr.targetAttr().split("[.]");
+                for (int i = 0; i < targets.length; i++)
+                {
+                    Method getter = findMethod(valueType, "get" + StringUtils.capitalize(targets[i]));
+                    if (getter == null)
+                    {
+                        path = null;
+                        break;
+                    }
+                    if (i == targets.length - 1)
+                    {
+                        setter = findSetter(valueType, targets[i], getter.getReturnType());
+                    }
+                    path.add(unreflect(getter));
+                    valueType = getter.getReturnType();
+                }
+            }
+            else
+            {
+                setter = findSetter(field.getDeclaringClass(), field.getName(), field.getType());
+                if (setter == null)
+                {
+                    setter = unreflectSetter(field);
+                }
+            }
+            this.getters = path != null ? path.toArray(new MethodHandle[0]) : new MethodHandle[0];
+            this.setterPath = path != null && path.size() > 1 ? path.subList(0, path.size() - 1).toArray(new MethodHandle[0]) : new MethodHandle[0];
+            if (setterPath.length > 0)
+            {
+                // 导入时关联对象通过get方法获取，实体可以在get方法中创建关联对象
+                Method getter = findMethod(field.getDeclaringClass(), "get" + StringUtils.capitalize(field.getName()));
+                if (getter != null)
+                {
+                    setterPath[0] = unreflect(getter);
+                }
+            }
+            this.setter = setter;
+            this.typeConverter = typeConverter(valueType);
+            this.exportMap = parseExp(attr.readConverterExp(), false);
+            this.importMap = parseExp(attr.readConverterExp(), true);
+            this.dateFormatter = dateFormatter(attr.dateFormat());
+        }
+
+        public Field getField()
+        {
+            return field;
+        }
+
+        public Excel getAttr()
+        {
+            return attr;
+        }
+
+        /**
+         * 读取属性值，支持targetAttr多级获取
+         */
+        public Object getValue(Object vo)
+        {
+            if (getters.length == 0)
+            {
+                return null;
+            }
+            try
+            {
+                Object o = vo;
+                for (MethodHandle getter : getters)
+                {
+                    if (o == null)
+                    {
+                        return null;
+                    }
+                    o = getter.invoke(o);
+                }
+                return o;
+            }
+            catch (Throwable e)
+            {
+                throw new CustomException("读取属性失败：" + field.getName());
+            }
+        }
+
+        /**
+         * 写入属性值，先按转换表达式和字段类型转换
+         */
+        public void setValue(Object vo, Object val)
+        {
+            if (setter == null)
+            {
+                return;
+            }
+            if (importMap != null)
+            {
+                String s = Convert.toStr(val);
+                val = importMap.getOrDefault(s, s);
+            }
+            val = typeConverter.apply(val);
+            try
+            {
+                Object o = vo;
+                for (MethodHandle getter : setterPath)
+                {
+                    o = getter.invoke(o);
+                    if (o == null)
+                    {
+                        return;
+                    }
+                }
+                setter.invoke(o, val);
+            }
+            catch (Throwable e)
+            {
+                throw new CustomException("设置属性失败：" + field.getName());
+            }
+        }
+
+        /**
+         * 计算导出单元格的值，只读取对象，可以在多个线程中同时调用
+         *
+         * @return 字符串或数字类型的值，导出时留空的列返回null
+         */
+        public Object format(Object vo)
+        {
+            if (!attr.isExport())
+            {
+                return null;
+            }
+            Object value = getValue(vo);
+            if (hasDateFormat() && StringUtils.isNotNull(value))
+            {
+                return formatDate((Date) value);
+            }
+            else if (hasConverter() && StringUtils.isNotNull(value))
+            {
+                return convert(String.valueOf(value));
+            }
+            else if (ColumnType.NUMERIC == attr.cellType())
+            {
+                try
+                {
+                    return Integer.parseInt(value + "");
+                }
+                catch (NumberFormatException e)
+                {
+                    // 空值或超出int范围时写入0，与改造前一致
+                    return 0;
+                }
+            }
+            return StringUtils.isNull(value) ? attr.defaultValue() : value + attr.suffix();
+        }
+
+        /**
+         * 是否有日期格式
+         */
+        public boolean hasDateFormat()
+        {
+            return StringUtils.isNotEmpty(attr.dateFormat());
+        }
+
+        /**
+         * 格式化日期
+         */
+        public String formatDate(Date date)
+        {
+            if (dateFormatter != null)
+            {
+                return dateFormatter.format(Instant.ofEpochMilli(date.getTime()));
+            }
+            return new SimpleDateFormat(attr.dateFormat()).format(date);
+        }
+
+        /**
+         * 是否有转换表达式
+         */
+        public boolean hasConverter()
+        {
+            return exportMap != null;
+        }
+
+        /**
+         * 按转换表达式翻译导出值，没有对应项时原样返回
+         */
+        public String convert(String value)
+        {
+            return exportMap.getOrDefault(value, value);
+        }
+    }
+
+    /**
+     * 解析转换表达式 0=男,1=女,2=未知，重复时以第一项为准
+     */
+    private static Map<String, String> parseExp(String converterExp, boolean reverse)
+    {
+        if (StringUtils.isEmpty(converterExp))
+        {
+            return null;
+        }
+        Map<String, String> map = new HashMap<String, String>();
+        for (String item : converterExp.split(","))
+        {
+            String[] itemArray = item.split("=");
+            if (itemArray.length >= 2)
+            {
+                map.putIfAbsent(reverse ? itemArray[1] : itemArray[0], reverse ? itemArray[0] : itemArray[1]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 线程安全的日期格式，格式不兼容时返回null，改用SimpleDateFormat
+     */
+    private static DateTimeFormatter dateFormatter(String pattern)
+    {
+        if (StringUtils.isEmpty(pattern))
+        {
+            return null;
+        }
+        try
+        {
+            return DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault());
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * 按字段类型转换单元格的值
+     */
+    private static Function<Object, Object> typeConverter(Class<?> fieldType)
+    {
+        if (String.class == fieldType)
+        {
+            return val -> {
+                String s = Convert.toStr(val);
+                return StringUtils.endsWith(s, ".0") ? StringUtils.substringBefore(s, ".0") : s;
+            };
+        }
+        else if ((Integer.TYPE == fieldType) || (Integer.class == fieldType))
+        {
+            return Convert::toInt;
+        }
+        else if ((Long.TYPE == fieldType) || (Long.class == fieldType))
+        {
+            return Convert::toLong;
+        }
+        else if ((Double.TYPE == fieldType) || (Double.class == fieldType))
+        {
+            return Convert::toDouble;
+        }
+        else if ((Float.TYPE == fieldType) || (Float.class == fieldType))
+        {
+            return Convert::toFloat;
+        }
+        else if (BigDecimal.class == fieldType)
+        {
+            return Convert::toBigDecimal;
+        }
+        else if (Date.class == fieldType)
+        {
+            return val -> {
+                if (val instanceof String)
+                {
+                    return DateUtils.parseDate(val);
+                }
+                else if (val instanceof Double)
+                {
+                    return DateUtil.getJavaDate((Double) val);
+                }
+                return val;
+            };
+        }
+        return Function.identity();
+    }
+
+    private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes)
+    {
+        try
+        {
+            return clazz.getMethod(name, parameterTypes);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+    private static MethodHandle findSetter(Class<?> clazz, String property, Class<?> type)
+    {
+        Method setter = findMethod(clazz, "set" + StringUtils.capitalize(property), type);
+        return setter != null ? unreflect(setter) : null;
+    }
+
+    /**
+     * 统一成(Object)Object或(Object,Object)void，调用时不需要知道具体类型
+     */
+    private static MethodHandle generic(MethodHandle handle)
+    {
+        return handle.asType(handle.type().generic().changeReturnType(
+                handle.type().returnType() == void.class ? void.class : Object.class));
+    }
+
+    private static MethodHandle unreflect(Method method)
+    {
+        try
+        {
+            method.setAccessible(true);
+            return generic(LOOKUP.unreflect(method));
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new CustomException("无法访问方法：" + method);
+        }
+    }
+
+    private static MethodHandle unreflectGetter(Field field)
+    {
+        try
+        {
+            return generic(LOOKUP.unreflectGetter(field));
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new CustomException("无法访问字段：" + field);
+        }
+    }
+
+    private static MethodHandle unreflectSetter(Field field)
+    {
+        try
+        {
+            return generic(LOOKUP.unreflectSetter(field));
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new CustomException("无法访问字段：" + field);
+        }
+    }
+}
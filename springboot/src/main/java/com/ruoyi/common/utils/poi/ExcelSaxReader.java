@@ -0,0 +1,357 @@
+package com.ruoyi.common.utils.poi;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import com.ruoyi.common.utils.StringUtils;
+
+/**
+ * xlsx事件模式读取
+ * 逐行解析sheet的XML，内存中只保留当前行和共享字符串表，不构建整个工作簿的对象模型。
+ * 共享字符串表仍然整体加载到堆内存（POI 3.17没有基于临时文件的实现），解压后的大小受MAX_SHARED_STRINGS_BYTES限制。
+ * 单元格取值规则与ExcelUtil.getCellValue一致：日期格式的数字转为Date，其它数字转为字符串，空单元格为空字符串。
+ *
+ * @author ruoyi
+ */
+public class ExcelSaxReader
+{
+    /**
+     * 共享字符串表解压后的最大字节数，超出时拒绝导入
+     * 上传文件受multipart的max-file-size限制，但xlsx压缩率很高，10MB的文件解压后可达上百MB；
+     * 共享字符串全部常驻内存，约占XML大小1到2倍的堆空间，这里按解压后的大小再限制一次
+     */
+    public static final long MAX_SHARED_STRINGS_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * 行数据处理
+     */
+    public interface RowHandler
+    {
+        /**
+         * 处理一行数据
+         *
+         * @param rowNum 行号（从0开始）
+         * @param cells 单元格值，下标为列号，缺少的单元格为null
+         */
+        void handle(int rowNum, List<Object> cells) throws Exception;
+    }
+
+    /**
+     * 读取指定sheet
+     *
+     * @param file xlsx文件
+     * @param sheetName sheet名称，为空时读取第1个sheet
+     * @param handler 行数据处理
+     */
+    public static void read(File file, String sheetName, RowHandler handler) throws Exception
+    {
+        read(file, sheetName, handler, MAX_SHARED_STRINGS_BYTES);
+    }
+
+    /**
+     * 读取指定sheet
+     *
+     * @param file xlsx文件
+     * @param sheetName sheet名称，为空时读取第1个sheet
+     * @param handler 行数据处理
+     * @param maxSharedStringsBytes 共享字符串表解压后的最大字节数
+     */
+    static void read(File file, String sheetName, RowHandler handler, long maxSharedStringsBytes) throws Exception
+    {
+        OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+        try
+        {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = sharedStrings(pkg, maxSharedStringsBytes);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext())
+            {
+                try (InputStream sheet = sheets.next())
+                {
+                    if (StringUtils.isEmpty(sheetName) || sheetName.equals(sheets.getSheetName()))
+                    {
+                        XMLReader parser = SAXHelper.newXMLReader();
+                        parser.setContentHandler(new SheetHandler(strings, styles, handler));
+                        try
+                        {
+                            parser.parse(new InputSource(sheet));
+                        }
+                        catch (SAXException e)
+                        {
+                            // 还原行处理中抛出的异常
+                            throw e.getException() != null ? e.getException() : e;
+                        }
+                        return;
+                    }
+                }
+            }
+            throw new IOException("文件sheet不存在");
+        }
+        finally
+        {
+            // 只读打开的文件不需要保存
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 加载共享字符串表，边解压边计数，超出限制时停止读取
+     */
+    private static ReadOnlySharedStringsTable sharedStrings(OPCPackage pkg, long maxBytes) throws Exception
+    {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty())
+        {
+            return new ReadOnlySharedStringsTable(pkg);
+        }
+        try (InputStream in = new LimitedInputStream(parts.get(0).getInputStream(), maxBytes))
+        {
+            return new ReadOnlySharedStringsTable(in);
+        }
+        catch (SAXException e)
+        {
+            // 超出限制的异常在SAX解析中被包装
+            throw e.getException() != null ? e.getException() : e;
+        }
+    }
+
+    /**
+     * 读取超过指定字节数时抛出异常
+     */
+    private static class LimitedInputStream extends FilterInputStream
+    {
+        private final long limit;
+
+        private long count;
+
+        private LimitedInputStream(InputStream in, long limit)
+        {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b >= 0)
+            {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            if (n > 0)
+            {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws IOException
+        {
+            count += n;
+            if (count > limit)
+            {
+                throw new IOException("文件中的文本内容过多（超过" + limit / 1024 / 1024 + "MB），请拆分后导入");
+            }
+        }
+    }
+
+    /**
+     * sheet解析
+     */
+    private static class SheetHandler extends DefaultHandler
+    {
+        private final ReadOnlySharedStringsTable strings;
+
+        private final StylesTable styles;
+
+        private final RowHandler handler;
+
+        /** 样式序号是否为日期格式 */
+        private final Map<Integer, Boolean> dateStyles = new HashMap<Integer, Boolean>();
+
+        private final DecimalFormat integerFormat = new DecimalFormat("0");
+
+        private final DecimalFormat decimalFormat = new DecimalFormat("0.00");
+
+        private final List<Object> cells = new ArrayList<Object>();
+
+        private final StringBuilder value = new StringBuilder();
+
+        private int rowNum = -1;
+
+        private int column;
+
+        private String cellType;
+
+        private int styleIndex;
+
+        private boolean inValue;
+
+        private SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, RowHandler handler)
+        {
+            this.strings = strings;
+            this.styles = styles;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+        {
+            if ("row".equals(localName))
+            {
+                String r = attributes.getValue("r");
+                rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                cells.clear();
+                column = -1;
+            }
+            else if ("c".equals(localName))
+            {
+                String ref = attributes.getValue("r");
+                column = ref != null ? columnIndex(ref) : column + 1;
+                cellType = attributes.getValue("t");
+                String s = attributes.getValue("s");
+                styleIndex = s != null ? Integer.parseInt(s) : -1;
+                value.setLength(0);
+            }
+            else if ("v".equals(localName) || "t".equals(localName))
+            {
+                inValue = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length)
+        {
+            if (inValue)
+            {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException
+        {
+            if ("v".equals(localName) || "t".equals(localName))
+            {
+                inValue = false;
+            }
+            else if ("c".equals(localName))
+            {
+                while (cells.size() <= column)
+                {
+                    cells.add(null);
+                }
+                cells.set(column, cellValue());
+            }
+            else if ("row".equals(localName))
+            {
+                try
+                {
+                    handler.handle(rowNum, cells);
+                }
+                catch (Exception e)
+                {
+                    throw new SAXException(e);
+                }
+            }
+        }
+
+        private Object cellValue()
+        {
+            String text = value.toString();
+            if ("s".equals(cellType))
+            {
+                return strings.getEntryAt(Integer.parseInt(text.trim()));
+            }
+            if ("inlineStr".equals(cellType) || "str".equals(cellType) || "e".equals(cellType))
+            {
+                return text;
+            }
+            if ("b".equals(cellType))
+            {
+                return "1".equals(text);
+            }
+            if (text.isEmpty())
+            {
+                return "";
+            }
+            double number = Double.parseDouble(text);
+            if (isDateStyle(styleIndex))
+            {
+                return DateUtil.getJavaDate(number);
+            }
+            return number % 1 > 0 ? decimalFormat.format(number) : integerFormat.format(number);
+        }
+
+        private boolean isDateStyle(int index)
+        {
+            if (index < 0 || styles == null)
+            {
+                return false;
+            }
+            Boolean date = dateStyles.get(index);
+            if (date == null)
+            {
+                XSSFCellStyle style = styles.getStyleAt(index);
+                date = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+                dateStyles.put(index, date);
+            }
+            return date;
+        }
+
+        /**
+         * 单元格引用（如AB12）转列号
+         */
+        private static int columnIndex(String ref)
+        {
+            int index = 0;
+            for (int i = 0; i < ref.length(); i++)
+            {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z')
+                {
+                    break;
+                }
+                index = index * 26 + (c - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}
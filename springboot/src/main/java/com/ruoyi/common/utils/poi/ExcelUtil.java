@@ -1,22 +1,36 @@
 package com.ruoyi.common.utils.poi;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.math.BigDecimal;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -40,16 +54,13 @@ import org.apache.poi.xssf.usermodel.XSSFDataValidation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.ruoyi.framework.aspectj.lang.annotation.Excel;
-import com.ruoyi.framework.aspectj.lang.annotation.Excel.ColumnType;
 import com.ruoyi.framework.aspectj.lang.annotation.Excel.Type;
-import com.ruoyi.framework.aspectj.lang.annotation.Excels;
 import com.ruoyi.framework.config.RuoYiConfig;
 import com.ruoyi.framework.web.domain.AjaxResult;
-import com.ruoyi.common.core.text.Convert;
 import com.ruoyi.common.exception.CustomException;
-import com.ruoyi.common.utils.DateUtils;
+import com.ruoyi.common.utils.ServletUtils;
 import com.ruoyi.common.utils.StringUtils;
-import com.ruoyi.common.utils.reflect.ReflectUtils;
+import com.ruoyi.common.utils.file.FileUtils;
 
 /**
  * Excel相关处理
@@ -65,6 +76,26 @@ public class ExcelUtil<T>
      */
     public static final int sheetSize = 65536;
 
+    /**
+     * 并行导出时每个转换任务的行数
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * 并行导出时转换单元格值的线程池，所有导出共用，线程数不超过4个
+     */
+    private static final ForkJoinPool EXPORT_POOL = new ForkJoinPool(Math.min(4, Runtime.getRuntime().availableProcessors()),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("excel-export-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+
+    /**
+     * 数字，导出CSV时不需要防公式注入处理
+     */
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("-?\\d+(\\.\\d+)?");
+
     /**
      * 工作表名称
      */
@@ -98,7 +129,12 @@ public class ExcelUtil<T>
     /**
      * 注解列表
      */
-    private List<Object[]> fields;
+    private List<ExcelColumnPlan.Column> fields;
+
+    /**
+     * 是否并行转换单元格的值
+     */
+    private boolean parallel;
 
     /**
      * 实体对象
@@ -143,140 +179,132 @@ public class ExcelUtil<T>
      */
     public List<T> importExcel(String sheetName, InputStream is) throws Exception
     {
-        this.type = Type.IMPORT;
-        this.wb = WorkbookFactory.create(is);
         List<T> list = new ArrayList<T>();
-        Sheet sheet = null;
-        if (StringUtils.isNotEmpty(sheetName))
-        {
-            // 如果指定sheet名,则取指定sheet中的内容.
-            sheet = wb.getSheet(sheetName);
-        }
-        else
-        {
-            // 如果传入的sheet名不存在则默认指向第1个sheet.
-            sheet = wb.getSheetAt(0);
-        }
-
-        if (sheet == null)
-        {
-            throw new IOException("文件sheet不存在");
-        }
-
-        int rows = sheet.getPhysicalNumberOfRows();
+        importExcel(sheetName, is, Integer.MAX_VALUE, list::addAll);
+        return list;
+    }
 
-        if (rows > 0)
-        {
-            // 定义一个map用于存放excel列的序号和field.
-            Map<String, Integer> cellMap = new HashMap<String, Integer>();
-            // 获取表头
-            Row heard = sheet.getRow(0);
-            for (int i = 0; i < heard.getPhysicalNumberOfCells(); i++)
+    /**
+     * 流式导入，按行读取并转换，每满chunkSize条交给consumer处理一次
+     * xlsx按事件模式逐行解析，内存占用与文件大小无关；xls仍按对象模型读取
+     * 
+     * @param sheetName 表格索引名，为空时读取第1个sheet
+     * @param is 输入流
+     * @param chunkSize 每批条数
+     * @param consumer 每批数据的处理
+     */
+    public void importExcel(String sheetName, InputStream is, int chunkSize, Consumer<List<T>> consumer) throws Exception
+    {
+        this.type = Type.IMPORT;
+        ExcelColumnPlan<T> plan = ExcelColumnPlan.of(clazz, Type.IMPORT);
+        // 列号和字段的对应关系，由表头确定
+        Map<Integer, ExcelColumnPlan.Column> fieldsMap = new HashMap<Integer, ExcelColumnPlan.Column>();
+        List<List<T>> chunk = new ArrayList<List<T>>(1);
+        chunk.add(new ArrayList<T>());
+        boolean[] header = { true };
+        readRows(sheetName, is, (rowNum, cells) -> {
+            if (header[0])
             {
-                Cell cell = heard.getCell(i);
-                if (StringUtils.isNotNull(cell != null))
+                // 第一行是表头
+                header[0] = false;
+                Map<String, Integer> cellMap = new HashMap<String, Integer>();
+                for (int i = 0; i < cells.size(); i++)
                 {
-                    String value = this.getCellValue(heard, i).toString();
-                    cellMap.put(value, i);
+                    if (cells.get(i) != null)
+                    {
+                        cellMap.put(cells.get(i).toString(), i);
+                    }
                 }
-                else
+                for (ExcelColumnPlan.Column field : plan.getReadColumns())
                 {
-                    cellMap.put(null, i);
+                    Integer column = cellMap.get(field.getAttr().name());
+                    if (column != null)
+                    {
+                        fieldsMap.put(column, field);
+                    }
                 }
+                return;
             }
-            // 有数据时才处理 得到类的所有field.
-            Field[] allFields = clazz.getDeclaredFields();
-            // 定义一个map用于存放列的序号和field.
-            Map<Integer, Field> fieldsMap = new HashMap<Integer, Field>();
-            for (int col = 0; col < allFields.length; col++)
+            if (isEmptyRow(cells))
             {
-                Field field = allFields[col];
-                Excel attr = field.getAnnotation(Excel.class);
-                if (attr != null && (attr.type() == Type.ALL || attr.type() == type))
-                {
-                    // 设置类的私有字段属性可访问.
-                    field.setAccessible(true);
-                    Integer column = cellMap.get(attr.name());
-                    fieldsMap.put(column, field);
-                }
+                return;
+            }
+            T entity = plan.newInstance();
+            for (Map.Entry<Integer, ExcelColumnPlan.Column> entry : fieldsMap.entrySet())
+            {
+                int column = entry.getKey();
+                Object val = column < cells.size() && cells.get(column) != null ? cells.get(column) : "";
+                entry.getValue().setValue(entity, val);
+            }
+            chunk.get(0).add(entity);
+            if (chunk.get(0).size() >= chunkSize)
+            {
+                consumer.accept(chunk.get(0));
+                chunk.set(0, new ArrayList<T>());
             }
-            for (int i = 1; i < rows; i++)
+        });
+        if (!chunk.get(0).isEmpty())
+        {
+            consumer.accept(chunk.get(0));
+        }
+    }
+
+    /**
+     * 逐行读取excel，上传的流先写到临时文件，xlsx按事件模式解析，其它格式按对象模型读取
+     */
+    private void readRows(String sheetName, InputStream is, ExcelSaxReader.RowHandler handler) throws Exception
+    {
+        File file = File.createTempFile("import", ".tmp");
+        try
+        {
+            Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            FileMagic magic;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file)))
+            {
+                magic = FileMagic.valueOf(in);
+            }
+            if (magic == FileMagic.OOXML)
             {
-                // 从第2行开始取数据,默认第一行是表头.
-                Row row = sheet.getRow(i);
-                T entity = null;
-                for (Map.Entry<Integer, Field> entry : fieldsMap.entrySet())
+                ExcelSaxReader.read(file, sheetName, handler);
+                return;
+            }
+            this.wb = WorkbookFactory.create(file, null, true);
+            Sheet sheet = StringUtils.isNotEmpty(sheetName) ? wb.getSheet(sheetName) : wb.getSheetAt(0);
+            if (sheet == null)
+            {
+                throw new IOException("文件sheet不存在");
+            }
+            List<Object> cells = new ArrayList<Object>();
+            for (Row row : sheet)
+            {
+                cells.clear();
+                for (int i = 0; i < row.getLastCellNum(); i++)
                 {
-                    Object val = this.getCellValue(row, entry.getKey());
-
-                    // 如果不存在实例则新建.
-                    entity = (entity == null ? clazz.newInstance() : entity);
-                    // 从map中得到对应列的field.
-                    Field field = fieldsMap.get(entry.getKey());
-                    // 取得类型,并根据对象类型设置值.
-                    Class<?> fieldType = field.getType();
-                    if (String.class == fieldType)
-                    {
-                        String s = Convert.toStr(val);
-                        if (StringUtils.endsWith(s, ".0"))
-                        {
-                            val = StringUtils.substringBefore(s, ".0");
-                        }
-                        else
-                        {
-                            val = Convert.toStr(val);
-                        }
-                    }
-                    else if ((Integer.TYPE == fieldType) || (Integer.class == fieldType))
-                    {
-                        val = Convert.toInt(val);
-                    }
-                    else if ((Long.TYPE == fieldType) || (Long.class == fieldType))
-                    {
-                        val = Convert.toLong(val);
-                    }
-                    else if ((Double.TYPE == fieldType) || (Double.class == fieldType))
-                    {
-                        val = Convert.toDouble(val);
-                    }
-                    else if ((Float.TYPE == fieldType) || (Float.class == fieldType))
-                    {
-                        val = Convert.toFloat(val);
-                    }
-                    else if (BigDecimal.class == fieldType)
-                    {
-                        val = Convert.toBigDecimal(val);
-                    }
-                    else if (Date.class == fieldType)
-                    {
-                        if (val instanceof String)
-                        {
-                            val = DateUtils.parseDate(val);
-                        }
-                        else if (val instanceof Double)
-                        {
-                            val = DateUtil.getJavaDate((Double) val);
-                        }
-                    }
-                    if (StringUtils.isNotNull(fieldType))
-                    {
-                        Excel attr = field.getAnnotation(Excel.class);
-                        String propertyName = field.getName();
-                        if (StringUtils.isNotEmpty(attr.targetAttr()))
-                        {
-                            propertyName = field.getName() + "." + attr.targetAttr();
-                        }
-                        else if (StringUtils.isNotEmpty(attr.readConverterExp()))
-                        {
-                            val = reverseByExp(String.valueOf(val), attr.readConverterExp());
-                        }
-                        ReflectUtils.invokeSetter(entity, propertyName, val);
-                    }
+                    cells.add(row.getCell(i) != null ? getCellValue(row, i) : null);
                 }
-                list.add(entity);
+                handler.handle(row.getRowNum(), cells);
             }
         }
-        return list;
+        finally
+        {
+            if (wb != null)
+            {
+                wb.close();
+            }
+            file.delete();
+        }
+    }
+
+    private boolean isEmptyRow(List<Object> cells)
+    {
+        for (Object cell : cells)
+        {
+            if (cell != null && StringUtils.isNotEmpty(cell.toString()))
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -287,8 +315,22 @@ public class ExcelUtil<T>
      * @return 结果
      */
     public AjaxResult exportExcel(List<T> list, String sheetName)
+    {
+        return exportExcel(list, sheetName, false);
+    }
+
+    /**
+     * 对list数据源将其里面的数据导入到excel表单
+     * 
+     * @param list 导出数据集合
+     * @param sheetName 工作表的名称
+     * @param parallel 是否并行转换，每个sheet的数据分批在线程池中转换后按顺序写入
+     * @return 结果
+     */
+    public AjaxResult exportExcel(List<T> list, String sheetName, boolean parallel)
     {
         this.init(list, sheetName, Type.EXPORT);
+        this.parallel = parallel;
         return exportExcel();
     }
 
@@ -319,16 +361,7 @@ public class ExcelUtil<T>
             for (int index = 0; index <= sheetNo; index++)
             {
                 createSheet(sheetNo, index);
-
-                // 产生一行
-                Row row = sheet.createRow(0);
-                int column = 0;
-                // 写入各个字段的列头名称
-                for (Object[] os : fields)
-                {
-                    Excel excel = (Excel) os[1];
-                    this.createCell(excel, row, column++);
-                }
+                Row row = writeHeader();
                 if (Type.EXPORT.equals(type))
                 {
                     fillExcelData(index, row);
@@ -381,21 +414,247 @@ public class ExcelUtil<T>
     {
         int startNo = index * sheetSize;
         int endNo = Math.min(startNo + sheetSize, list.size());
-        for (int i = startNo; i < endNo; i++)
+        if (!parallel)
+        {
+            for (int i = startNo; i < endNo; i++)
+            {
+                writeRow(i + 1 - startNo, toCellValues(list.get(i)));
+            }
+            return;
+        }
+        List<ForkJoinTask<List<Object[]>>> tasks = new ArrayList<ForkJoinTask<List<Object[]>>>();
+        for (int i = startNo; i < endNo; i += CHUNK_SIZE)
+        {
+            tasks.add(convertAsync(list.subList(i, Math.min(i + CHUNK_SIZE, endNo))));
+        }
+        int rowNum = 1;
+        for (ForkJoinTask<List<Object[]>> task : tasks)
+        {
+            for (Object[] values : task.join())
+            {
+                writeRow(rowNum++, values);
+            }
+        }
+    }
+
+    /**
+     * 流式导出，查询结果逐行写入工作表后直接输出到响应
+     * 不生成下载文件，也不在内存中保留全部数据，超出SXSSF窗口的行由POI写到压缩的行缓存中
+     * 
+     * @param response 响应对象
+     * @param sheetName 工作表的名称
+     * @param source 数据来源，把每行数据交给传入的ResultHandler，如service中的流式查询
+     */
+    public void exportExcel(HttpServletResponse response, String sheetName, Consumer<ResultHandler<T>> source)
+    {
+        exportExcel(response, sheetName, source, false);
+    }
+
+    /**
+     * 流式导出，查询结果逐行写入工作表后直接输出到响应
+     * 
+     * @param response 响应对象
+     * @param sheetName 工作表的名称
+     * @param source 数据来源，把每行数据交给传入的ResultHandler，如service中的流式查询
+     * @param parallel 是否并行转换，查询结果分批在线程池中转换后按顺序写入
+     */
+    public void exportExcel(HttpServletResponse response, String sheetName, Consumer<ResultHandler<T>> source, boolean parallel)
+    {
+        this.init(null, sheetName, Type.EXPORT);
+        this.parallel = parallel;
+        SXSSFWorkbook workbook = (SXSSFWorkbook) wb;
+        workbook.setCompressTempFiles(true);
+        try
+        {
+            createSheet(0, 0);
+            writeHeader();
+            StreamWriter writer = new StreamWriter();
+            source.accept(writer);
+            writer.finish();
+            String filename = System.currentTimeMillis() + sheetName + ".xlsx";
+            response.setCharacterEncoding("utf-8");
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            response.setHeader("Content-Disposition",
+                    "attachment;filename=" + FileUtils.setFileDownloadHeader(ServletUtils.getRequest(), filename));
+            wb.write(response.getOutputStream());
+        }
+        catch (Exception e)
+        {
+            log.error("导出Excel异常{}", e.getMessage());
+            throw new CustomException("导出Excel失败，请联系网站管理员！");
+        }
+        finally
+        {
+            // 删除行缓存文件
+            workbook.dispose();
+            try
+            {
+                wb.close();
+            }
+            catch (IOException e1)
+            {
+                e1.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 流式导出CSV，列和取值规则与Excel导出相同，不生成工作簿和样式，适合数据量很大的日志导出
+     * 
+     * @param response 响应对象
+     * @param sheetName 文件名称
+     * @param source 数据来源，把每行数据交给传入的ResultHandler，如service中的流式查询
+     */
+    public void exportCsv(HttpServletResponse response, String sheetName, Consumer<ResultHandler<T>> source)
+    {
+        this.sheetName = sheetName;
+        this.type = Type.EXPORT;
+        createExcelField();
+        String filename = System.currentTimeMillis() + sheetName + ".csv";
+        try
+        {
+            response.setCharacterEncoding("utf-8");
+            response.setContentType("text/csv");
+            response.setHeader("Content-Disposition",
+                    "attachment;filename=" + FileUtils.setFileDownloadHeader(ServletUtils.getRequest(), filename));
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 65536))
+            {
+                // BOM，Excel打开时按UTF-8识别中文
+                writer.write('\ufeff');
+                Object[] header = new Object[fields.size()];
+                for (int column = 0; column < header.length; column++)
+                {
+                    header[column] = fields.get(column).getAttr().name();
+                }
+                writeCsvLine(writer, header);
+                IOException[] error = new IOException[1];
+                source.accept(context -> {
+                    try
+                    {
+                        writeCsvLine(writer, toCellValues(context.getResultObject()));
+                    }
+                    catch (IOException e)
+                    {
+                        error[0] = e;
+                        context.stop();
+                    }
+                });
+                if (error[0] != null)
+                {
+                    throw error[0];
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("导出CSV异常{}", e.getMessage());
+            throw new CustomException("导出CSV失败，请联系网站管理员！");
+        }
+    }
+
+    /**
+     * 写入CSV的一行
+     */
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException
+    {
+        for (int column = 0; column < values.length; column++)
+        {
+            if (column > 0)
+            {
+                writer.write(',');
+            }
+            if (values[column] != null)
+            {
+                writer.write(escapeCsv(values[column].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * CSV转义，包含逗号、引号、换行的值加引号；以公式符号、制表符、回车开头的值加单引号，避免在Excel中被当作公式执行
+     */
+    private static String escapeCsv(String value)
+    {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0 && !NUMBER_PATTERN.matcher(value).matches())
+        {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+        {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    /**
+     * 写入表头
+     * 
+     * @return 表头行
+     */
+    private Row writeHeader()
+    {
+        Row row = sheet.createRow(0);
+        int column = 0;
+        // 写入各个字段的列头名称
+        for (ExcelColumnPlan.Column field : fields)
+        {
+            this.createCell(field.getAttr(), row, column++);
+        }
+        return row;
+    }
+
+    /**
+     * 写入一行数据
+     * 
+     * @param rowNum 行号
+     * @param values 各列的值
+     */
+    private void writeRow(int rowNum, Object[] values)
+    {
+        Row row = sheet.createRow(rowNum);
+        for (int column = 0; column < values.length; column++)
         {
-            row = sheet.createRow(i + 1 - startNo);
-            // 得到导出对象.
-            T vo = (T) list.get(i);
-            int column = 0;
-            for (Object[] os : fields)
+            this.addCell(fields.get(column).getAttr(), row, values[column], column);
+        }
+    }
+
+    /**
+     * 计算一行各列的值，不访问工作簿，可以在线程池中执行
+     * 
+     * @param vo 导出对象
+     * @return 各列的值
+     */
+    private Object[] toCellValues(T vo)
+    {
+        Object[] values = new Object[fields.size()];
+        for (int column = 0; column < values.length; column++)
+        {
+            try
+            {
+                values[column] = fields.get(column).format(vo);
+            }
+            catch (Exception e)
             {
-                Field field = (Field) os[0];
-                Excel excel = (Excel) os[1];
-                // 设置实体类私有属性可访问
-                field.setAccessible(true);
-                this.addCell(excel, row, vo, field, column++);
+                log.error("导出Excel失败{}", e);
             }
         }
+        return values;
+    }
+
+    /**
+     * 在线程池中转换一批数据
+     */
+    private ForkJoinTask<List<Object[]>> convertAsync(List<T> rows)
+    {
+        return EXPORT_POOL.submit(() -> {
+            List<Object[]> values = new ArrayList<Object[]>(rows.size());
+            for (T vo : rows)
+            {
+                values.add(toCellValues(vo));
+            }
+            return values;
+        });
     }
 
     /**
@@ -456,27 +715,6 @@ public class ExcelUtil<T>
         return cell;
     }
 
-    /**
-     * 设置单元格信息
-     * 
-     * @param value 单元格值
-     * @param attr 注解相关
-     * @param cell 单元格信息
-     */
-    public void setCellVo(Object value, Excel attr, Cell cell)
-    {
-        if (ColumnType.STRING == attr.cellType())
-        {
-            cell.setCellType(CellType.NUMERIC);
-            cell.setCellValue(StringUtils.isNull(value) ? attr.defaultValue() : value + attr.suffix());
-        }
-        else if (ColumnType.NUMERIC == attr.cellType())
-        {
-            cell.setCellType(CellType.NUMERIC);
-            cell.setCellValue(Integer.parseInt(value + ""));
-        }
-    }
-
     /**
      * 创建表格样式
      */
@@ -509,42 +747,25 @@ public class ExcelUtil<T>
     /**
      * 添加单元格
      */
-    public Cell addCell(Excel attr, Row row, T vo, Field field, int column)
+    public Cell addCell(Excel attr, Row row, Object value, int column)
     {
         Cell cell = null;
-        try
+        // 设置行高
+        row.setHeight((short) (attr.height() * 20));
+        // 根据Excel中设置情况决定是否导出,有些情况需要保持为空,希望用户填写这一列.
+        if (attr.isExport())
         {
-            // 设置行高
-            row.setHeight((short) (attr.height() * 20));
-            // 根据Excel中设置情况决定是否导出,有些情况需要保持为空,希望用户填写这一列.
-            if (attr.isExport())
-            {
-                // 创建cell
-                cell = row.createCell(column);
-                cell.setCellStyle(styles.get("data"));
-
-                // 用于读取对象中的属性
-                Object value = getTargetValue(vo, field, attr);
-                String dateFormat = attr.dateFormat();
-                String readConverterExp = attr.readConverterExp();
-                if (StringUtils.isNotEmpty(dateFormat) && StringUtils.isNotNull(value))
-                {
-                    cell.setCellValue(DateUtils.parseDateToStr(dateFormat, (Date) value));
-                }
-                else if (StringUtils.isNotEmpty(readConverterExp) && StringUtils.isNotNull(value))
-                {
-                    cell.setCellValue(convertByExp(String.valueOf(value), readConverterExp));
-                }
-                else
-                {
-                    // 设置列类型
-                    setCellVo(value, attr, cell);
-                }
+            // 创建cell
+            cell = row.createCell(column);
+            cell.setCellStyle(styles.get("data"));
+            if (value instanceof Number)
+            {
+                cell.setCellValue(((Number) value).doubleValue());
+            }
+            else if (value != null)
+            {
+                cell.setCellValue(value.toString());
             }
-        }
-        catch (Exception e)
-        {
-            log.error("导出Excel失败{}", e);
         }
         return cell;
     }
@@ -690,95 +911,11 @@ public class ExcelUtil<T>
     }
 
     /**
-     * 获取bean中的属性值
-     * 
-     * @param vo 实体对象
-     * @param field 字段
-     * @param excel 注解
-     * @return 最终的属性值
-     * @throws Exception
-     */
-    private Object getTargetValue(T vo, Field field, Excel excel) throws Exception
-    {
-        Object o = field.get(vo);
-        if (StringUtils.isNotEmpty(excel.targetAttr()))
-        {
-            String target = excel.targetAttr();
-            if (target.indexOf(".") > -1)
-            {
-                String[] targets = target.split("[.]");
-                for (String name : targets)
-                {
-                    o = getValue(o, name);
-                }
-            }
-            else
-            {
-                o = getValue(o, target);
-            }
-        }
-        return o;
-    }
-
-    /**
-     * 以类的属性的get方法方法形式获取值
-     * 
-     * @param o
-     * @param name
-     * @return value
-     * @throws Exception
-     */
-    private Object getValue(Object o, String name) throws Exception
-    {
-        if (StringUtils.isNotEmpty(name))
-        {
-            Class<?> clazz = o.getClass();
-            String methodName = "get" + name.substring(0, 1).toUpperCase() + name.substring(1);
-            Method method = clazz.getMethod(methodName);
-            o = method.invoke(o);
-        }
-        return o;
-    }
-
-    /**
-     * 得到所有定义字段
+     * 得到所有定义字段，列计划每个类只解析一次
      */
     private void createExcelField()
     {
-        this.fields = new ArrayList<Object[]>();
-        List<Field> tempFields = new ArrayList<>();
-        tempFields.addAll(Arrays.asList(clazz.getSuperclass().getDeclaredFields()));
-        tempFields.addAll(Arrays.asList(clazz.getDeclaredFields()));
-        for (Field field : tempFields)
-        {
-            // 单注解
-            if (field.isAnnotationPresent(Excel.class))
-            {
-                putToField(field, field.getAnnotation(Excel.class));
-            }
-
-            // 多注解
-            if (field.isAnnotationPresent(Excels.class))
-            {
-                Excels attrs = field.getAnnotation(Excels.class);
-                Excel[] excels = attrs.value();
-                for (Excel excel : excels)
-                {
-                    putToField(field, excel);
-                }
-            }
-        }
-    }
-
-    /**
-     * 放到字段集合中
-     */
-    private void putToField(Field field, Excel attr)
-    {
-        if (attr != null && (attr.type() == Type.ALL || attr.type() == type))
-        {
-            this.fields.add(new Object[] { field, attr });
-        }
+        this.fields = ExcelColumnPlan.of(clazz, type).getColumns();
     }
 
     /**
@@ -869,4 +1006,79 @@ public class ExcelUtil<T>
         }
         return val;
     }
-}
\ No newline at end of file
+
+    /**
+     * 流式导出的行写入，超出单个sheet的行数时新建sheet
+     * 并行时每满一批提交到线程池转换，按提交顺序写入，已转换未写入的批数有上限
+     */
+    private class StreamWriter implements ResultHandler<T>
+    {
+        private final Deque<ForkJoinTask<List<Object[]>>> pending = new ArrayDeque<ForkJoinTask<List<Object[]>>>();
+
+        private List<T> batch = new ArrayList<T>(CHUNK_SIZE);
+
+        private int count;
+
+        @Override
+        public void handleResult(ResultContext<? extends T> context)
+        {
+            if (!parallel)
+            {
+                write(toCellValues(context.getResultObject()));
+                return;
+            }
+            batch.add(context.getResultObject());
+            if (batch.size() >= CHUNK_SIZE)
+            {
+                submit();
+            }
+        }
+
+        private void submit()
+        {
+            pending.add(convertAsync(batch));
+            batch = new ArrayList<T>(CHUNK_SIZE);
+            while (pending.size() > EXPORT_POOL.getParallelism() * 2)
+            {
+                writeAll(pending.poll().join());
+            }
+        }
+
+        private void finish()
+        {
+            if (!batch.isEmpty())
+            {
+                submit();
+            }
+            while (!pending.isEmpty())
+            {
+                writeAll(pending.poll().join());
+            }
+        }
+
+        private void writeAll(List<Object[]> rows)
+        {
+            for (Object[] values : rows)
+            {
+                write(values);
+            }
+        }
+
+        private void write(Object[] values)
+        {
+            int index = count++;
+            if (index > 0 && index % sheetSize == 0)
+            {
+                // 超出单个sheet的行数时新建sheet，与exportExcel的sheet命名一致
+                int sheetIndex = index / sheetSize;
+                if (sheetIndex == 1)
+                {
+                    wb.setSheetName(0, sheetName + 0);
+                }
+                createSheet(sheetIndex, sheetIndex);
+                writeHeader();
+            }
+            writeRow(index % sheetSize + 1, values);
+        }
+    }
+}
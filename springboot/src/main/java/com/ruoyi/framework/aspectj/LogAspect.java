@@ -1,6 +1,7 @@
 package com.ruoyi.framework.aspectj;
 
 import java.lang.reflect.Method;
+import java.util.Date;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -16,18 +17,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
-import com.alibaba.fastjson.JSON;
+import com.ruoyi.common.constant.HttpStatus;
 import com.ruoyi.common.enums.HttpMethod;
+import com.ruoyi.common.utils.JsonUtils;
 import com.ruoyi.common.utils.ServletUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.ip.IpUtils;
 import com.ruoyi.common.utils.spring.SpringUtils;
 import com.ruoyi.framework.aspectj.lang.annotation.Log;
 import com.ruoyi.framework.aspectj.lang.enums.BusinessStatus;
-import com.ruoyi.framework.manager.AsyncManager;
-import com.ruoyi.framework.manager.factory.AsyncFactory;
+import com.ruoyi.framework.manager.OperLogLimiter;
+import com.ruoyi.framework.manager.OperLogWriter;
 import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.framework.security.service.TokenService;
+import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.project.monitor.domain.SysOperLog;
 
 /**
@@ -87,11 +90,11 @@ public class LogAspect
             // *========数据库日志=========*//
             SysOperLog operLog = new SysOperLog();
             operLog.setStatus(BusinessStatus.SUCCESS.ordinal());
+            // 批量写入时入库时间晚于操作时间，在这里记录
+            operLog.setOperTime(new Date());
             // 请求的地址
             String ip = IpUtils.getIpAddr(ServletUtils.getRequest());
             operLog.setOperIp(ip);
-            // 返回参数
-            operLog.setJsonResult(JSON.toJSONString(jsonResult));
 
             operLog.setOperUrl(ServletUtils.getRequest().getRequestURI());
             if (loginUser != null)
@@ -104,6 +107,17 @@ public class LogAspect
                 operLog.setStatus(BusinessStatus.FAIL.ordinal());
                 operLog.setErrorMsg(StringUtils.substring(e.getMessage(), 0, 2000));
             }
+            else if (jsonResult instanceof AjaxResult)
+            {
+                // 业务校验失败时返回AjaxResult.error，同样记为失败
+                AjaxResult result = (AjaxResult) jsonResult;
+                Object code = result.get(AjaxResult.CODE_TAG);
+                if (code instanceof Integer && (Integer) code != HttpStatus.SUCCESS)
+                {
+                    operLog.setStatus(BusinessStatus.FAIL.ordinal());
+                    operLog.setErrorMsg(StringUtils.substring(String.valueOf(result.get(AjaxResult.MSG_TAG)), 0, 2000));
+                }
+            }
             // 设置方法名称
             String className = joinPoint.getTarget().getClass().getName();
             String methodName = joinPoint.getSignature().getName();
@@ -112,8 +126,18 @@ public class LogAspect
             operLog.setRequestMethod(ServletUtils.getRequest().getMethod());
             // 处理设置注解上的参数
             getControllerMethodDescription(joinPoint, controllerLog, operLog);
-            // 保存数据库
-            AsyncManager.me().execute(AsyncFactory.recordOper(operLog));
+            // 采样、限流、聚合，失败的操作总是记录
+            if (!SpringUtils.getBean(OperLogLimiter.class).accept(operLog, controllerLog.businessType()))
+            {
+                return;
+            }
+            // 返回参数，超出长度后不再继续序列化
+            if (controllerLog.isSaveResponseData())
+            {
+                operLog.setJsonResult(JsonUtils.toJSONString(jsonResult, 2000));
+            }
+            // 放入队列批量保存数据库
+            SpringUtils.getBean(OperLogWriter.class).record(operLog);
         }
         catch (Exception exp)
         {
@@ -158,8 +182,7 @@ public class LogAspect
         String requestMethod = operLog.getRequestMethod();
         if (HttpMethod.PUT.name().equals(requestMethod) || HttpMethod.POST.name().equals(requestMethod))
         {
-            String params = argsArrayToString(joinPoint.getArgs());
-            operLog.setOperParam(StringUtils.substring(params, 0, 2000));
+            operLog.setOperParam(JsonUtils.toJSONString(joinPoint.getArgs(), 2000, this::isFilterObject));
         }
         else
         {
@@ -184,26 +207,6 @@ public class LogAspect
         return null;
     }
 
-    /**
-     * 参数拼装
-     */
-    private String argsArrayToString(Object[] paramsArray)
-    {
-        String params = "";
-        if (paramsArray != null && paramsArray.length > 0)
-        {
-            for (int i = 0; i < paramsArray.length; i++)
-            {
-                if (!isFilterObject(paramsArray[i]))
-                {
-                    Object jsonObj = JSON.toJSON(paramsArray[i]);
-                    params += jsonObj.toString() + " ";
-                }
-            }
-        }
-        return params.trim();
-    }
-
     /**
      * 判断是否需要过滤的对象。
      * 
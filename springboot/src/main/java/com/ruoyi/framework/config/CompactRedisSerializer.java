@@ -0,0 +1,138 @@
+package com.ruoyi.framework.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+/**
+ * Redis使用紧凑二进制序列化
+ *
+ * 已注册的类型写成 [魔数][类型编号][Smile二进制]，按字段读写，不写类名，也不受接口返回用的Jackson注解影响；
+ * 未注册的类型以及历史数据仍按FastJson处理，迁移期间新旧格式可以同时读取。
+ *
+ * @author ruoyi
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object>
+{
+    /**
+     * 二进制格式标识，JSON文本不会以该字节开头
+     */
+    private static final byte MAGIC = 0x01;
+
+    private final Map<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Class<?>> types = new ConcurrentHashMap<>();
+
+    private final ObjectMapper mapper;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback)
+    {
+        SmileFactory factory = new SmileFactory();
+        factory.disable(SmileGenerator.Feature.WRITE_HEADER);
+        factory.disable(SmileParser.Feature.REQUIRE_HEADER);
+
+        this.mapper = new ObjectMapper(factory);
+        mapper.configure(MapperFeature.USE_ANNOTATIONS, false);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.fallback = fallback;
+    }
+
+    /**
+     * 注册类型，编号写入数据中，已经写入redis的编号不能再修改
+     *
+     * @param id 类型编号（1-32767）
+     * @param clazz 类型
+     * @return 序列化器
+     */
+    public CompactRedisSerializer register(int id, Class<?> clazz)
+    {
+        if (id <= 0 || id > Short.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("类型编号超出范围：" + id);
+        }
+        Class<?> exists = types.putIfAbsent(id, clazz);
+        if (exists != null && exists != clazz)
+        {
+            throw new IllegalArgumentException("类型编号重复：" + id + "，" + exists.getName());
+        }
+        typeIds.put(clazz, id);
+        return this;
+    }
+
+    @Override
+    public byte[] serialize(Object t) throws SerializationException
+    {
+        if (t == null)
+        {
+            return new byte[0];
+        }
+        Integer id = typeIds.get(t.getClass());
+        if (id == null)
+        {
+            return fallback.serialize(t);
+        }
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+            out.write(MAGIC);
+            out.write(id >>> 8);
+            out.write(id);
+            mapper.writeValue(out, t);
+            return out.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new SerializationException("Could not write binary: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException
+    {
+        if (bytes == null || bytes.length <= 0)
+        {
+            return null;
+        }
+        if (bytes[0] != MAGIC)
+        {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < 3)
+        {
+            throw new SerializationException("Binary value too short: " + bytes.length + " bytes");
+        }
+        int id = ((bytes[1] & 0xFF) << 8) | (bytes[2] & 0xFF);
+        Class<?> clazz = types.get(id);
+        if (clazz == null)
+        {
+            throw new SerializationException("Unknown type id: " + id);
+        }
+        try
+        {
+            return mapper.readValue(bytes, 3, bytes.length - 3, clazz);
+        }
+        catch (IOException e)
+        {
+            throw new SerializationException("Could not read binary: " + e.getMessage(), e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import javax.sql.DataSource;
 import org.apache.ibatis.io.VFS;
+import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.mybatis.spring.boot.autoconfigure.SpringBootVFS;
@@ -20,7 +21,14 @@ import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.util.ClassUtils;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.utils.IdUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.interceptor.CountCacheInterceptor;
+import com.ruoyi.framework.redis.RedisCache;
 
 /**
  * Mybatis支持*匹配扫描包
@@ -89,8 +97,33 @@ public class MyBatisConfig
         return typeAliasesPackage;
     }
 
+    /**
+     * 分页总数缓存，需要先于PageHelper注册
+     * 各节点通过redis频道互相通知表的写入，使其它节点缓存的总数同时失效
+     */
     @Bean
-    public SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception
+    public CountCacheInterceptor countCacheInterceptor(RedisCache redisCache, RedisMessageListenerContainer listenerContainer)
+    {
+        CountCacheInterceptor interceptor = new CountCacheInterceptor(env.getProperty("mybatis.countCacheSeconds", Integer.class, 30),
+                env.getProperty("mybatis.countCacheSize", Integer.class, 1000),
+                env.getProperty("mybatis.countEstimateRows", Long.class, 10000L));
+        String nodeId = IdUtils.fastSimpleUUID();
+        interceptor.setPublisher(table -> redisCache.publish(Constants.COUNT_CACHE_TOPIC, nodeId + ":" + table));
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Object body = redisCache.redisTemplate.getValueSerializer().deserialize(message.getBody());
+            String text = StringUtils.isNull(body) ? null : body.toString();
+            int index = StringUtils.isEmpty(text) ? -1 : text.indexOf(':');
+            // 忽略自己发出的通知
+            if (index > 0 && !nodeId.equals(text.substring(0, index)))
+            {
+                interceptor.invalidateTable(text.substring(index + 1));
+            }
+        }, new ChannelTopic(Constants.COUNT_CACHE_TOPIC));
+        return interceptor;
+    }
+
+    @Bean
+    public SqlSessionFactory sqlSessionFactory(DataSource dataSource, CountCacheInterceptor countCacheInterceptor) throws Exception
     {
         String typeAliasesPackage = env.getProperty("mybatis.typeAliasesPackage");
         String mapperLocations = env.getProperty("mybatis.mapperLocations");
@@ -103,6 +136,7 @@ public class MyBatisConfig
         sessionFactory.setTypeAliasesPackage(typeAliasesPackage);
         sessionFactory.setMapperLocations(new PathMatchingResourcePatternResolver().getResources(mapperLocations));
         sessionFactory.setConfigLocation(new DefaultResourceLoader().getResource(configLocation));
+        sessionFactory.setPlugins(new Interceptor[] { countCacheInterceptor });
         return sessionFactory.getObject();
     }
 }
\ No newline at end of file
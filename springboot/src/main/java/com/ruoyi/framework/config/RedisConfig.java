@@ -1,15 +1,22 @@
 package com.ruoyi.framework.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysRole;
+import com.ruoyi.project.system.domain.SysUser;
 
 /**
  * redis配置
@@ -20,6 +27,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @EnableCaching
 public class RedisConfig extends CachingConfigurerSupport
 {
+    /**
+     * 值序列化方式 json=FastJson compact=紧凑二进制（可读取json历史数据）
+     */
+    @Value("${spring.redis.serializer:json}")
+    private String serializerType;
+
     @Bean
     @SuppressWarnings(value = { "unchecked", "rawtypes" })
     public RedisTemplate<Object, Object> redisTemplate(RedisConnectionFactory connectionFactory)
@@ -34,10 +47,41 @@ public class RedisConfig extends CachingConfigurerSupport
         mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
         serializer.setObjectMapper(mapper);
 
-        template.setValueSerializer(serializer);
+        RedisSerializer valueSerializer = "compact".equals(serializerType) ? compactSerializer(serializer) : serializer;
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
+        // 使用StringRedisSerializer来序列化和反序列化redis hash的field
+        // 以前hash按JDK方式序列化，RedisCache.getCacheMap读到旧字段时改写为当前格式
+        template.setHashKeySerializer(new StringRedisSerializer());
         // 使用StringRedisSerializer来序列化和反序列化redis的key值
         template.setKeySerializer(new StringRedisSerializer());
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * 紧凑二进制序列化，注册常用的缓存类型，编号写入redis后不可修改
+     */
+    static CompactRedisSerializer compactSerializer(RedisSerializer<Object> fallback)
+    {
+        return new CompactRedisSerializer(fallback)
+                .register(1, String.class)
+                .register(2, Long.class)
+                .register(3, Integer.class)
+                .register(100, LoginUser.class)
+                .register(101, SysUser.class)
+                .register(102, SysRole.class)
+                .register(103, SysDept.class);
+    }
+
+    /**
+     * redis消息监听容器，用于各节点本地缓存的失效通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory)
+    {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
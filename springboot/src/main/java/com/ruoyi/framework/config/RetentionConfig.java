@@ -0,0 +1,139 @@
+package com.ruoyi.framework.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审计日志保留配置
+ * 
+ * @author ruoyi
+ */
+@Component
+@ConfigurationProperties(prefix = "retention")
+public class RetentionConfig
+{
+    /** 归档文件目录，为空则不归档直接删除 */
+    private String archivePath;
+
+    /** 每次删除的行数 */
+    private int deleteBatchSize = 5000;
+
+    /** 每次清理每张表最多创建的分区数 */
+    private int maxCreatePartitions = 31;
+
+    /** 需要清理的表，键为表名 */
+    private Map<String, Table> tables = new LinkedHashMap<>();
+
+    public String getArchivePath()
+    {
+        return archivePath;
+    }
+
+    public void setArchivePath(String archivePath)
+    {
+        this.archivePath = archivePath;
+    }
+
+    public int getDeleteBatchSize()
+    {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(int deleteBatchSize)
+    {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    public int getMaxCreatePartitions()
+    {
+        return maxCreatePartitions;
+    }
+
+    public void setMaxCreatePartitions(int maxCreatePartitions)
+    {
+        this.maxCreatePartitions = maxCreatePartitions;
+    }
+
+    public Map<String, Table> getTables()
+    {
+        return tables;
+    }
+
+    public void setTables(Map<String, Table> tables)
+    {
+        this.tables = tables;
+    }
+
+    /**
+     * 单表保留策略
+     */
+    public static class Table
+    {
+        /** 时间字段 */
+        private String column;
+
+        /** 保留天数，小于等于0表示不清理 */
+        private int retentionDays;
+
+        /** 分区方式 none=未分区 day=按天 month=按月 */
+        private String partition = "none";
+
+        /** 提前创建的分区数 */
+        private int precreate = 3;
+
+        /** 删除前是否归档 */
+        private boolean archive = true;
+
+        public String getColumn()
+        {
+            return column;
+        }
+
+        public void setColumn(String column)
+        {
+            this.column = column;
+        }
+
+        public int getRetentionDays()
+        {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays)
+        {
+            this.retentionDays = retentionDays;
+        }
+
+        public String getPartition()
+        {
+            return partition;
+        }
+
+        public void setPartition(String partition)
+        {
+            this.partition = partition;
+        }
+
+        public int getPrecreate()
+        {
+            return precreate;
+        }
+
+        public void setPrecreate(int precreate)
+        {
+            this.precreate = precreate;
+        }
+
+        public boolean isArchive()
+        {
+            return archive;
+        }
+
+        public void setArchive(boolean archive)
+        {
+            this.archive = archive;
+        }
+    }
+}
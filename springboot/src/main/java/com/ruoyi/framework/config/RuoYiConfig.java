@@ -30,6 +30,12 @@ public class RuoYiConfig
     /** 获取地址开关 */
     private static boolean addressEnabled;
 
+    /** 离线IP地址库文件 */
+    private String ipDatabase;
+
+    /** 离线IP地址库文件变更检查间隔（秒） */
+    private int ipDatabaseCheckSeconds = 60;
+
     public String getName()
     {
         return name;
@@ -90,6 +96,26 @@ public class RuoYiConfig
         RuoYiConfig.addressEnabled = addressEnabled;
     }
 
+    public String getIpDatabase()
+    {
+        return ipDatabase;
+    }
+
+    public void setIpDatabase(String ipDatabase)
+    {
+        this.ipDatabase = ipDatabase;
+    }
+
+    public int getIpDatabaseCheckSeconds()
+    {
+        return ipDatabaseCheckSeconds;
+    }
+
+    public void setIpDatabaseCheckSeconds(int ipDatabaseCheckSeconds)
+    {
+        this.ipDatabaseCheckSeconds = ipDatabaseCheckSeconds;
+    }
+
     /**
      * 获取头像上传路径
      */
@@ -0,0 +1,393 @@
+package com.ruoyi.framework.interceptor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.github.pagehelper.PageHelper;
+import com.ruoyi.common.core.cache.LocalCache;
+
+/**
+ * 分页总数缓存
+ * 拦截PageHelper生成的count查询（id以_COUNT结尾），按MyBatis的CacheKey（语句、SQL、参数，数据权限条件已拼在SQL中）缓存总数；
+ * 每张表维护一个版本号，写入时递增，缓存的总数记录查询时涉及表的版本号，版本变化即失效。
+ * 写入的表名按语句id解析一次后复用；版本变化通过publisher通知其它节点，未配置时其它节点只能等缓存过期。
+ * 事务中的写入在提交后再递增版本号并通知，同一事务内每张表只通知一次；回滚时不通知。
+ * 另外支持按表统计信息估算总数，只用于无查询条件的单表分页。
+ * 需要在PageHelper之前注册，PageHelper执行count时才会经过本拦截器。
+ *
+ * @author ruoyi
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})})
+public class CountCacheInterceptor implements Interceptor {
+    private static final Logger log = LoggerFactory.getLogger(CountCacheInterceptor.class);
+
+    private static final String COUNT_SUFFIX = "_COUNT";
+
+    /**
+     * 查询语句中的表名
+     */
+    private static final Pattern READ_TABLE = Pattern.compile("\\b(?:from|join)\\s+([`\\w.]+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 写入语句的表名
+     */
+    private static final Pattern WRITE_TABLE = Pattern.compile(
+            "^\\s*(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|update|delete\\s+from|alter\\s+table|truncate(?:\\s+table)?)\\s+([`\\w.]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 无查询条件的单表count
+     */
+    private static final Pattern PLAIN_COUNT = Pattern.compile(
+            "^\\s*select\\s+count\\(\\s*(?:0|1|\\*)\\s*\\)\\s+from\\s+([`\\w.]+)\\s*$", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 无法识别写入表名时的标记，失效全部缓存
+     */
+    private static final String ALL_TABLES = "*";
+
+    private static final String ESTIMATE_SQL = "select table_rows from information_schema.tables where table_schema = database() and table_name = ?";
+
+    /**
+     * 当前线程下一次分页是否使用估算总数
+     */
+    private static final ThreadLocal<Boolean> ESTIMATE = new ThreadLocal<>();
+
+    /**
+     * 当前线程上一次分页的总数是否为估算值
+     */
+    private static final ThreadLocal<Boolean> ESTIMATED = new ThreadLocal<>();
+
+    private final LocalCache<CacheKey, CountEntry> cache;
+
+    /**
+     * 表的版本号，写入时递增
+     */
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 写入语句id -> 表名，无法识别时为ALL_TABLES
+     */
+    private final Map<String, String> writeTables = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点有写入时通知其它节点
+     */
+    private volatile Consumer<String> publisher;
+
+    /**
+     * 估算总数的最小行数，统计信息小于该值时仍精确统计
+     */
+    private final long estimateRows;
+
+    private final LongAdder invalidateCount = new LongAdder();
+
+    private final LongAdder estimateCount = new LongAdder();
+
+    /**
+     * @param expireSeconds 缓存时间（秒），小于等于0不缓存
+     * @param maximumSize   最大缓存条数
+     * @param estimateRows  估算总数的最小行数
+     */
+    public CountCacheInterceptor(int expireSeconds, int maximumSize, long estimateRows) {
+        this.cache = expireSeconds > 0 ? new LocalCache<>("count", maximumSize, expireSeconds * 1000L) : null;
+        this.estimateRows = estimateRows;
+    }
+
+    /**
+     * 设置当前线程下一次分页是否估算总数，在PageHelper.startPage时调用
+     */
+    public static void setEstimate(boolean estimate) {
+        ESTIMATED.remove();
+        if (estimate) {
+            ESTIMATE.set(Boolean.TRUE);
+        } else {
+            ESTIMATE.remove();
+        }
+    }
+
+    /**
+     * 当前线程上一次分页的总数是否为估算值，读取后清除
+     */
+    public static boolean pollEstimated() {
+        boolean estimated = ESTIMATED.get() != null;
+        ESTIMATED.remove();
+        return estimated;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        if (args.length == 2) {
+            invalidate(ms, args[1]);
+            return invocation.proceed();
+        }
+        if (!ms.getId().endsWith(COUNT_SUFFIX) || PageHelper.getLocalPage() == null) {
+            return invocation.proceed();
+        }
+        boolean estimate = ESTIMATE.get() != null;
+        ESTIMATE.remove();
+        BoundSql boundSql = (BoundSql) args[5];
+        if (estimate) {
+            Long rows = estimate((Executor) invocation.getTarget(), boundSql.getSql());
+            if (rows != null) {
+                ESTIMATED.set(Boolean.TRUE);
+                return Collections.singletonList(rows);
+            }
+        }
+        if (cache == null) {
+            return invocation.proceed();
+        }
+        CacheKey key = (CacheKey) args[4];
+        CountEntry entry = cache.get(key);
+        if (entry != null && entry.isValid()) {
+            return Collections.singletonList(entry.count);
+        }
+        // 先取版本号再查询，查询期间有写入时缓存直接失效
+        entry = new CountEntry(readTables(boundSql.getSql()));
+        List<?> result = (List<?>) invocation.proceed();
+        if (result.size() == 1 && result.get(0) instanceof Long) {
+            entry.count = (Long) result.get(0);
+            cache.put(key, entry);
+        }
+        return result;
+    }
+
+    /**
+     * 设置版本变更的通知方式，参数为表名，无法识别表名时为*
+     */
+    public void setPublisher(Consumer<String> publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * 收到其它节点的写入通知，使该表的缓存失效
+     *
+     * @param table 表名，*表示全部
+     */
+    public void invalidateTable(String table) {
+        if (cache == null) {
+            return;
+        }
+        if (ALL_TABLES.equals(table)) {
+            cache.clear();
+        } else {
+            version(table).incrementAndGet();
+        }
+        invalidateCount.increment();
+    }
+
+    /**
+     * 写入时递增涉及表的版本号
+     */
+    private void invalidate(MappedStatement ms, Object parameter) {
+        if (cache == null) {
+            return;
+        }
+        // 同一语句写入的表不变，只在第一次执行时生成SQL解析表名
+        String table = writeTables.get(ms.getId());
+        if (table == null) {
+            Matcher matcher = WRITE_TABLE.matcher(ms.getBoundSql(parameter).getSql());
+            table = matcher.find() ? normalize(matcher.group(1)) : ALL_TABLES;
+            writeTables.put(ms.getId(), table);
+        }
+        // 本事务内随后的分页查询不能用写入前的总数，先在本节点失效
+        invalidateTable(table);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(table);
+            return;
+        }
+        Set<String> tables = writtenTables();
+        if (tables.contains(ALL_TABLES)) {
+            return;
+        }
+        if (ALL_TABLES.equals(table)) {
+            tables.clear();
+        }
+        tables.add(table);
+    }
+
+    /**
+     * 当前事务写入的表，第一次写入时登记提交后的回调
+     * 从当前事务的回调中查找，REQUIRES_NEW挂起外层事务时内层事务使用自己的集合
+     */
+    private Set<String> writtenTables() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof CommitPublisher && ((CommitPublisher) synchronization).owner() == this) {
+                return ((CommitPublisher) synchronization).tables;
+            }
+        }
+        CommitPublisher synchronization = new CommitPublisher();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        return synchronization.tables;
+    }
+
+    /**
+     * 通知其它节点该表已写入
+     */
+    private void publish(String table) {
+        Consumer<String> publisher = this.publisher;
+        if (publisher != null) {
+            try {
+                publisher.accept(table);
+            } catch (RuntimeException e) {
+                log.warn("分页总数缓存失效通知失败 {}：{}", table, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 按表统计信息估算总数，不是无条件单表查询或行数小于阈值时返回null
+     */
+    private Long estimate(Executor executor, String sql) {
+        Matcher matcher = PLAIN_COUNT.matcher(sql);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String table = normalize(matcher.group(1));
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            try (PreparedStatement ps = connection.prepareStatement(ESTIMATE_SQL)) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        long rows = rs.getLong(1);
+                        if (rows >= estimateRows) {
+                            estimateCount.increment();
+                            return rows;
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("估算总数失败 {}：{}", table, e.getMessage());
+        }
+        return null;
+    }
+
+    private List<String> readTables(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = READ_TABLE.matcher(sql);
+        while (matcher.find()) {
+            tables.add(normalize(matcher.group(1)));
+        }
+        return new ArrayList<>(tables);
+    }
+
+    private AtomicLong version(String table) {
+        return versions.computeIfAbsent(normalize(table), k -> new AtomicLong());
+    }
+
+    /**
+     * 去掉引号和库名，统一小写
+     */
+    private static String normalize(String table) {
+        table = table.replace("`", "").toLowerCase();
+        return table.substring(table.lastIndexOf('.') + 1);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cache != null);
+        stats.put("estimateRows", estimateRows);
+        stats.put("estimateCount", estimateCount.sum());
+        stats.put("invalidateCount", invalidateCount.sum());
+        if (cache != null) {
+            stats.put("cache", cache.getStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return target instanceof Executor ? Plugin.wrap(target, this) : target;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+    /**
+     * 事务提交后递增写入表的版本号并通知其它节点，每张表一次
+     * 提交前其它线程可能按未提交的数据缓存了总数，所以提交后要再递增一次
+     */
+    private final class CommitPublisher extends TransactionSynchronizationAdapter {
+        private final Set<String> tables = new LinkedHashSet<>();
+
+        private CountCacheInterceptor owner() {
+            return CountCacheInterceptor.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            for (String table : tables) {
+                invalidateTable(table);
+                publish(table);
+            }
+        }
+    }
+
+    /**
+     * 缓存的总数及查询时各表的版本号
+     */
+    private final class CountEntry {
+        private final AtomicLong[] tables;
+
+        private final long[] snapshot;
+
+        private Long count;
+
+        private CountEntry(List<String> names) {
+            this.tables = new AtomicLong[names.size()];
+            this.snapshot = new long[names.size()];
+            for (int i = 0; i < tables.length; i++) {
+                tables[i] = version(names.get(i));
+                snapshot[i] = tables[i].get();
+            }
+        }
+
+        private boolean isValid() {
+            for (int i = 0; i < tables.length; i++) {
+                if (tables[i].get() != snapshot[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
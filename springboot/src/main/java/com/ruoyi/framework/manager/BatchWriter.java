@@ -0,0 +1,297 @@
+package com.ruoyi.framework.manager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 批量写入器
+ * 生产者只把数据放进有界队列，由单独的线程按条数或时间攒批后交给写入方法，一批只做一次数据库往返。
+ *
+ * @author ruoyi
+ */
+public class BatchWriter<T> {
+    private static final Logger log = LoggerFactory.getLogger(BatchWriter.class);
+
+    /**
+     * 队列已满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 直接丢弃新数据
+         */
+        DROP,
+        /**
+         * 等待队列空出位置，超过等待时间仍未放入则丢弃
+         */
+        BLOCK,
+        /**
+         * 由调用线程直接写入
+         */
+        CALLER_RUNS
+    }
+
+    private final String name;
+
+    private final ArrayBlockingQueue<T> queue;
+
+    /**
+     * 每批最大条数
+     */
+    private final int batchSize;
+
+    /**
+     * 攒批最长等待时间（毫秒）
+     */
+    private final long flushIntervalMillis;
+
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * BLOCK策略下的最长等待时间（毫秒）
+     */
+    private final long offerTimeoutMillis;
+
+    private final Consumer<List<T>> writer;
+
+    private final LongAdder acceptedCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder writtenCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder batchCount = new LongAdder();
+
+    private volatile int lastBatchSize;
+
+    private volatile int maxBatchSize;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public BatchWriter(String name, int capacity, int batchSize, long flushIntervalMillis,
+                       OverflowPolicy overflowPolicy, long offerTimeoutMillis, Consumer<List<T>> writer) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP : overflowPolicy;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.writer = writer;
+    }
+
+    /**
+     * 启动写入线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, name + "-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 放入数据
+     *
+     * @param item 数据
+     * @return 是否被接收（丢弃时返回false）
+     */
+    public boolean offer(T item) {
+        if (item == null) {
+            return false;
+        }
+        if (!running) {
+            // 已停止时不再进入队列，直接写入，避免丢失
+            write(singletonList(item));
+            acceptedCount.increment();
+            return true;
+        }
+        if (queue.offer(item)) {
+            acceptedCount.increment();
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    if (queue.offer(item, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        acceptedCount.increment();
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            case CALLER_RUNS:
+                write(singletonList(item));
+                acceptedCount.increment();
+                return true;
+            default:
+                break;
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    /**
+     * 停止写入线程，队列中剩余的数据全部写入后返回
+     *
+     * @param timeoutMillis 最长等待时间（毫秒）
+     */
+    public void shutdown(long timeoutMillis) {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = worker;
+        }
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 超时或线程异常退出时由当前线程写完剩余数据
+        List<T> rest = new ArrayList<>();
+        while (queue.drainTo(rest, batchSize) > 0) {
+            write(rest);
+            rest = new ArrayList<>();
+        }
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0 || !running) {
+                        break;
+                    }
+                    T next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // 中断时先写出已攒的数据，是否退出由running控制
+                write(batch);
+            } catch (Throwable e) {
+                log.error("[{}] 批量写入线程异常", name, e);
+            } finally {
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void write(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = batch.size();
+        try {
+            writer.accept(batch);
+            writtenCount.add(size);
+        } catch (Exception e) {
+            if (size == 1) {
+                failedCount.increment();
+                log.error("[{}] 写入失败，丢弃1条", name, e);
+            } else {
+                log.warn("[{}] 批量写入{}条失败，逐条重试：{}", name, size, e.getMessage());
+                writeOneByOne(batch);
+            }
+        }
+        batchCount.increment();
+        lastBatchSize = size;
+        if (size > maxBatchSize) {
+            maxBatchSize = size;
+        }
+    }
+
+    /**
+     * 批量写入失败后逐条写入，只丢弃仍然写入失败的数据
+     */
+    private void writeOneByOne(List<T> batch) {
+        for (T item : batch) {
+            try {
+                writer.accept(singletonList(item));
+                writtenCount.increment();
+            } catch (Exception e) {
+                failedCount.increment();
+                log.error("[{}] 写入失败，丢弃1条", name, e);
+            }
+        }
+    }
+
+    private List<T> singletonList(T item) {
+        List<T> list = new ArrayList<>(1);
+        list.add(item);
+        return list;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前队列长度
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 写入统计信息
+     */
+    public Map<String, Object> getStats() {
+        long batches = batchCount.sum();
+        long written = writtenCount.sum();
+        long failed = failedCount.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("running", running);
+        stats.put("queueSize", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("batchSize", batchSize);
+        stats.put("flushIntervalMillis", flushIntervalMillis);
+        stats.put("overflowPolicy", overflowPolicy.name());
+        stats.put("acceptedCount", acceptedCount.sum());
+        stats.put("droppedCount", droppedCount.sum());
+        stats.put("writtenCount", written);
+        stats.put("failedCount", failed);
+        stats.put("batchCount", batches);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("avgBatchSize", batches == 0 ? 0D : (double) (written + failed) / batches);
+        return stats;
+    }
+}
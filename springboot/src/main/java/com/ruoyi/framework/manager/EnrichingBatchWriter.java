@@ -0,0 +1,206 @@
+package com.ruoyi.framework.manager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+/**
+ * 先补充信息再批量写入
+ * 补充信息（如按IP查询地点）在单独的线程池中进行，限制并发数，远程查询变慢时不会阻塞写入线程；
+ * 线程池繁忙或补充失败时使用默认值，数据照常写入。补充完成后交给BatchWriter攒批。
+ *
+ * @author ruoyi
+ */
+public class EnrichingBatchWriter<T> {
+    private static final Logger log = LoggerFactory.getLogger(EnrichingBatchWriter.class);
+
+    private final String name;
+
+    private final int threads;
+
+    private final Consumer<T> enricher;
+
+    private final Consumer<T> fallback;
+
+    private final BatchWriter<T> writer;
+
+    /**
+     * 停止时等待补充和写入完成的最长时间（毫秒）
+     */
+    private final long shutdownTimeoutMillis;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 因线程繁忙而跳过补充的次数
+     */
+    private final LongAdder skippedCount = new LongAdder();
+
+    /**
+     * 补充失败的次数
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * @param name                  名称，用于线程名和统计信息
+     * @param threads               补充信息的线程数
+     * @param queueCapacity         等待补充的队列容量，超出时不补充直接写入
+     * @param enricher              补充信息
+     * @param fallback              未补充或补充失败时填入默认值
+     * @param writer                批量写入器，由本类启动和停止
+     * @param shutdownTimeoutMillis 停止时的最长等待时间（毫秒）
+     */
+    public EnrichingBatchWriter(String name, int threads, int queueCapacity, Consumer<T> enricher,
+                                Consumer<T> fallback, BatchWriter<T> writer, long shutdownTimeoutMillis) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+        this.enricher = enricher;
+        this.fallback = fallback;
+        this.writer = writer;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new BasicThreadFactory.Builder().namingPattern(name + "-address-%d").daemon(true).build(),
+                (r, e) -> ((EnrichTask) r).skip());
+    }
+
+    /**
+     * 按配置创建，配置项与日志写入的配置一致（prefix下）：
+     * addressThreads、addressQueueCapacity、queueCapacity、batchSize、flushInterval、overflowPolicy、offerTimeout
+     *
+     * @param env            配置
+     * @param prefix         配置前缀，如 log.oper
+     * @param name           名称
+     * @param defaultThreads 未配置时补充信息的线程数
+     * @param enricher       补充信息
+     * @param fallback       未补充或补充失败时填入默认值
+     * @param sink           批量写入方法
+     */
+    public static <T> EnrichingBatchWriter<T> create(Environment env, String prefix, String name, int defaultThreads,
+                                                     Consumer<T> enricher, Consumer<T> fallback, Consumer<List<T>> sink) {
+        long flushInterval = env.getProperty(prefix + ".flushInterval", Long.class, 1000L);
+        BatchWriter<T> writer = new BatchWriter<>(name,
+                env.getProperty(prefix + ".queueCapacity", Integer.class, 10000),
+                env.getProperty(prefix + ".batchSize", Integer.class, 200),
+                flushInterval,
+                env.getProperty(prefix + ".overflowPolicy", BatchWriter.OverflowPolicy.class, BatchWriter.OverflowPolicy.DROP),
+                env.getProperty(prefix + ".offerTimeout", Long.class, 100L),
+                sink);
+        return new EnrichingBatchWriter<>(name,
+                env.getProperty(prefix + ".addressThreads", Integer.class, defaultThreads),
+                env.getProperty(prefix + ".addressQueueCapacity", Integer.class, 1000),
+                enricher, fallback, writer, flushInterval * 5);
+    }
+
+    /**
+     * 启动写入线程
+     */
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * 补充信息后放入写入队列
+     *
+     * @param item 数据
+     */
+    public void record(T item) {
+        record(item, null);
+    }
+
+    /**
+     * 补充信息后放入写入队列
+     *
+     * @param item       数据
+     * @param completion 补充完成（或跳过）后、放入队列前执行，可以为空
+     */
+    public void record(T item, Consumer<T> completion) {
+        executor.execute(new EnrichTask(item, completion));
+    }
+
+    /**
+     * 停止补充信息的线程，写完队列中剩余的数据
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                // 超时后未执行的任务不再补充，直接写入
+                for (Runnable r : executor.shutdownNow()) {
+                    ((EnrichTask) r).skip();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.shutdown(shutdownTimeoutMillis);
+    }
+
+    /**
+     * 写入统计信息，补充信息线程池的统计在address中
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("threads", threads);
+        address.put("activeCount", executor.getActiveCount());
+        address.put("queueSize", executor.getQueue().size());
+        address.put("completedCount", executor.getCompletedTaskCount());
+        address.put("skippedCount", skippedCount.sum());
+        address.put("failedCount", failedCount.sum());
+        Map<String, Object> stats = writer.getStats();
+        stats.put("address", address);
+        return stats;
+    }
+
+    /**
+     * 补充信息后放入写入队列，补充失败不影响写入
+     */
+    private class EnrichTask implements Runnable {
+        private final T item;
+
+        private final Consumer<T> completion;
+
+        private EnrichTask(T item, Consumer<T> completion) {
+            this.item = item;
+            this.completion = completion;
+        }
+
+        @Override
+        public void run() {
+            try {
+                enricher.accept(item);
+            } catch (Exception e) {
+                failedCount.increment();
+                log.warn("[{}] 补充信息失败", name, e);
+                fallback.accept(item);
+            }
+            complete();
+        }
+
+        /**
+         * 线程繁忙时不补充
+         */
+        private void skip() {
+            skippedCount.increment();
+            fallback.accept(item);
+            complete();
+        }
+
+        private void complete() {
+            if (completion != null) {
+                completion.accept(item);
+            }
+            writer.offer(item);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ruoyi.framework.manager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.ip.IpDatabase;
+import com.ruoyi.framework.config.RuoYiConfig;
+
+/**
+ * 离线IP地址库加载
+ * 启动时加载，之后定时检查文件的修改时间和大小，变化后在后台重新加载并整体替换，加载失败时继续使用旧的地址库。
+ *
+ * @author ruoyi
+ */
+@Component
+public class IpDatabaseManager {
+    private static final Logger log = LoggerFactory.getLogger(IpDatabaseManager.class);
+
+    @Autowired
+    private RuoYiConfig ruoYiConfig;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    private Path file;
+
+    private volatile long lastModified;
+
+    private volatile long lastSize;
+
+    @PostConstruct
+    public void init() {
+        if (StringUtils.isEmpty(ruoYiConfig.getIpDatabase())) {
+            return;
+        }
+        file = Paths.get(ruoYiConfig.getIpDatabase());
+        reload();
+        int checkSeconds = ruoYiConfig.getIpDatabaseCheckSeconds();
+        if (checkSeconds > 0) {
+            scheduledExecutorService.scheduleWithFixedDelay(this::checkModified, checkSeconds, checkSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 重新加载地址库
+     *
+     * @return 是否加载成功
+     */
+    public synchronized boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            long size = Files.size(file);
+            IpDatabase.setCurrent(IpDatabase.load(file));
+            lastModified = modified;
+            lastSize = size;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("加载IP地址库失败 {}", file, e);
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        IpDatabase database = IpDatabase.getCurrent();
+        stats.put("enabled", database != null);
+        if (database != null) {
+            stats.put("source", database.getSource());
+            stats.put("loadTime", database.getLoadTime());
+            stats.put("v4Size", database.getV4Size());
+            stats.put("v6Size", database.getV6Size());
+        }
+        return stats;
+    }
+
+    private void checkModified() {
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            if (Files.getLastModifiedTime(file).toMillis() != lastModified || Files.size(file) != lastSize) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("检查IP地址库文件失败 {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ruoyi.framework.manager;
+
+import java.util.Date;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.utils.LogUtils;
+import com.ruoyi.common.utils.ServletUtils;
+import com.ruoyi.common.utils.ip.AddressUtils;
+import com.ruoyi.common.utils.ip.IpUtils;
+import com.ruoyi.project.monitor.domain.SysLogininfor;
+import com.ruoyi.project.monitor.service.ISysLogininforService;
+import eu.bitwalker.useragentutils.UserAgent;
+
+/**
+ * 登录日志批量写入
+ * 请求线程只解析请求头，查询登录地点后攒批写入数据库（见EnrichingBatchWriter，配置项在 log.login 下），
+ * 不占用AsyncManager的线程池，登录请求突增时也不会影响其它异步任务。
+ *
+ * @author ruoyi
+ */
+@Component
+public class LoginLogWriter {
+    private static final Logger sys_user_logger = LoggerFactory.getLogger("sys-user");
+
+    @Autowired
+    private ISysLogininforService logininforService;
+
+    @Autowired
+    private Environment env;
+
+    private EnrichingBatchWriter<SysLogininfor> writer;
+
+    @PostConstruct
+    public void init() {
+        writer = EnrichingBatchWriter.create(env, "log.login", "login-log", 4,
+                logininfor -> logininfor.setLoginLocation(AddressUtils.getRealAddressByIP(logininfor.getIpaddr())),
+                logininfor -> logininfor.setLoginLocation(AddressUtils.UNKNOWN),
+                logininforService::insertLogininforBatch);
+        writer.start();
+    }
+
+    /**
+     * 记录登陆信息，需要在请求线程中调用
+     *
+     * @param username 用户名
+     * @param status   状态
+     * @param message  消息
+     * @param args     列表
+     */
+    public void record(String username, String status, String message, Object... args) {
+        UserAgent userAgent = UserAgent.parseUserAgentString(ServletUtils.getRequest().getHeader("User-Agent"));
+        SysLogininfor logininfor = new SysLogininfor();
+        logininfor.setUserName(username);
+        logininfor.setIpaddr(IpUtils.getIpAddr(ServletUtils.getRequest()));
+        // 获取客户端操作系统
+        logininfor.setOs(userAgent.getOperatingSystem().getName());
+        // 获取客户端浏览器
+        logininfor.setBrowser(userAgent.getBrowser().getName());
+        logininfor.setMsg(message);
+        logininfor.setLoginTime(new Date());
+        // 日志状态 0成功 1失败
+        if (Constants.LOGIN_SUCCESS.equals(status) || Constants.LOGOUT.equals(status)) {
+            logininfor.setStatus(Constants.SUCCESS);
+        } else if (Constants.LOGIN_FAIL.equals(status)) {
+            logininfor.setStatus(Constants.FAIL);
+        }
+        writer.record(logininfor, l -> print(l, status, args));
+    }
+
+    /**
+     * 停止查询地点的线程，写完队列中剩余的日志
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public Map<String, Object> getStats() {
+        return writer.getStats();
+    }
+
+    /**
+     * 查询登录地点后打印日志
+     */
+    private static void print(SysLogininfor logininfor, String status, Object[] args) {
+        StringBuilder s = new StringBuilder();
+        s.append(LogUtils.getBlock(logininfor.getIpaddr()));
+        s.append(logininfor.getLoginLocation());
+        s.append(LogUtils.getBlock(logininfor.getUserName()));
+        s.append(LogUtils.getBlock(status));
+        s.append(LogUtils.getBlock(logininfor.getMsg()));
+        // 打印信息到日志
+        sys_user_logger.info(s.toString(), args);
+    }
+}
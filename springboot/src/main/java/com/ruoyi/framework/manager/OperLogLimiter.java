@@ -0,0 +1,268 @@
+package com.ruoyi.framework.manager;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.aspectj.lang.enums.BusinessStatus;
+import com.ruoyi.framework.aspectj.lang.enums.BusinessType;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+
+/**
+ * 操作日志采样、限流和聚合
+ * 失败的操作总是完整记录；成功的操作依次经过按业务类型采样、相同操作聚合、按用户限流，决定是否写入。
+ *
+ * @author ruoyi
+ */
+@Component
+@ConfigurationProperties(prefix = "log.oper.limit")
+public class OperLogLimiter {
+    /**
+     * 限流时间窗口（毫秒）
+     */
+    private static final long RATE_WINDOW_MILLIS = 60 * 1000L;
+
+    /**
+     * 按业务类型的采样比例（0-1），未配置的类型全部记录
+     */
+    private Map<String, Double> sampling = new HashMap<>();
+
+    /**
+     * 每个用户每分钟最多记录条数，0表示不限制
+     */
+    private int userRatePerMinute;
+
+    /**
+     * 聚合时间窗口（秒），0表示不聚合
+     */
+    private int aggregateSeconds;
+
+    @Autowired
+    private OperLogWriter operLogWriter;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    private final Map<BusinessType, Double> samplingRates = new ConcurrentHashMap<>();
+
+    private final Map<String, RateWindow> rateWindows = new ConcurrentHashMap<>();
+
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    private final LongAdder sampledOutCount = new LongAdder();
+
+    private final LongAdder rateLimitedCount = new LongAdder();
+
+    private final LongAdder aggregatedCount = new LongAdder();
+
+    private final LongAdder summaryCount = new LongAdder();
+
+    /**
+     * 应用退出时已输出全部聚合结果，之后的操作不再聚合
+     */
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void init() {
+        for (Map.Entry<String, Double> entry : sampling.entrySet()) {
+            samplingRates.put(BusinessType.valueOf(entry.getKey().trim().toUpperCase()), entry.getValue());
+        }
+        // 不聚合也不限流时没有需要定时输出或清理的数据
+        if (aggregateSeconds <= 0 && userRatePerMinute <= 0) {
+            return;
+        }
+        long period = aggregateSeconds > 0 ? aggregateSeconds : RATE_WINDOW_MILLIS / 1000;
+        scheduledExecutorService.scheduleWithFixedDelay(() -> flush(false), period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 判断操作日志是否需要写入
+     *
+     * @param operLog      操作日志
+     * @param businessType 业务类型
+     * @return 是否写入
+     */
+    public boolean accept(SysOperLog operLog, BusinessType businessType) {
+        if (operLog.getStatus() != null && operLog.getStatus() == BusinessStatus.FAIL.ordinal()) {
+            return true;
+        }
+        Double rate = samplingRates.get(businessType);
+        if (rate != null && rate < 1D && ThreadLocalRandom.current().nextDouble() >= rate) {
+            sampledOutCount.increment();
+            return false;
+        }
+        if (aggregateSeconds > 0 && !stopped && !aggregate(operLog)) {
+            aggregatedCount.increment();
+            return false;
+        }
+        if (userRatePerMinute > 0 && !tryAcquire(operLog.getOperName())) {
+            rateLimitedCount.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 聚合相同的操作（用户、方法、业务类型和请求参数都相同），窗口内第一条返回true正常写入，之后的只计数
+     */
+    private boolean aggregate(SysOperLog operLog) {
+        String key = operLog.getOperName() + "|" + operLog.getMethod() + "|" + operLog.getBusinessType() + "|"
+                + operLog.getOperParam();
+        while (true) {
+            Aggregate aggregate = aggregates.computeIfAbsent(key, k -> new Aggregate(operLog));
+            if (aggregate.first == operLog) {
+                return true;
+            }
+            synchronized (aggregate) {
+                // 窗口已结束的聚合已经输出，重新开始新的窗口
+                if (!aggregate.closed) {
+                    aggregate.repeats++;
+                    return false;
+                }
+            }
+            aggregates.remove(key, aggregate);
+        }
+    }
+
+    /**
+     * 按用户限流，固定窗口计数
+     */
+    private boolean tryAcquire(String operName) {
+        String key = StringUtils.isEmpty(operName) ? "" : operName;
+        long now = System.currentTimeMillis();
+        RateWindow window = rateWindows.compute(key, (k, w) -> w == null || now - w.start >= RATE_WINDOW_MILLIS ? new RateWindow(now) : w);
+        return window.count.incrementAndGet() <= userRatePerMinute;
+    }
+
+    /**
+     * 应用退出时输出所有未结束窗口的聚合结果，需要在操作日志写入器关闭之前调用
+     */
+    public void shutdown() {
+        stopped = true;
+        flush(true);
+    }
+
+    /**
+     * 输出已结束窗口的聚合结果，清理过期的限流窗口
+     *
+     * @param all 是否同时输出未结束窗口的聚合结果
+     */
+    private void flush(boolean all) {
+        long now = System.currentTimeMillis();
+        Iterator<Aggregate> it = aggregates.values().iterator();
+        while (it.hasNext()) {
+            Aggregate aggregate = it.next();
+            if (!all && now - aggregate.start < aggregateSeconds * 1000L) {
+                continue;
+            }
+            int repeats;
+            synchronized (aggregate) {
+                aggregate.closed = true;
+                repeats = aggregate.repeats;
+            }
+            it.remove();
+            if (repeats > 0) {
+                operLogWriter.record(summary(aggregate.first, repeats));
+                summaryCount.increment();
+            }
+        }
+        rateWindows.values().removeIf(w -> now - w.start >= RATE_WINDOW_MILLIS);
+    }
+
+    /**
+     * 生成聚合汇总记录
+     */
+    private SysOperLog summary(SysOperLog first, int repeats) {
+        SysOperLog operLog = new SysOperLog();
+        operLog.setTitle(first.getTitle());
+        operLog.setBusinessType(first.getBusinessType());
+        operLog.setMethod(first.getMethod());
+        operLog.setRequestMethod(first.getRequestMethod());
+        operLog.setOperatorType(first.getOperatorType());
+        operLog.setOperName(first.getOperName());
+        operLog.setDeptName(first.getDeptName());
+        operLog.setOperUrl(first.getOperUrl());
+        operLog.setOperIp(first.getOperIp());
+        operLog.setStatus(first.getStatus());
+        operLog.setOperParam(StringUtils.format("{}秒内相同操作另有{}次，未逐条记录", aggregateSeconds, repeats));
+        operLog.setOperTime(new Date());
+        return operLog;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sampling", samplingRates);
+        stats.put("userRatePerMinute", userRatePerMinute);
+        stats.put("aggregateSeconds", aggregateSeconds);
+        stats.put("sampledOutCount", sampledOutCount.sum());
+        stats.put("rateLimitedCount", rateLimitedCount.sum());
+        stats.put("aggregatedCount", aggregatedCount.sum());
+        stats.put("summaryCount", summaryCount.sum());
+        stats.put("aggregateSize", aggregates.size());
+        return stats;
+    }
+
+    public Map<String, Double> getSampling() {
+        return sampling;
+    }
+
+    public void setSampling(Map<String, Double> sampling) {
+        this.sampling = sampling;
+    }
+
+    public int getUserRatePerMinute() {
+        return userRatePerMinute;
+    }
+
+    public void setUserRatePerMinute(int userRatePerMinute) {
+        this.userRatePerMinute = userRatePerMinute;
+    }
+
+    public int getAggregateSeconds() {
+        return aggregateSeconds;
+    }
+
+    public void setAggregateSeconds(int aggregateSeconds) {
+        this.aggregateSeconds = aggregateSeconds;
+    }
+
+    private static final class RateWindow {
+        private final long start;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private RateWindow(long start) {
+            this.start = start;
+        }
+    }
+
+    private static final class Aggregate {
+        private final SysOperLog first;
+
+        private final long start = System.currentTimeMillis();
+
+        private int repeats;
+
+        private boolean closed;
+
+        private Aggregate(SysOperLog first) {
+            this.first = first;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ruoyi.framework.manager;
+
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.utils.ip.AddressUtils;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+import com.ruoyi.project.monitor.service.ISysOperLogService;
+
+/**
+ * 操作日志批量写入
+ * 查询操作地点后攒批写入数据库，配置项在 log.oper 下，见EnrichingBatchWriter。
+ *
+ * @author ruoyi
+ */
+@Component
+public class OperLogWriter {
+    @Autowired
+    private ISysOperLogService operLogService;
+
+    @Autowired
+    private Environment env;
+
+    private EnrichingBatchWriter<SysOperLog> writer;
+
+    @PostConstruct
+    public void init() {
+        writer = EnrichingBatchWriter.create(env, "log.oper", "oper-log", 2,
+                operLog -> operLog.setOperLocation(AddressUtils.getRealAddressByIP(operLog.getOperIp())),
+                operLog -> operLog.setOperLocation(AddressUtils.UNKNOWN),
+                operLogService::insertOperlogBatch);
+        writer.start();
+    }
+
+    /**
+     * 记录操作日志，查询操作地点后放入写入队列
+     *
+     * @param operLog 操作日志信息
+     */
+    public void record(SysOperLog operLog) {
+        writer.record(operLog);
+    }
+
+    /**
+     * 停止查询地点的线程，写完队列中剩余的日志
+     */
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public Map<String, Object> getStats() {
+        return writer.getStats();
+    }
+}
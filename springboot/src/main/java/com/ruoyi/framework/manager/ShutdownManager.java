@@ -2,6 +2,7 @@ package com.ruoyi.framework.manager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PreDestroy;
@@ -15,11 +16,35 @@ import javax.annotation.PreDestroy;
 public class ShutdownManager {
     private static final Logger logger = LoggerFactory.getLogger("sys-user");
 
+    @Autowired
+    private OperLogLimiter operLogLimiter;
+
+    @Autowired
+    private OperLogWriter operLogWriter;
+
+    @Autowired
+    private LoginLogWriter loginLogWriter;
+
     @PreDestroy
     public void destroy() {
+        shutdownLogWriter();
         shutdownAsyncManager();
     }
 
+    /**
+     * 写完队列中剩余的日志
+     */
+    private void shutdownLogWriter() {
+        try {
+            logger.info("====写入剩余操作日志和登录日志====");
+            operLogLimiter.shutdown();
+            operLogWriter.shutdown();
+            loginLogWriter.shutdown();
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
     /**
      * 停止异步执行任务
      */
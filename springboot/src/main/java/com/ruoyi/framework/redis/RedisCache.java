@@ -1,20 +1,32 @@
 package com.ruoyi.framework.redis;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.core.BoundSetOperations;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Component;
 
 /**
@@ -25,6 +37,12 @@ import org.springframework.stereotype.Component;
 @SuppressWarnings(value = {"unchecked", "rawtypes"})
 @Component
 public class RedisCache {
+    /**
+     * hash以前按模板默认的JDK方式序列化，读取旧数据用
+     */
+    private static final JdkSerializationRedisSerializer LEGACY_HASH_SERIALIZER = new JdkSerializationRedisSerializer(
+            RedisCache.class.getClassLoader());
+
     @Autowired
     public RedisTemplate redisTemplate;
 
@@ -56,6 +74,30 @@ public class RedisCache {
         return operation;
     }
 
+    /**
+     * 设置有效时间
+     *
+     * @param key     缓存的键值
+     * @param timeout 时间
+     * @param unit    时间颗粒度
+     * @return true=设置成功；false=键值不存在
+     */
+    public boolean expire(String key, long timeout, TimeUnit unit) {
+        return Boolean.TRUE.equals(redisTemplate.expire(key, timeout, unit));
+    }
+
+    /**
+     * 获取剩余有效时间
+     *
+     * @param key  缓存的键值
+     * @param unit 时间颗粒度
+     * @return 剩余时间；-1表示永久有效，-2表示键值不存在
+     */
+    public long getExpire(String key, TimeUnit unit) {
+        Long expire = redisTemplate.getExpire(key, unit);
+        return expire == null ? -2 : expire;
+    }
+
     /**
      * 获得缓存的基本对象。
      *
@@ -94,11 +136,9 @@ public class RedisCache {
      */
     public <T> ListOperations<String, T> setCacheList(String key, List<T> dataList) {
         ListOperations listOperation = redisTemplate.opsForList();
-        if (null != dataList) {
-            int size = dataList.size();
-            for (int i = 0; i < size; i++) {
-                listOperation.leftPush(key, dataList.get(i));
-            }
+        if (null != dataList && !dataList.isEmpty()) {
+            // 一次LPUSH多个值，元素顺序与逐个leftPush一致
+            listOperation.leftPushAll(key, dataList);
         }
         return listOperation;
     }
@@ -110,14 +150,9 @@ public class RedisCache {
      * @return 缓存键值对应的数据
      */
     public <T> List<T> getCacheList(String key) {
-        List<T> dataList = new ArrayList<T>();
         ListOperations<String, T> listOperation = redisTemplate.opsForList();
-        Long size = listOperation.size(key);
-
-        for (int i = 0; i < size; i++) {
-            dataList.add(listOperation.index(key, i));
-        }
-        return dataList;
+        List<T> dataList = listOperation.range(key, 0, -1);
+        return dataList == null ? new ArrayList<T>() : dataList;
     }
 
     /**
@@ -129,9 +164,9 @@ public class RedisCache {
      */
     public <T> BoundSetOperations<String, T> setCacheSet(String key, Set<T> dataSet) {
         BoundSetOperations<String, T> setOperation = redisTemplate.boundSetOps(key);
-        Iterator<T> it = dataSet.iterator();
-        while (it.hasNext()) {
-            setOperation.add(it.next());
+        if (null != dataSet && !dataSet.isEmpty()) {
+            // 一次SADD多个成员
+            setOperation.add((T[]) dataSet.toArray());
         }
         return setOperation;
     }
@@ -149,6 +184,98 @@ public class RedisCache {
         return dataSet;
     }
 
+    /**
+     * 往Set中添加数据
+     *
+     * @param key    缓存键值
+     * @param values 数据
+     * @return 新增的个数
+     */
+    public <T> Long addCacheSetMembers(String key, T... values) {
+        return redisTemplate.opsForSet().add(key, values);
+    }
+
+    /**
+     * 删除Set中的数据
+     *
+     * @param key    缓存键值
+     * @param values 数据
+     * @return 删除的个数
+     */
+    public Long removeCacheSetMembers(String key, Object... values) {
+        return redisTemplate.opsForSet().remove(key, values);
+    }
+
+    /**
+     * 往有序集合中添加数据，已存在时更新分数
+     *
+     * @param key   缓存键值
+     * @param value 数据
+     * @param score 分数
+     */
+    public <T> void addCacheZSet(String key, T value, double score) {
+        redisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    /**
+     * 删除有序集合中的数据
+     *
+     * @param key    缓存键值
+     * @param values 数据
+     * @return 删除的个数
+     */
+    public Long removeCacheZSet(String key, Object... values) {
+        return redisTemplate.opsForZSet().remove(key, values);
+    }
+
+    /**
+     * 删除有序集合中分数在区间内的数据
+     *
+     * @param key 缓存键值
+     * @param min 最小分数
+     * @param max 最大分数
+     * @return 删除的个数
+     */
+    public Long removeCacheZSetByScore(String key, double min, double max) {
+        return redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+    }
+
+    /**
+     * 获得有序集合中分数在区间内的数据个数
+     *
+     * @param key 缓存键值
+     * @param min 最小分数
+     * @param max 最大分数
+     * @return 个数
+     */
+    public long countCacheZSetByScore(String key, double min, double max) {
+        Long count = redisTemplate.opsForZSet().count(key, min, max);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 获得有序集合的大小
+     *
+     * @param key 缓存键值
+     * @return 大小
+     */
+    public long getCacheZSetSize(String key) {
+        Long size = redisTemplate.opsForZSet().zCard(key);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 按分数从高到低获得有序集合区间内的数据
+     *
+     * @param key   缓存键值
+     * @param start 起始下标
+     * @param end   结束下标（包含），-1表示到最后
+     * @return 数据
+     */
+    public <T> Set<T> getCacheZSetReverseRange(String key, long start, long end) {
+        return redisTemplate.opsForZSet().reverseRange(key, start, end);
+    }
+
     /**
      * 缓存Map
      *
@@ -158,23 +285,160 @@ public class RedisCache {
      */
     public <T> HashOperations<String, String, T> setCacheMap(String key, Map<String, T> dataMap) {
         HashOperations hashOperations = redisTemplate.opsForHash();
-        if (null != dataMap) {
-            for (Map.Entry<String, T> entry : dataMap.entrySet()) {
-                hashOperations.put(key, entry.getKey(), entry.getValue());
-            }
+        if (null != dataMap && !dataMap.isEmpty()) {
+            // 一次HMSET多个字段
+            hashOperations.putAll(key, dataMap);
         }
         return hashOperations;
     }
 
     /**
-     * 获得缓存的Map
+     * 获得缓存的Map，读到以前按JDK方式序列化的字段时改写为当前格式
      *
      * @param key
      * @return
      */
-    public <T> Map<String, T> getCacheMap(String key) {
-        Map<String, T> map = redisTemplate.opsForHash().entries(key);
-        return map;
+    public <T> Map<String, T> getCacheMap(final String key) {
+        final RedisSerializer keySerializer = redisTemplate.getKeySerializer();
+        final RedisSerializer<String> hashKeySerializer = redisTemplate.getHashKeySerializer();
+        final RedisSerializer hashValueSerializer = redisTemplate.getHashValueSerializer();
+        return (Map<String, T>) redisTemplate.execute(new RedisCallback<Map<String, T>>() {
+            @Override
+            public Map<String, T> doInRedis(RedisConnection connection) throws DataAccessException {
+                byte[] rawKey = keySerializer.serialize(key);
+                Map<byte[], byte[]> entries = connection.hGetAll(rawKey);
+                Map<String, T> map = new LinkedHashMap<String, T>();
+                Map<byte[], byte[]> legacy = new LinkedHashMap<byte[], byte[]>();
+                for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+                    if (isJdkSerialized(entry.getKey())) {
+                        legacy.put(entry.getKey(), entry.getValue());
+                    } else {
+                        map.put(hashKeySerializer.deserialize(entry.getKey()),
+                                (T) hashValueSerializer.deserialize(entry.getValue()));
+                    }
+                }
+                if (!legacy.isEmpty()) {
+                    migrateLegacyHash(connection, rawKey, legacy, map, hashKeySerializer, hashValueSerializer);
+                }
+                return map;
+            }
+        });
+    }
+
+    /**
+     * 把JDK方式序列化的旧字段改写为当前格式
+     * 同名字段已有新格式时以新格式为准（setCacheMap在旧数据上写入的），改写使用HSETNX，不覆盖并发写入的新值；
+     * 无法反序列化的旧字段原样保留，不返回
+     */
+    private <T> void migrateLegacyHash(RedisConnection connection, byte[] rawKey, Map<byte[], byte[]> legacy,
+            Map<String, T> map, RedisSerializer<String> hashKeySerializer, RedisSerializer hashValueSerializer) {
+        List<byte[]> migrated = new ArrayList<byte[]>(legacy.size());
+        for (Map.Entry<byte[], byte[]> entry : legacy.entrySet()) {
+            Object field;
+            Object value;
+            try {
+                field = LEGACY_HASH_SERIALIZER.deserialize(entry.getKey());
+                value = LEGACY_HASH_SERIALIZER.deserialize(entry.getValue());
+            } catch (SerializationException e) {
+                continue;
+            }
+            if (!(field instanceof String)) {
+                continue;
+            }
+            if (!map.containsKey(field)) {
+                map.put((String) field, (T) value);
+                connection.hSetNX(rawKey, hashKeySerializer.serialize((String) field), hashValueSerializer.serialize(value));
+            }
+            migrated.add(entry.getKey());
+        }
+        if (!migrated.isEmpty()) {
+            connection.hDel(rawKey, migrated.toArray(new byte[migrated.size()][]));
+        }
+    }
+
+    /**
+     * JDK序列化的数据以0xACED开头，字符串字段按UTF-8编码不会以0xAC开头
+     */
+    private static boolean isJdkSerialized(byte[] bytes) {
+        return bytes != null && bytes.length > 2 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+
+    /**
+     * 批量获得缓存的基本对象，一次往返
+     *
+     * @param keys 缓存键值
+     * @return 与键值顺序一致的数据，不存在的为null
+     */
+    public <T> List<T> multiGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return new ArrayList<T>();
+        }
+        ValueOperations<String, T> operation = redisTemplate.opsForValue();
+        return operation.multiGet(keys);
+    }
+
+    /**
+     * 批量缓存基本的对象，一次MSET
+     *
+     * @param dataMap 键值与对象
+     */
+    public <T> void multiSet(Map<String, T> dataMap) {
+        if (dataMap == null || dataMap.isEmpty()) {
+            return;
+        }
+        ValueOperations<String, T> operation = redisTemplate.opsForValue();
+        operation.multiSet(dataMap);
+    }
+
+    /**
+     * 批量缓存基本的对象并设置有效时间，多个SET EX通过管道一次发送
+     *
+     * @param dataMap  键值与对象
+     * @param timeout  时间
+     * @param timeUnit 时间颗粒度
+     */
+    public <T> void multiSet(final Map<String, T> dataMap, final long timeout, final TimeUnit timeUnit) {
+        if (dataMap == null || dataMap.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                ValueOperations valueOperations = operations.opsForValue();
+                for (Map.Entry<String, T> entry : dataMap.entrySet()) {
+                    valueOperations.set(entry.getKey(), entry.getValue(), timeout, timeUnit);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 批量缓存基本的对象，每个键值单独设置有效时间，通过管道一次发送
+     *
+     * @param dataMap    键值与对象
+     * @param timeoutMap 键值与有效时间，没有的键值不设置有效时间
+     * @param timeUnit   时间颗粒度
+     */
+    public <T> void multiSet(final Map<String, T> dataMap, final Map<String, Long> timeoutMap, final TimeUnit timeUnit) {
+        if (dataMap == null || dataMap.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                ValueOperations valueOperations = operations.opsForValue();
+                for (Map.Entry<String, T> entry : dataMap.entrySet()) {
+                    Long timeout = timeoutMap == null ? null : timeoutMap.get(entry.getKey());
+                    if (timeout != null && timeout > 0) {
+                        valueOperations.set(entry.getKey(), entry.getValue(), timeout, timeUnit);
+                    } else {
+                        valueOperations.set(entry.getKey(), entry.getValue());
+                    }
+                }
+                return null;
+            }
+        });
     }
 
     /**
@@ -186,4 +450,67 @@ public class RedisCache {
     public Collection<String> keys(String pattern) {
         return redisTemplate.keys(pattern);
     }
+
+    /**
+     * 使用SCAN遍历匹配的键值，不阻塞redis
+     *
+     * @param pattern 字符串前缀
+     * @param count   每次SCAN的建议条数
+     * @return 键值列表
+     */
+    public List<String> scan(final String pattern, final long count) {
+        final RedisSerializer<String> keySerializer = redisTemplate.getKeySerializer();
+        return (List<String>) redisTemplate.execute(new RedisCallback<List<String>>() {
+            @Override
+            public List<String> doInRedis(RedisConnection connection) throws DataAccessException {
+                List<String> keys = new ArrayList<String>();
+                ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+                try (Cursor<byte[]> cursor = connection.scan(options)) {
+                    while (cursor.hasNext()) {
+                        keys.add(keySerializer.deserialize(cursor.next()));
+                    }
+                } catch (IOException e) {
+                    throw new RedisSystemException("Could not close scan cursor", e);
+                }
+                return keys;
+            }
+        });
+    }
+
+    /**
+     * 批量获取有效时间，多个PTTL通过管道一次发送
+     *
+     * @param keys 缓存键值
+     * @param unit 时间颗粒度
+     * @return 与键值顺序一致的有效时间，-1表示永久，-2表示不存在
+     */
+    public List<Long> getExpires(final Collection<String> keys, final TimeUnit unit) {
+        if (keys == null || keys.isEmpty()) {
+            return new ArrayList<Long>();
+        }
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String key : keys) {
+                    operations.getExpire(key, unit);
+                }
+                return null;
+            }
+        });
+        List<Long> expires = new ArrayList<Long>(results.size());
+        for (Object result : results) {
+            expires.add(result == null ? -2L : ((Number) result).longValue());
+        }
+        return expires;
+    }
+
+    /**
+     * 发布消息到指定频道
+     *
+     * @param channel 频道名称
+     * @param message 消息内容
+     */
+    public void publish(String channel, Object message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
 }
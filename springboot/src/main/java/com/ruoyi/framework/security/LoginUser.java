@@ -55,6 +55,11 @@ public class LoginUser implements UserDetails {
      */
     private Set<String> permissions;
 
+    /**
+     * 权限集合版本，登录时生成；运行期修改权限集合时需同时更新，本地的权限位图按uuid和版本缓存
+     */
+    private Long permissionVersion;
+
     /**
      * 用户信息
      */
@@ -67,6 +72,7 @@ public class LoginUser implements UserDetails {
     public LoginUser(SysUser user, Set<String> permissions) {
         this.user = user;
         this.permissions = permissions;
+        this.permissionVersion = System.currentTimeMillis();
     }
 
     public String getToken() {
@@ -193,6 +199,14 @@ public class LoginUser implements UserDetails {
         this.permissions = permissions;
     }
 
+    public Long getPermissionVersion() {
+        return permissionVersion;
+    }
+
+    public void setPermissionVersion(Long permissionVersion) {
+        this.permissionVersion = permissionVersion;
+    }
+
     public SysUser getUser() {
         return user;
     }
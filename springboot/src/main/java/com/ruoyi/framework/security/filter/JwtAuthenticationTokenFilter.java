@@ -36,6 +36,7 @@ public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
         // 根据token，获取loginUser对象，在jwt里解密再从redis里拿
+        // 解析结果会放到request attribute里，本次请求后续的权限校验、数据权限、操作日志不再重复解析
         LoginUser loginUser = tokenService.getLoginUser(request);
         // StringUtils.isNull(SecurityUtils.getAuthentication()) 为空代表当前不是登录，登录没必要走这个filter。
         if (StringUtils.isNotNull(loginUser) && StringUtils.isNull(SecurityUtils.getAuthentication())) {
@@ -0,0 +1,229 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.framework.security.LoginUser;
+
+/**
+ * 在线用户索引
+ * 由TokenService在创建、刷新、删除令牌时维护，在线用户查询不再使用KEYS扫描；
+ * 启动时按SCAN补登记索引之前就已存在的会话，补登记完成前这些会话不会出现在在线用户列表里
+ * login_tokens_index：有序集合，成员为uuid，分数为过期时间
+ * login_tokens_user:用户名称、login_tokens_ip:登录地址：uuid集合，过期的成员在查询时顺带清理
+ *
+ * @author ruoyi
+ */
+@Component
+public class LoginUserRegistry {
+    private static final Logger log = LoggerFactory.getLogger(LoginUserRegistry.class);
+
+    /**
+     * 重建索引时每批处理的令牌数
+     */
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * 启动时是否补登记索引之外的在线用户（索引上线前已登录的会话）
+     */
+    @Value("${token.registry.rebuildOnStartup:true}")
+    private boolean rebuildOnStartup;
+
+    @PostConstruct
+    public void init() {
+        if (rebuildOnStartup) {
+            scheduledExecutorService.execute(() -> {
+                try {
+                    log.info("在线用户索引补登记完成，共{}个会话", rebuild());
+                } catch (RuntimeException e) {
+                    log.error("在线用户索引补登记失败", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 按SCAN遍历login_tokens:*，补登记所有未过期的会话，可重复执行
+     * 过期时间取键值的剩余有效期，续期只延长有效期时登录信息里的过期时间可能已经落后
+     *
+     * @return 登记的会话数
+     */
+    public int rebuild() {
+        List<String> keys = redisCache.scan(Constants.LOGIN_TOKEN_KEY + "*", REBUILD_BATCH_SIZE);
+        int count = 0;
+        for (int from = 0; from < keys.size(); from += REBUILD_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + REBUILD_BATCH_SIZE, keys.size()));
+            List<Object> users = redisCache.multiGet(batch);
+            List<Long> expires = redisCache.getExpires(batch, TimeUnit.MILLISECONDS);
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                Object user = users.get(i);
+                long remain = expires.get(i);
+                if (!(user instanceof LoginUser) || remain <= 0) {
+                    continue;
+                }
+                LoginUser loginUser = (LoginUser) user;
+                loginUser.setToken(batch.get(i).substring(Constants.LOGIN_TOKEN_KEY.length()));
+                loginUser.setExpireTime(now + remain);
+                register(loginUser);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 登记在线用户
+     *
+     * @param loginUser 登录信息
+     */
+    public void register(LoginUser loginUser) {
+        String uuid = loginUser.getToken();
+        long expireTime = loginUser.getExpireTime();
+        redisCache.addCacheZSet(Constants.LOGIN_TOKEN_INDEX_KEY, uuid, expireTime);
+        addIndex(Constants.LOGIN_TOKEN_USER_KEY + loginUser.getUsername(), uuid, expireTime);
+        if (StringUtils.isNotEmpty(loginUser.getIpaddr())) {
+            addIndex(Constants.LOGIN_TOKEN_IP_KEY + loginUser.getIpaddr(), uuid, expireTime);
+        }
+    }
+
+    /**
+     * 更新过期时间
+     *
+     * @param loginUser 登录信息
+     */
+    public void touch(LoginUser loginUser) {
+        long expireTime = loginUser.getExpireTime();
+        redisCache.addCacheZSet(Constants.LOGIN_TOKEN_INDEX_KEY, loginUser.getToken(), expireTime);
+        extendExpire(Constants.LOGIN_TOKEN_USER_KEY + loginUser.getUsername(), expireTime);
+        if (StringUtils.isNotEmpty(loginUser.getIpaddr())) {
+            extendExpire(Constants.LOGIN_TOKEN_IP_KEY + loginUser.getIpaddr(), expireTime);
+        }
+    }
+
+    /**
+     * 移除在线用户，用户名称和登录地址索引里的成员在查询时清理
+     *
+     * @param uuid 用户唯一标识
+     */
+    public void unregister(String uuid) {
+        redisCache.removeCacheZSet(Constants.LOGIN_TOKEN_INDEX_KEY, uuid);
+    }
+
+    /**
+     * 清理已过期的在线用户
+     */
+    public void removeExpired() {
+        redisCache.removeCacheZSetByScore(Constants.LOGIN_TOKEN_INDEX_KEY, Double.NEGATIVE_INFINITY,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * 在线用户数，只统计未过期的成员，不依赖removeExpired已经执行
+     */
+    public long count() {
+        return redisCache.countCacheZSetByScore(Constants.LOGIN_TOKEN_INDEX_KEY, System.currentTimeMillis() + 1,
+                Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * 按过期时间倒序分页获取uuid
+     *
+     * @param offset 起始下标
+     * @param limit  条数，小于等于0表示全部
+     * @return uuid列表
+     */
+    public List<String> selectTokens(long offset, long limit) {
+        long end = limit > 0 ? offset + limit - 1 : -1;
+        Set<String> tokens = redisCache.getCacheZSetReverseRange(Constants.LOGIN_TOKEN_INDEX_KEY, offset, end);
+        return tokens == null ? new ArrayList<String>() : new ArrayList<String>(tokens);
+    }
+
+    /**
+     * 按登录地址、用户名称获取uuid，两者都有时取交集
+     *
+     * @param ipaddr   登录地址
+     * @param userName 用户名称
+     * @return uuid集合
+     */
+    public Set<String> selectTokens(String ipaddr, String userName) {
+        Set<String> tokens = null;
+        if (StringUtils.isNotEmpty(ipaddr)) {
+            tokens = getIndex(Constants.LOGIN_TOKEN_IP_KEY + ipaddr);
+        }
+        if (StringUtils.isNotEmpty(userName)) {
+            Set<String> userTokens = getIndex(Constants.LOGIN_TOKEN_USER_KEY + userName);
+            if (tokens == null) {
+                tokens = userTokens;
+            } else {
+                tokens.retainAll(userTokens);
+            }
+        }
+        return tokens == null ? Collections.<String>emptySet() : tokens;
+    }
+
+    /**
+     * 清理用户名称、登录地址索引中已失效的uuid
+     *
+     * @param ipaddr   登录地址
+     * @param userName 用户名称
+     * @param tokens   已失效的uuid
+     */
+    public void removeStale(String ipaddr, String userName, Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Object[] members = tokens.toArray();
+        if (StringUtils.isNotEmpty(ipaddr)) {
+            redisCache.removeCacheSetMembers(Constants.LOGIN_TOKEN_IP_KEY + ipaddr, members);
+        }
+        if (StringUtils.isNotEmpty(userName)) {
+            redisCache.removeCacheSetMembers(Constants.LOGIN_TOKEN_USER_KEY + userName, members);
+        }
+        redisCache.removeCacheZSet(Constants.LOGIN_TOKEN_INDEX_KEY, members);
+    }
+
+    private void addIndex(String key, String uuid, long expireTime) {
+        redisCache.addCacheSetMembers(key, uuid);
+        extendExpire(key, expireTime);
+    }
+
+    /**
+     * 索引的有效期取其中令牌的最晚过期时间，只延长不缩短
+     */
+    private void extendExpire(String key, long expireTime) {
+        long remain = expireTime - System.currentTimeMillis();
+        if (remain > 0 && redisCache.getExpire(key, TimeUnit.MILLISECONDS) < remain) {
+            redisCache.expire(key, remain, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Set<String> getIndex(String key) {
+        Set<String> members = redisCache.getCacheSet(key);
+        return members == null ? new HashSet<String>() : new HashSet<String>(members);
+    }
+}
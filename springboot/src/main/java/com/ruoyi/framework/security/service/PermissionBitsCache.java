@@ -0,0 +1,115 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.Map;
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.core.cache.LocalCache;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.security.LoginUser;
+
+/**
+ * 权限位图缓存
+ * loginUser每次从redis或快照复制都是新对象，位图不挂在对象上，按uuid和权限集合版本放在这里，
+ * 登录、刷新令牌时生成，删除令牌或收到失效通知时清除；版本不一致时按新的权限集合重新生成。
+ *
+ * @author ruoyi
+ */
+@Component
+public class PermissionBitsCache {
+    protected static final long MILLIS_MINUTE = 60 * 1000L;
+
+    // 令牌有效期（默认30分钟），位图最多保留这么久
+    @Value("${token.expireTime}")
+    private int expireTime;
+
+    // 最大缓存用户数，与登录用户本地缓存一致
+    @Value("${token.cache.maxSize:10000}")
+    private int maxSize;
+
+    @Autowired
+    private PermissionDictionary permissionDictionary;
+
+    // uuid -> 权限位图，位图生成后不再修改
+    private LocalCache<String, Bits> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LocalCache<>("permissionBits", maxSize, expireTime * MILLIS_MINUTE);
+    }
+
+    /**
+     * 获取用户权限位图，缓存中没有或版本不一致时重新生成
+     *
+     * @param loginUser 登录用户
+     * @return 权限位图，调用方不能修改
+     */
+    public long[] get(LoginUser loginUser) {
+        String uuid = loginUser.getToken();
+        if (StringUtils.isEmpty(uuid)) {
+            return permissionDictionary.toBits(loginUser.getPermissions());
+        }
+        Bits bits = cache.get(uuid);
+        if (bits == null || bits.version != versionOf(loginUser)) {
+            bits = new Bits(versionOf(loginUser), permissionDictionary.toBits(loginUser.getPermissions()));
+            cache.put(uuid, bits);
+        }
+        return bits.bits;
+    }
+
+    /**
+     * 按用户当前的权限集合生成位图并缓存，登录和刷新令牌时调用
+     *
+     * @param loginUser 登录用户
+     */
+    public void put(LoginUser loginUser) {
+        if (StringUtils.isNotEmpty(loginUser.getToken())) {
+            cache.put(loginUser.getToken(),
+                    new Bits(versionOf(loginUser), permissionDictionary.toBits(loginUser.getPermissions())));
+        }
+    }
+
+    /**
+     * 删除用户权限位图
+     *
+     * @param uuid 用户唯一标识
+     */
+    public void evict(String uuid) {
+        cache.remove(uuid);
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        return cache.getStats();
+    }
+
+    public String getName() {
+        return cache.getName();
+    }
+
+    /**
+     * 升级前写入redis的loginUser没有版本，按0处理
+     */
+    private static long versionOf(LoginUser loginUser) {
+        Long version = loginUser.getPermissionVersion();
+        return version == null ? 0L : version;
+    }
+
+    /**
+     * 某个版本权限集合对应的位图
+     */
+    private static final class Bits {
+        private final long version;
+
+        private final long[] bits;
+
+        Bits(long version, long[] bits) {
+            this.version = version;
+            this.bits = bits;
+        }
+    }
+}
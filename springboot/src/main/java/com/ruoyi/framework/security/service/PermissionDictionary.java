@@ -0,0 +1,107 @@
+package com.ruoyi.framework.security.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.project.system.mapper.SysMenuMapper;
+
+/**
+ * 权限字典
+ * 启动时把sys_menu.perms中的权限字符串编号，用户的权限集合转成位图，权限校验只需要一次位运算。
+ * 编号只增不减，运行期新增的权限在第一次出现时分配编号；编号只在当前进程内有效，不写入redis。
+ *
+ * @author ruoyi
+ */
+@Component
+public class PermissionDictionary {
+    /**
+     * 权限字符串（含未去空格的原始写法）-> 编号
+     */
+    private final ConcurrentHashMap<String, Integer> indexes = new ConcurrentHashMap<>(256);
+
+    private int size;
+
+    @Autowired
+    private SysMenuMapper menuMapper;
+
+    @PostConstruct
+    public void init() {
+        for (String perms : menuMapper.selectMenuPerms()) {
+            if (StringUtils.isNotEmpty(perms)) {
+                for (String perm : perms.trim().split(",")) {
+                    indexOf(perm);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取权限编号，不存在时分配新的编号
+     *
+     * @param permission 权限字符串
+     * @return 编号
+     */
+    public int indexOf(String permission) {
+        Integer index = indexes.get(permission);
+        if (index != null) {
+            return index;
+        }
+        return register(permission);
+    }
+
+    /**
+     * 权限集合转位图
+     *
+     * @param permissions 权限集合
+     * @return 位图
+     */
+    public long[] toBits(Collection<String> permissions) {
+        long[] bits = new long[0];
+        if (permissions == null) {
+            return bits;
+        }
+        for (String permission : permissions) {
+            if (permission == null) {
+                continue;
+            }
+            int index = indexOf(permission);
+            if ((index >>> 6) >= bits.length) {
+                bits = Arrays.copyOf(bits, (index >>> 6) + 1);
+            }
+            bits[index >>> 6] |= 1L << index;
+        }
+        return bits;
+    }
+
+    /**
+     * 判断位图中是否包含某个编号
+     *
+     * @param bits  位图
+     * @param index 编号
+     * @return 结果
+     */
+    public static boolean test(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    private synchronized int register(String permission) {
+        Integer index = indexes.get(permission);
+        if (index != null) {
+            return index;
+        }
+        String trimmed = StringUtils.trim(permission);
+        index = indexes.get(trimmed);
+        if (index == null) {
+            index = size++;
+            indexes.put(trimmed, index);
+        }
+        indexes.put(permission, index);
+        return index;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ruoyi.framework.security.service;
 
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -34,6 +35,27 @@ public class PermissionService {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private PermissionDictionary permissionDictionary;
+
+    @Autowired
+    private PermissionBitsCache permissionBitsCache;
+
+    /**
+     * 注解中的权限表达式 -> 权限编号，表达式是常量，解析一次后复用
+     */
+    private final ConcurrentHashMap<String, int[]> expressionIndexes = new ConcurrentHashMap<>(256);
+
+    /**
+     * 所有权限标识的编号
+     */
+    private int allPermissionIndex;
+
+    @PostConstruct
+    public void init() {
+        allPermissionIndex = permissionDictionary.indexOf(ALL_PERMISSION);
+    }
+
     /**
      * 验证用户是否具备某权限
      *
@@ -48,7 +70,7 @@ public class PermissionService {
         if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getPermissions())) {
             return false;
         }
-        return hasPermissions(loginUser.getPermissions(), permission);
+        return hasPermissions(permissionBitsCache.get(loginUser), permissionDictionary.indexOf(permission));
     }
 
     /**
@@ -75,9 +97,9 @@ public class PermissionService {
         if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getPermissions())) {
             return false;
         }
-        Set<String> authorities = loginUser.getPermissions();
-        for (String permission : permissions.split(PERMISSION_DELIMETER)) {
-            if (permission != null && hasPermissions(authorities, permission)) {
+        long[] bits = permissionBitsCache.get(loginUser);
+        for (int index : resolve(permissions)) {
+            if (hasPermissions(bits, index)) {
                 return true;
             }
         }
@@ -98,13 +120,7 @@ public class PermissionService {
         if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getUser().getRoles())) {
             return false;
         }
-        for (SysRole sysRole : loginUser.getUser().getRoles()) {
-            String roleKey = sysRole.getRoleKey();
-            if (SUPER_ADMIN.contains(roleKey) || roleKey.contains(StringUtils.trim(role))) {
-                return true;
-            }
-        }
-        return false;
+        return hasRole(loginUser, StringUtils.trim(role));
     }
 
     /**
@@ -131,8 +147,26 @@ public class PermissionService {
         if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getUser().getRoles())) {
             return false;
         }
+        // 只取一次登录用户，逐个角色比较
         for (String role : roles.split(ROLE_DELIMETER)) {
-            if (hasRole(role)) {
+            if (hasRole(loginUser, StringUtils.trim(role))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断用户是否拥有某个角色
+     *
+     * @param loginUser 登录用户
+     * @param role      去掉空格的角色字符串
+     * @return 用户是否具备某角色
+     */
+    private boolean hasRole(LoginUser loginUser, String role) {
+        for (SysRole sysRole : loginUser.getUser().getRoles()) {
+            String roleKey = sysRole.getRoleKey();
+            if (SUPER_ADMIN.contains(roleKey) || roleKey.contains(role)) {
                 return true;
             }
         }
@@ -142,11 +176,30 @@ public class PermissionService {
     /**
      * 判断是否包含权限
      *
-     * @param permissions 权限列表
-     * @param permission  权限字符串
+     * @param bits  用户权限位图
+     * @param index 权限编号
      * @return 用户是否具备某权限
      */
-    private boolean hasPermissions(Set<String> permissions, String permission) {
-        return permissions.contains(ALL_PERMISSION) || permissions.contains(StringUtils.trim(permission));
+    private boolean hasPermissions(long[] bits, int index) {
+        return PermissionDictionary.test(bits, allPermissionIndex) || PermissionDictionary.test(bits, index);
+    }
+
+    /**
+     * 解析权限表达式为权限编号，多个权限以 PERMISSION_DELIMETER 分隔
+     *
+     * @param permissions 权限表达式
+     * @return 权限编号
+     */
+    private int[] resolve(String permissions) {
+        int[] indexes = expressionIndexes.get(permissions);
+        if (indexes == null) {
+            String[] items = permissions.split(PERMISSION_DELIMETER);
+            indexes = new int[items.length];
+            for (int i = 0; i < items.length; i++) {
+                indexes[i] = permissionDictionary.indexOf(items[i]);
+            }
+            expressionIndexes.put(permissions, indexes);
+        }
+        return indexes;
     }
 }
@@ -14,8 +14,7 @@ import com.ruoyi.common.exception.user.CaptchaException;
 import com.ruoyi.common.exception.user.CaptchaExpireException;
 import com.ruoyi.common.exception.user.UserPasswordNotMatchException;
 import com.ruoyi.common.utils.MessageUtils;
-import com.ruoyi.framework.manager.AsyncManager;
-import com.ruoyi.framework.manager.factory.AsyncFactory;
+import com.ruoyi.framework.manager.LoginLogWriter;
 import com.ruoyi.framework.redis.RedisCache;
 import com.ruoyi.framework.security.LoginUser;
 
@@ -36,6 +35,10 @@ public class SysLoginService {
     @Autowired
     private RedisCache redisCache;
 
+    // 登录日志批量写入
+    @Autowired
+    private LoginLogWriter loginLogWriter;
+
     /**
      * 登录验证核心server
      *
@@ -55,15 +58,13 @@ public class SysLoginService {
         if (captcha == null) {
             /** 这里是日志处理：
              * 如果redis里的验证码为空的话,记录日志
-             * 关联对象com.ruoyi.framework.manager.AsyncManager对象、
-             *
-             * AsyncManager.me 使用单例模式创建对象,execute(execute就是ScheduledExecutorService对象。用来把定时任务和线程池结合使用)方法用来创建并执行一个一次性的操作，延迟10毫秒执行,这个操作是个TimerTask对象
+             * 关联对象com.ruoyi.framework.manager.LoginLogWriter对象、
              *
-             *  AsyncFactory.recordLogininfor方法用来封装任务的异步工厂（产生任务用）也就是TimerTask对象，
-             *  execute传入TimerTask对象(TimerTask是一个抽象类，它实现了Runnable接口，我们可以重写Runnable接口的run方法,设置线程任务),
-             *  任务就是根据用户信息还有请求获取用户的系统、浏览器、登录状态等【打印】到日志，再封装到logininfor日志对象里，再使用自己封装的SpringUtils来获取记录日志的bean，把日志执行方法【插入】数据库。
+             *  loginLogWriter.record在请求线程里解析用户的系统、浏览器、登录状态等，封装到logininfor日志对象里，
+             *  然后交给单独的线程池查询登录地点并【打印】到日志（限制并发数，不占用AsyncManager的线程池），
+             *  最后放进队列，由写入线程攒够一批后一次【插入】数据库。
              */
-            AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.LOGIN_FAIL, MessageUtils.message("user.jcaptcha.expire")));
+            loginLogWriter.record(username, Constants.LOGIN_FAIL, MessageUtils.message("user.jcaptcha.expire"));
             /** 自动触发user方面的自定义异常,这个错误是 验证码已失效, 最终抛给com.ruoyi.framework.web.exception.GlobalExceptionHandler 来返回
              *  这个异常把错误信息传给验证码的异常封装成RuntimeException(运行期异常)，全局异常GlobalExceptionHandler会侦测到该controller的异常，根据异常类的
              *  第一个方法baseException把错误通过ajax封装成json ｛code: 500 msg: "验证码已失效"｝返回，需要注意的是封装返回对象的时候是根据传过去的key值，去i18n配置文件里读取的属性，配置在yml里
@@ -73,7 +74,7 @@ public class SysLoginService {
         }
         if (!code.equalsIgnoreCase(captcha)) {
             // 同上,这个错误是 验证码错误
-            AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.LOGIN_FAIL, MessageUtils.message("user.jcaptcha.error")));
+            loginLogWriter.record(username, Constants.LOGIN_FAIL, MessageUtils.message("user.jcaptcha.error"));
             throw new CaptchaException();
         }
         // 用户验证
@@ -99,10 +100,10 @@ public class SysLoginService {
                  *  判断如果是该对象对象返回字典的【用户不存在/密码错误】
                  *  打印日志 + 抛出返回的异常
                  */
-                AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.LOGIN_FAIL, MessageUtils.message("user.password.not.match")));
+                loginLogWriter.record(username, Constants.LOGIN_FAIL, MessageUtils.message("user.password.not.match"));
                 throw new UserPasswordNotMatchException();
             } else {
-                AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.LOGIN_FAIL, e.getMessage()));
+                loginLogWriter.record(username, Constants.LOGIN_FAIL, e.getMessage());
                 /**
                  * 自定义异常继承RuntimeException，把异常的错误直接传过去，总之只要继承了RuntimeException都会返回给前台的
                  */
@@ -114,7 +115,7 @@ public class SysLoginService {
          * 通过 Authentication.getPrincipal() 可以获取到代表当前用户的信息，这个对象通常是 UserDetails的实例。我们的LoginUser对象继承了这个对象。
          * 通过 UserDetailsService接口的实现，我们可以通过authentication.getPrincipal()获取UserDetails，再强转loginUser获取里面的user对象和权限，
          */
-        AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.LOGIN_SUCCESS, MessageUtils.message("user.login.success")));
+        loginLogWriter.record(username, Constants.LOGIN_SUCCESS, MessageUtils.message("user.login.success"));
         // 得到user对象以及权限属性
         LoginUser loginUser = (LoginUser) authentication.getPrincipal();
         // 认证成功返回jwt生成token并且返回(String),并且把封装的loginUser对象放到redis
@@ -3,12 +3,17 @@ package com.ruoyi.framework.security.service;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.core.cache.LocalCache;
 import com.ruoyi.common.utils.IdUtils;
 import com.ruoyi.common.utils.ServletUtils;
 import com.ruoyi.common.utils.StringUtils;
@@ -48,29 +53,170 @@ public class TokenService {
     // 20分钟
     private static final Long MILLIS_MINUTE_TEN = 20 * 60 * 1000L;
 
+    // 续期时只延长redis有效期，不重写整个loginUser
+    @Value("${token.refreshExpireOnly:false}")
+    private boolean refreshExpireOnly;
+
+    // 登录用户本地缓存开关
+    @Value("${token.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    // 已验签令牌缓存开关
+    @Value("${token.cache.tokenEnabled:true}")
+    private boolean tokenCacheEnabled;
+
+    // 本地缓存最大用户数
+    @Value("${token.cache.maxSize:10000}")
+    private int cacheMaxSize;
+
+    // 本地缓存有效期（秒）
+    @Value("${token.cache.expireSeconds:60}")
+    private int cacheExpireSeconds;
+
+    // 当前节点标识，用于忽略自己发出的失效通知
+    private final String nodeId = IdUtils.fastSimpleUUID();
+
+    // 登录用户本地缓存，uuid -> loginUser快照，挡在redis前面，各节点通过redis频道互相通知失效
+    // 快照写入时复制、命中时直接共享，只读；续期、修改资料在副本上进行（见getLoginUserForUpdate）
+    private LocalCache<String, LoginUser> loginUserCache;
+
+    // 已验签令牌缓存，token -> uuid，同一个令牌在本节点只做一次HS512验签
+    private LocalCache<String, String> tokenCache;
+
     @Autowired
     private RedisCache redisCache;
 
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private LoginUserRegistry loginUserRegistry;
+
+    @Autowired
+    private PermissionBitsCache permissionBitsCache;
+
+    /**
+     * 初始化本地缓存并订阅失效通知
+     */
+    @PostConstruct
+    public void init() {
+        loginUserCache = new LocalCache<>("loginUser", cacheMaxSize, cacheExpireSeconds * MILLIS_SECOND);
+        tokenCache = new LocalCache<>("token", cacheMaxSize, expireTime * MILLIS_MINUTE);
+        if (cacheEnabled) {
+            listenerContainer.addMessageListener((message, pattern) -> {
+                Object body = redisCache.redisTemplate.getValueSerializer().deserialize(message.getBody());
+                onLoginUserChanged(StringUtils.isNull(body) ? null : body.toString());
+            }, new ChannelTopic(Constants.LOGIN_TOKEN_TOPIC));
+        }
+    }
+
     /**
      * 获取用户身份信息
      *
      * @return 用户信息
      */
     public LoginUser getLoginUser(HttpServletRequest request) {
+        // 同一个请求内只解析一次，过滤器解析后放到request attribute里，后续权限校验、数据权限、操作日志直接复用
+        Object resolved = request.getAttribute(Constants.LOGIN_USER_ATTRIBUTE);
+        if (resolved instanceof LoginUser) {
+            return (LoginUser) resolved;
+        }
         // 获取请求携带的令牌
         String token = getToken(request);
         if (StringUtils.isNotEmpty(token)) {
-            Claims claims = parseToken(token);
             // 解析对应的权限以及用户信息，根据token生产jwt的Claims对象，然后根据当时put进去的key值get对于的uuid
-            String uuid = (String) claims.get(Constants.LOGIN_USER_KEY);
+            String uuid = getUuidFromToken(token);
             // login_tokens:e751f4e2-b24e-4230-9005-a9a4b8fa08dd  该key值里有当时登录成功创建令牌生成的loginUser对象。
-            String userKey = getTokenKey(uuid);
-            LoginUser user = redisCache.getCacheObject(userKey);
+            LoginUser user = getLoginUserByUuid(uuid);
+            if (StringUtils.isNotNull(user)) {
+                request.setAttribute(Constants.LOGIN_USER_ATTRIBUTE, user);
+            }
             return user;
         }
             return null;
     }
 
+    /**
+     * 获取可以修改的用户身份信息副本，修改后通过setLoginUser写回
+     * getLoginUser返回的对象可能是多个请求共享的本地缓存快照，不能直接修改
+     *
+     * @return 用户信息副本
+     */
+    public LoginUser getLoginUserForUpdate(HttpServletRequest request) {
+        LoginUser user = getLoginUser(request);
+        return StringUtils.isNull(user) ? null : copyLoginUser(user);
+    }
+
+    /**
+     * 从令牌中获取uuid，验签通过的令牌缓存起来，避免重复的Base64解码和HMAC计算
+     *
+     * @param token 令牌
+     * @return uuid
+     */
+    private String getUuidFromToken(String token) {
+        if (!tokenCacheEnabled) {
+            return (String) parseToken(token).get(Constants.LOGIN_USER_KEY);
+        }
+        String uuid = tokenCache.get(token);
+        if (StringUtils.isNull(uuid)) {
+            uuid = (String) parseToken(token).get(Constants.LOGIN_USER_KEY);
+            tokenCache.put(token, uuid);
+        }
+        return uuid;
+    }
+
+    /**
+     * 根据uuid获取用户身份信息，先查本地缓存，未命中再查redis
+     *
+     * @param uuid 用户唯一标识
+     * @return 用户信息
+     */
+    private LoginUser getLoginUserByUuid(String uuid) {
+        if (!cacheEnabled) {
+            return loadLoginUser(uuid);
+        }
+        LoginUser user = loginUserCache.get(uuid);
+        if (StringUtils.isNotNull(user) && user.getExpireTime() > System.currentTimeMillis()) {
+            return user;
+        }
+        user = loadLoginUser(uuid);
+        // 刚从redis反序列化的对象没有其它引用，直接作为快照
+        putSnapshot(uuid, user);
+        return user;
+    }
+
+    /**
+     * 从redis加载用户身份信息，合并续期写入的登录时间和过期时间
+     *
+     * @param uuid 用户唯一标识
+     * @return 用户信息
+     */
+    private LoginUser loadLoginUser(String uuid) {
+        LoginUser user = redisCache.getCacheObject(getTokenKey(uuid));
+        if (refreshExpireOnly && StringUtils.isNotNull(user)) {
+            mergeRefreshTimes(user, redisCache.getCacheObject(getExpireKey(uuid)));
+        }
+        return user;
+    }
+
+    /**
+     * 合并 login_tokens_expire:uuid 里续期写入的登录时间和过期时间
+     *
+     * @param user  登录信息
+     * @param times 续期记录（登录时间:过期时间），可以为空
+     */
+    public static void mergeRefreshTimes(LoginUser user, String times) {
+        int index = StringUtils.isEmpty(times) ? -1 : times.indexOf(':');
+        if (index > 0) {
+            long expire = Long.parseLong(times.substring(index + 1));
+            // 整体重写过的loginUser比续期记录新时，以loginUser为准
+            if (StringUtils.isNull(user.getExpireTime()) || expire > user.getExpireTime()) {
+                user.setLoginTime(Long.parseLong(times.substring(0, index)));
+                user.setExpireTime(expire);
+            }
+        }
+    }
+
     /**
      * 设置用户身份信息
      */
@@ -87,6 +233,11 @@ public class TokenService {
         if (StringUtils.isNotEmpty(token)) {
             String userKey = getTokenKey(token);
             redisCache.deleteObject(userKey);
+            if (refreshExpireOnly) {
+                redisCache.deleteObject(getExpireKey(token));
+            }
+            loginUserRegistry.unregister(token);
+            evictLoginUser(token);
         }
     }
 
@@ -124,7 +275,37 @@ public class TokenService {
         long expireTime = loginUser.getExpireTime();
         long currentTime = System.currentTimeMillis();
         if (expireTime - currentTime <= MILLIS_MINUTE_TEN) {
-            refreshToken(loginUser);
+            // 传入的可能是共享的缓存快照，在副本上续期
+            LoginUser copy = copyLoginUser(loginUser);
+            if (refreshExpireOnly) {
+                refreshExpire(copy);
+            } else {
+                refreshToken(copy);
+            }
+        }
+    }
+
+    /**
+     * 只延长令牌有效期，loginUser本身不重新序列化写入
+     * 登录时间和过期时间单独写到 login_tokens_expire:uuid 里，只有几十个字节
+     *
+     * @param loginUser 登录信息
+     */
+    public void refreshExpire(LoginUser loginUser) {
+        loginUser.setLoginTime(System.currentTimeMillis());
+        loginUser.setExpireTime(loginUser.getLoginTime() + expireTime * MILLIS_MINUTE);
+        String uuid = loginUser.getToken();
+        // 令牌已被删除（退出、强退）时不再续期，避免把会话复活
+        if (!redisCache.expire(getTokenKey(uuid), expireTime, TimeUnit.MINUTES)) {
+            evictLoginUser(uuid);
+            return;
+        }
+        String times = loginUser.getLoginTime() + ":" + loginUser.getExpireTime();
+        redisCache.setCacheObject(getExpireKey(uuid), times, expireTime, TimeUnit.MINUTES);
+        loginUserRegistry.touch(loginUser);
+        if (cacheEnabled) {
+            putLocalLoginUser(uuid, loginUser);
+            redisCache.publish(Constants.LOGIN_TOKEN_TOPIC, nodeId + ":" + uuid);
         }
     }
 
@@ -144,6 +325,84 @@ public class TokenService {
         // 根据uuid将loginUser缓存,结果是login_tokens + uuid(之前生成的)，再次放到redis里
         String userKey = getTokenKey(loginUser.getToken());
         redisCache.setCacheObject(userKey, loginUser, expireTime, TimeUnit.MINUTES);
+        // 登记到在线用户索引，在线用户查询不再使用KEYS
+        loginUserRegistry.register(loginUser);
+        // 权限位图随令牌一起生成，请求中按uuid和权限版本直接取用
+        permissionBitsCache.put(loginUser);
+        if (cacheEnabled) {
+            putLocalLoginUser(loginUser.getToken(), loginUser);
+            redisCache.publish(Constants.LOGIN_TOKEN_TOPIC, nodeId + ":" + loginUser.getToken());
+        }
+    }
+
+    /**
+     * 获取本地缓存统计信息（命中/未命中次数等）
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put(loginUserCache.getName(), loginUserCache.getStats());
+        stats.put(tokenCache.getName(), tokenCache.getStats());
+        stats.put(permissionBitsCache.getName(), permissionBitsCache.getStats());
+        return stats;
+    }
+
+    /**
+     * 写入本地缓存，保存的是loginUser当前状态的副本，调用方之后的修改不影响缓存
+     */
+    private void putLocalLoginUser(String uuid, LoginUser loginUser) {
+        if (StringUtils.isNotNull(loginUser)) {
+            putSnapshot(uuid, copyLoginUser(loginUser));
+        }
+    }
+
+    /**
+     * 写入只读快照，有效期不超过令牌剩余有效期
+     */
+    private void putSnapshot(String uuid, LoginUser snapshot) {
+        if (StringUtils.isNull(snapshot) || StringUtils.isNull(snapshot.getExpireTime())) {
+            return;
+        }
+        long remain = snapshot.getExpireTime() - System.currentTimeMillis();
+        if (remain > 0) {
+            loginUserCache.put(uuid, snapshot, Math.min(remain, cacheExpireSeconds * MILLIS_SECOND));
+        }
+    }
+
+    /**
+     * 按redis的序列化方式复制一份，只在写入和修改时使用
+     */
+    @SuppressWarnings("unchecked")
+    private LoginUser copyLoginUser(LoginUser loginUser) {
+        RedisSerializer<Object> serializer = redisCache.redisTemplate.getValueSerializer();
+        return (LoginUser) serializer.deserialize(serializer.serialize(loginUser));
+    }
+
+    /**
+     * 删除本地缓存并通知其它节点
+     */
+    private void evictLoginUser(String uuid) {
+        permissionBitsCache.evict(uuid);
+        if (cacheEnabled) {
+            loginUserCache.remove(uuid);
+            redisCache.publish(Constants.LOGIN_TOKEN_TOPIC, nodeId + ":" + uuid);
+        }
+    }
+
+    /**
+     * 收到其它节点的变更通知，删除本地缓存
+     *
+     * @param message 节点标识:uuid
+     */
+    private void onLoginUserChanged(String message) {
+        if (StringUtils.isEmpty(message)) {
+            return;
+        }
+        int index = message.indexOf(':');
+        if (index > 0 && !nodeId.equals(message.substring(0, index))) {
+            String uuid = message.substring(index + 1);
+            loginUserCache.remove(uuid);
+            permissionBitsCache.evict(uuid);
+        }
     }
 
     /**
@@ -223,4 +482,8 @@ public class TokenService {
         //登录用户的redis key  login_tokens
         return Constants.LOGIN_TOKEN_KEY + uuid;
     }
+
+    private String getExpireKey(String uuid) {
+        return Constants.LOGIN_TOKEN_EXPIRE_KEY + uuid;
+    }
 }
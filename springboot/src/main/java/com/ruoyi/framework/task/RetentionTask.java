@@ -0,0 +1,24 @@
+package com.ruoyi.framework.task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ruoyi.project.monitor.service.ISysRetentionService;
+
+/**
+ * 审计日志清理任务，在定时任务中配置调用目标 retentionTask.clean()
+ *
+ * @author ruoyi
+ */
+@Component("retentionTask")
+public class RetentionTask {
+    private static final Logger log = LoggerFactory.getLogger(RetentionTask.class);
+
+    @Autowired
+    private ISysRetentionService retentionService;
+
+    public void clean() {
+        log.info("审计日志清理结果：{}", retentionService.clean());
+    }
+}
@@ -3,6 +3,7 @@ package com.ruoyi.framework.web.controller;
 import java.beans.PropertyEditorSupport;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.WebDataBinder;
@@ -13,7 +14,9 @@ import com.ruoyi.common.constant.HttpStatus;
 import com.ruoyi.common.utils.DateUtils;
 import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.common.utils.sql.SqlUtil;
+import com.ruoyi.framework.interceptor.CountCacheInterceptor;
 import com.ruoyi.framework.web.domain.AjaxResult;
+import com.ruoyi.framework.web.domain.BaseEntity;
 import com.ruoyi.framework.web.page.PageDomain;
 import com.ruoyi.framework.web.page.TableDataInfo;
 import com.ruoyi.framework.web.page.TableSupport;
@@ -55,10 +58,57 @@ public class BaseController
         if (StringUtils.isNotNull(pageNum) && StringUtils.isNotNull(pageSize))
         {
             String orderBy = SqlUtil.escapeOrderBySql(pageDomain.getOrderBy());
+            CountCacheInterceptor.setEstimate(false);
             PageHelper.startPage(pageNum, pageSize, orderBy);
         }
     }
 
+    /**
+     * 设置请求分页数据，请求中带cursor参数时使用游标分页
+     * 游标分页按主键倒序，用主键条件代替偏移量，翻到很后面的页也不需要扫描前面的数据；
+     * 对应的查询需要支持params.cursor条件并按主键倒序排序；count=estimate时无查询条件的列表按表统计信息估算总数
+     * 
+     * @param entity 查询条件
+     */
+    protected void startCursorPage(BaseEntity entity)
+    {
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        Integer pageSize = pageDomain.getPageSize();
+        if (!pageDomain.isCursorMode() || StringUtils.isNull(pageSize))
+        {
+            startPage();
+            return;
+        }
+        Long key = TableSupport.decodeCursor(pageDomain.getCursor());
+        if (key != null)
+        {
+            entity.getParams().put(TableSupport.CURSOR, key);
+        }
+        boolean count = pageDomain.isCountRequired();
+        CountCacheInterceptor.setEstimate(count && pageDomain.isCountEstimate());
+        PageHelper.startPage(1, pageSize, count);
+    }
+
+    /**
+     * 响应游标分页数据，不查询总数时total为-1，总数为估算值时estimated为true
+     * 
+     * @param list 列表数据
+     * @param keyMapper 获取主键
+     * @return 分页数据
+     */
+    protected <T> TableDataInfo getCursorDataTable(List<T> list, Function<T, Long> keyMapper)
+    {
+        TableDataInfo rspData = getDataTable(list);
+        rspData.setEstimated(CountCacheInterceptor.pollEstimated());
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        Integer pageSize = pageDomain.getPageSize();
+        if (pageDomain.isCursorMode() && StringUtils.isNotNull(pageSize) && list.size() >= pageSize)
+        {
+            rspData.setCursor(TableSupport.encodeCursor(keyMapper.apply(list.get(list.size() - 1))));
+        }
+        return rspData;
+    }
+
     /**
      * 响应请求分页数据
      */
@@ -18,6 +18,12 @@ public class PageDomain
     /** 排序的方向 "desc" 或者 "asc". */
     private String isAsc;
 
+    /** 游标分页的游标，为null时使用页码分页，空字符串表示第一页 */
+    private String cursor;
+
+    /** 总数查询方式 true=查询 false=不查询 estimate=无查询条件时按表统计信息估算 */
+    private String count;
+
     public String getOrderBy()
     {
         if (StringUtils.isEmpty(orderByColumn))
@@ -66,4 +72,52 @@ public class PageDomain
     {
         this.isAsc = isAsc;
     }
+
+    public String getCursor()
+    {
+        return cursor;
+    }
+
+    public void setCursor(String cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    public String getCount()
+    {
+        return count;
+    }
+
+    public void setCount(String count)
+    {
+        this.count = count;
+    }
+
+    /**
+     * 是否使用游标分页
+     */
+    public boolean isCursorMode()
+    {
+        return cursor != null;
+    }
+
+    /**
+     * 是否需要查询总数，游标分页只在第一页查询
+     */
+    public boolean isCountRequired()
+    {
+        if ("false".equalsIgnoreCase(count))
+        {
+            return false;
+        }
+        return !isCursorMode() || StringUtils.isEmpty(cursor);
+    }
+
+    /**
+     * 是否估算总数
+     */
+    public boolean isCountEstimate()
+    {
+        return "estimate".equalsIgnoreCase(count);
+    }
 }
@@ -24,6 +24,12 @@ public class TableDataInfo implements Serializable
     /** 消息内容 */
     private int msg;
 
+    /** 下一页的游标，游标分页时返回，没有下一页时为空 */
+    private String cursor;
+
+    /** 总记录数是否为按表统计信息估算的近似值 */
+    private boolean estimated;
+
     /**
      * 表格数据对象
      */
@@ -82,4 +88,24 @@ public class TableDataInfo implements Serializable
     {
         this.msg = msg;
     }
-}
\ No newline at end of file
+
+    public String getCursor()
+    {
+        return cursor;
+    }
+
+    public void setCursor(String cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    public boolean isEstimated()
+    {
+        return estimated;
+    }
+
+    public void setEstimated(boolean estimated)
+    {
+        this.estimated = estimated;
+    }
+}
@@ -1,6 +1,9 @@
 package com.ruoyi.framework.web.page;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import com.ruoyi.common.utils.ServletUtils;
+import com.ruoyi.common.utils.StringUtils;
 
 /**
  * 表格数据处理
@@ -29,6 +32,16 @@ public class TableSupport
      */
     public static final String IS_ASC = "isAsc";
 
+    /**
+     * 游标分页的游标
+     */
+    public static final String CURSOR = "cursor";
+
+    /**
+     * 是否查询总数
+     */
+    public static final String COUNT = "count";
+
     /**
      * 封装分页对象
      */
@@ -39,6 +52,8 @@ public class TableSupport
         pageDomain.setPageSize(ServletUtils.getParameterToInt(PAGE_SIZE));
         pageDomain.setOrderByColumn(ServletUtils.getParameter(ORDER_BY_COLUMN));
         pageDomain.setIsAsc(ServletUtils.getParameter(IS_ASC));
+        pageDomain.setCursor(ServletUtils.getParameter(CURSOR));
+        pageDomain.setCount(ServletUtils.getParameter(COUNT));
         return pageDomain;
     }
 
@@ -46,4 +61,35 @@ public class TableSupport
     {
         return getPageDomain();
     }
+
+    /**
+     * 生成游标，内容为上一页最后一条记录的主键
+     */
+    public static String encodeCursor(Long key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，为空或格式错误时返回null（从第一页开始）
+     */
+    public static Long decodeCursor(String cursor)
+    {
+        if (StringUtils.isEmpty(cursor))
+        {
+            return null;
+        }
+        try
+        {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
 }
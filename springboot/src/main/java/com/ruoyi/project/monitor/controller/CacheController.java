@@ -0,0 +1,72 @@
+package com.ruoyi.project.monitor.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import com.ruoyi.common.utils.ip.AddressUtils;
+import com.ruoyi.framework.aspectj.lang.annotation.Log;
+import com.ruoyi.framework.aspectj.lang.enums.BusinessType;
+import com.ruoyi.framework.interceptor.CountCacheInterceptor;
+import com.ruoyi.framework.manager.IpDatabaseManager;
+import com.ruoyi.framework.web.controller.BaseController;
+import com.ruoyi.framework.web.domain.AjaxResult;
+
+/**
+ * 缓存监控
+ * 
+ * @author ruoyi
+ */
+@RestController
+@RequestMapping("/monitor/cache")
+public class CacheController extends BaseController
+{
+    @Autowired
+    private IpDatabaseManager ipDatabaseManager;
+
+    @Autowired
+    private CountCacheInterceptor countCacheInterceptor;
+
+    /**
+     * 离线IP地址库信息
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
+    @GetMapping("/ipDatabase")
+    public AjaxResult ipDatabase()
+    {
+        return AjaxResult.success(ipDatabaseManager.getStats());
+    }
+
+    /**
+     * 远程地址查询的缓存和熔断信息
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
+    @GetMapping("/address")
+    public AjaxResult address()
+    {
+        return AjaxResult.success(AddressUtils.getStats());
+    }
+
+    /**
+     * 分页总数缓存信息
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
+    @GetMapping("/count")
+    public AjaxResult count()
+    {
+        return AjaxResult.success(countCacheInterceptor.getStats());
+    }
+
+    /**
+     * 重新加载离线IP地址库
+     */
+    @Log(title = "IP地址库", businessType = BusinessType.CLEAN)
+    @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
+    @DeleteMapping("/ipDatabase")
+    public AjaxResult reloadIpDatabase()
+    {
+        return toAjax(ipDatabaseManager.reload() ? 1 : 0);
+    }
+}
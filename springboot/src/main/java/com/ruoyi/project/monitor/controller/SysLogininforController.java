@@ -1,6 +1,7 @@
 package com.ruoyi.project.monitor.controller;
 
 import java.util.List;
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.ruoyi.common.utils.poi.ExcelUtil;
 import com.ruoyi.framework.aspectj.lang.annotation.Log;
 import com.ruoyi.framework.aspectj.lang.enums.BusinessType;
+import com.ruoyi.framework.manager.LoginLogWriter;
 import com.ruoyi.framework.web.controller.BaseController;
 import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.framework.web.page.TableDataInfo;
@@ -29,21 +31,40 @@ public class SysLogininforController extends BaseController {
     @Autowired
     private ISysLogininforService logininforService;
 
+    @Autowired
+    private LoginLogWriter loginLogWriter;
+
     @PreAuthorize("@ss.hasPermi('monitor:logininfor:list')")
     @GetMapping("/list")
     public TableDataInfo list(SysLogininfor logininfor) {
-        startPage();
+        startCursorPage(logininfor);
         List<SysLogininfor> list = logininforService.selectLogininforList(logininfor);
-        return getDataTable(list);
+        return getCursorDataTable(list, SysLogininfor::getInfoId);
+    }
+
+    /**
+     * 批量写入队列统计信息
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:logininfor:list')")
+    @GetMapping("/writer")
+    public AjaxResult writer() {
+        return AjaxResult.success(loginLogWriter.getStats());
     }
 
     @Log(title = "登陆日志", businessType = BusinessType.EXPORT)
     @PreAuthorize("@ss.hasPermi('monitor:logininfor:export')")
     @GetMapping("/export")
-    public AjaxResult export(SysLogininfor logininfor) {
-        List<SysLogininfor> list = logininforService.selectLogininforList(logininfor);
+    public void export(SysLogininfor logininfor, HttpServletResponse response) {
+        ExcelUtil<SysLogininfor> util = new ExcelUtil<SysLogininfor>(SysLogininfor.class);
+        util.exportExcel(response, "登陆日志", handler -> logininforService.selectLogininforList(logininfor, handler));
+    }
+
+    @Log(title = "登陆日志", businessType = BusinessType.EXPORT)
+    @PreAuthorize("@ss.hasPermi('monitor:logininfor:export')")
+    @GetMapping("/exportCsv")
+    public void exportCsv(SysLogininfor logininfor, HttpServletResponse response) {
         ExcelUtil<SysLogininfor> util = new ExcelUtil<SysLogininfor>(SysLogininfor.class);
-        return util.exportExcel(list, "登陆日志");
+        util.exportCsv(response, "登陆日志", handler -> logininforService.selectLogininforList(logininfor, handler));
     }
 
     @PreAuthorize("@ss.hasPermi('monitor:logininfor:remove')")
@@ -1,6 +1,8 @@
 package com.ruoyi.project.monitor.controller;
 
 import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,6 +13,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.ruoyi.common.utils.poi.ExcelUtil;
 import com.ruoyi.framework.aspectj.lang.annotation.Log;
 import com.ruoyi.framework.aspectj.lang.enums.BusinessType;
+import com.ruoyi.framework.manager.OperLogLimiter;
+import com.ruoyi.framework.manager.OperLogWriter;
 import com.ruoyi.framework.web.controller.BaseController;
 import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.framework.web.page.TableDataInfo;
@@ -29,23 +33,49 @@ public class SysOperlogController extends BaseController
     @Autowired
     private ISysOperLogService operLogService;
 
+    @Autowired
+    private OperLogWriter operLogWriter;
+
+    @Autowired
+    private OperLogLimiter operLogLimiter;
+
     @PreAuthorize("@ss.hasPermi('monitor:operlog:list')")
     @GetMapping("/list")
     public TableDataInfo list(SysOperLog operLog)
     {
-        startPage();
+        startCursorPage(operLog);
         List<SysOperLog> list = operLogService.selectOperLogList(operLog);
-        return getDataTable(list);
+        return getCursorDataTable(list, SysOperLog::getOperId);
+    }
+
+    /**
+     * 批量写入队列统计信息
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:operlog:list')")
+    @GetMapping("/writer")
+    public AjaxResult writer()
+    {
+        Map<String, Object> stats = operLogWriter.getStats();
+        stats.put("limiter", operLogLimiter.getStats());
+        return AjaxResult.success(stats);
     }
 
     @Log(title = "操作日志", businessType = BusinessType.EXPORT)
     @PreAuthorize("@ss.hasPermi('monitor:operlog:export')")
     @GetMapping("/export")
-    public AjaxResult export(SysOperLog operLog)
+    public void export(SysOperLog operLog, HttpServletResponse response)
+    {
+        ExcelUtil<SysOperLog> util = new ExcelUtil<SysOperLog>(SysOperLog.class);
+        util.exportExcel(response, "操作日志", handler -> operLogService.selectOperLogList(operLog, handler));
+    }
+
+    @Log(title = "操作日志", businessType = BusinessType.EXPORT)
+    @PreAuthorize("@ss.hasPermi('monitor:operlog:export')")
+    @GetMapping("/exportCsv")
+    public void exportCsv(SysOperLog operLog, HttpServletResponse response)
     {
-        List<SysOperLog> list = operLogService.selectOperLogList(operLog);
         ExcelUtil<SysOperLog> util = new ExcelUtil<SysOperLog>(SysOperLog.class);
-        return util.exportExcel(list, "操作日志");
+        util.exportCsv(response, "操作日志", handler -> operLogService.selectOperLogList(operLog, handler));
     }
 
     @PreAuthorize("@ss.hasPermi('monitor:operlog:remove')")
@@ -1,6 +1,7 @@
 package com.ruoyi.project.monitor.mapper;
 
 import java.util.List;
+import org.apache.ibatis.session.ResultHandler;
 import com.ruoyi.project.monitor.domain.SysLogininfor;
 
 /**
@@ -17,6 +18,14 @@ public interface SysLogininforMapper
      */
     public void insertLogininfor(SysLogininfor logininfor);
 
+    /**
+     * 批量新增系统登录日志
+     * 
+     * @param logininforList 访问日志列表
+     * @return 结果
+     */
+    public int batchInsertLogininfor(List<SysLogininfor> logininforList);
+
     /**
      * 查询系统登录日志集合
      * 
@@ -25,6 +34,14 @@ public interface SysLogininforMapper
      */
     public List<SysLogininfor> selectLogininforList(SysLogininfor logininfor);
 
+    /**
+     * 流式查询系统登录日志，逐行交给handler处理
+     * 
+     * @param logininfor 访问日志对象
+     * @param handler 结果处理
+     */
+    public void streamLogininforList(SysLogininfor logininfor, ResultHandler<SysLogininfor> handler);
+
     /**
      * 批量删除系统登录日志
      * 
@@ -0,0 +1,86 @@
+package com.ruoyi.project.monitor.mapper;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * 审计日志保留 数据层
+ * 表名和字段名来自配置文件，调用前需校验
+ * 
+ * @author ruoyi
+ */
+public interface SysRetentionMapper
+{
+    /**
+     * 查询表的分区，未分区的表返回空
+     * 
+     * @param table 表名
+     * @return 分区名称、上界（to_days值）、行数
+     */
+    public List<Map<String, Object>> selectPartitions(@Param("table") String table);
+
+    /**
+     * 查询最早的记录时间
+     * 
+     * @param table 表名
+     * @param column 时间字段
+     * @return 最早时间
+     */
+    public Date selectMinTime(@Param("table") String table, @Param("column") String column);
+
+    /**
+     * 从最大分区中拆出新的分区
+     * 
+     * @param table 表名
+     * @param maxPartition 最大分区名称
+     * @param partition 新分区名称
+     * @param lessThan 新分区上界（不含）
+     */
+    public void addPartition(@Param("table") String table, @Param("maxPartition") String maxPartition,
+            @Param("partition") String partition, @Param("lessThan") String lessThan);
+
+    /**
+     * 删除分区
+     * 
+     * @param table 表名
+     * @param partition 分区名称
+     */
+    public void dropPartition(@Param("table") String table, @Param("partition") String partition);
+
+    /**
+     * 流式读取分区中的数据
+     * 
+     * @param table 表名
+     * @param partition 分区名称
+     * @param handler 逐行处理
+     */
+    public void selectPartitionRows(@Param("table") String table, @Param("partition") String partition,
+            ResultHandler<Map<String, Object>> handler);
+
+    /**
+     * 流式读取时间范围内的数据
+     * 
+     * @param table 表名
+     * @param column 时间字段
+     * @param beginTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param handler 逐行处理
+     */
+    public void selectRangeRows(@Param("table") String table, @Param("column") String column,
+            @Param("beginTime") Date beginTime, @Param("endTime") Date endTime, ResultHandler<Map<String, Object>> handler);
+
+    /**
+     * 删除指定时间之前的数据
+     * 
+     * @param table 表名
+     * @param column 时间字段
+     * @param endTime 结束时间（不含）
+     * @param limit 最多删除行数
+     * @return 删除行数
+     */
+    public int deleteBefore(@Param("table") String table, @Param("column") String column,
+            @Param("endTime") Date endTime, @Param("limit") int limit);
+}
@@ -1,6 +1,7 @@
 package com.ruoyi.project.monitor.service;
 
 import java.util.List;
+import org.apache.ibatis.session.ResultHandler;
 import com.ruoyi.project.monitor.domain.SysOperLog;
 
 /**
@@ -17,6 +18,13 @@ public interface ISysOperLogService
      */
     public void insertOperlog(SysOperLog operLog);
 
+    /**
+     * 批量新增操作日志
+     * 
+     * @param operLogList 操作日志列表
+     */
+    public void insertOperlogBatch(List<SysOperLog> operLogList);
+
     /**
      * 查询系统操作日志集合
      * 
@@ -25,6 +33,14 @@ public interface ISysOperLogService
      */
     public List<SysOperLog> selectOperLogList(SysOperLog operLog);
 
+    /**
+     * 流式查询系统操作日志，用于导出
+     * 
+     * @param operLog 操作日志对象
+     * @param handler 结果处理
+     */
+    public void selectOperLogList(SysOperLog operLog, ResultHandler<SysOperLog> handler);
+
     /**
      * 批量删除系统操作日志
      * 
@@ -0,0 +1,18 @@
+package com.ruoyi.project.monitor.service;
+
+import java.util.Map;
+
+/**
+ * 审计日志保留 服务层
+ * 
+ * @author ruoyi
+ */
+public interface ISysRetentionService
+{
+    /**
+     * 按配置归档并清理过期的审计日志，已分区的表同时补建后续分区
+     * 
+     * @return 各表处理结果
+     */
+    public Map<String, Object> clean();
+}
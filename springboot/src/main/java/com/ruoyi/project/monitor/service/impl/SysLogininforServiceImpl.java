@@ -1,6 +1,7 @@
 package com.ruoyi.project.monitor.service.impl;
 
 import java.util.List;
+import org.apache.ibatis.session.ResultHandler;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -29,6 +30,19 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
         logininforMapper.insertLogininfor(logininfor);
     }
 
+    /**
+     * 批量新增系统登录日志
+     *
+     * @param logininforList 访问日志列表
+     */
+    @Override
+    public void insertLogininforBatch(List<SysLogininfor> logininforList) {
+        if (logininforList.isEmpty()) {
+            return;
+        }
+        logininforMapper.batchInsertLogininfor(logininforList);
+    }
+
     /**
      * 查询系统登录日志集合
      *
@@ -40,6 +54,17 @@ public class SysLogininforServiceImpl implements ISysLogininforService {
         return logininforMapper.selectLogininforList(logininfor);
     }
 
+    /**
+     * 流式查询系统登录日志，用于导出
+     *
+     * @param logininfor 访问日志对象
+     * @param handler    结果处理
+     */
+    @Override
+    public void selectLogininforList(SysLogininfor logininfor, ResultHandler<SysLogininfor> handler) {
+        logininforMapper.streamLogininforList(logininfor, handler);
+    }
+
     /**
      * 批量删除系统登录日志
      *
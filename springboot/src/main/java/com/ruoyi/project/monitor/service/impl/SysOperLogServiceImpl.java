@@ -1,6 +1,7 @@
 package com.ruoyi.project.monitor.service.impl;
 
 import java.util.List;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.ruoyi.project.monitor.domain.SysOperLog;
@@ -29,6 +30,21 @@ public class SysOperLogServiceImpl implements ISysOperLogService
         operLogMapper.insertOperlog(operLog);
     }
 
+    /**
+     * 批量新增操作日志
+     * 
+     * @param operLogList 操作日志列表
+     */
+    @Override
+    public void insertOperlogBatch(List<SysOperLog> operLogList)
+    {
+        if (operLogList.isEmpty())
+        {
+            return;
+        }
+        operLogMapper.batchInsertOperlog(operLogList);
+    }
+
     /**
      * 查询系统操作日志集合
      * 
@@ -41,6 +57,18 @@ public class SysOperLogServiceImpl implements ISysOperLogService
         return operLogMapper.selectOperLogList(operLog);
     }
 
+    /**
+     * 流式查询系统操作日志，用于导出
+     * 
+     * @param operLog 操作日志对象
+     * @param handler 结果处理
+     */
+    @Override
+    public void selectOperLogList(SysOperLog operLog, ResultHandler<SysOperLog> handler)
+    {
+        operLogMapper.streamOperLogList(operLog, handler);
+    }
+
     /**
      * 批量删除系统操作日志
      * 
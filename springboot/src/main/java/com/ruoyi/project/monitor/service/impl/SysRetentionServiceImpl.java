@@ -0,0 +1,329 @@
+package com.ruoyi.project.monitor.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import com.alibaba.fastjson.JSON;
+import com.ruoyi.common.exception.CustomException;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.config.RetentionConfig;
+import com.ruoyi.project.monitor.mapper.SysRetentionMapper;
+import com.ruoyi.project.monitor.service.ISysRetentionService;
+
+/**
+ * 审计日志保留 服务层处理
+ * 已分区的表先补建后续分区，再把整段过期的分区归档后删除；未分区的表按天归档后分批删除。
+ *
+ * @author ruoyi
+ */
+@Service
+public class SysRetentionServiceImpl implements ISysRetentionService
+{
+    private static final Logger log = LoggerFactory.getLogger(SysRetentionServiceImpl.class);
+
+    /** 表名、字段名只允许字母数字下划线 */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+");
+
+    /** to_days('1970-01-01') */
+    private static final long TO_DAYS_EPOCH = 719528L;
+
+    private static final String PARTITION_DAY = "day";
+
+    private static final String PARTITION_MONTH = "month";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private RetentionConfig retentionConfig;
+
+    @Autowired
+    private SysRetentionMapper retentionMapper;
+
+    /**
+     * 按配置清理所有表
+     *
+     * @return 各表处理结果
+     */
+    @Override
+    public Map<String, Object> clean()
+    {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Map.Entry<String, RetentionConfig.Table> entry : retentionConfig.getTables().entrySet())
+        {
+            String table = entry.getKey();
+            try
+            {
+                result.put(table, clean(table, entry.getValue()));
+            }
+            catch (Exception e)
+            {
+                log.error("清理审计日志失败 {}", table, e);
+                result.put(table, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Object> clean(String table, RetentionConfig.Table config) throws IOException
+    {
+        checkIdentifier(table);
+        checkIdentifier(config.getColumn());
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<Map<String, Object>> partitions = retentionMapper.selectPartitions(table);
+        if (!partitions.isEmpty())
+        {
+            int created = createPartitions(table, config, partitions);
+            result.put("created", created);
+            if (created > 0)
+            {
+                partitions = retentionMapper.selectPartitions(table);
+            }
+        }
+        if (config.getRetentionDays() <= 0)
+        {
+            return result;
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(config.getRetentionDays());
+        if (!partitions.isEmpty())
+        {
+            result.put("dropped", dropPartitions(table, config, partitions, cutoff));
+        }
+        else
+        {
+            result.put("deleted", deleteRows(table, config, cutoff));
+        }
+        return result;
+    }
+
+    /**
+     * 从最大分区拆出后续分区，保证当前时间之后还有precreate个分区
+     * 每次拆分都会重写最大分区里的数据，所以最后一个分区的上界落后时不逐天（月）补建：
+     * 保留期之前的数据合成一个分区，随后按过期分区归档删除；保留期内到当前的数据合成一个分区，整段过期后再删除；
+     * 之后才按天（月）创建，单次创建的分区数受maxCreatePartitions限制
+     */
+    private int createPartitions(String table, RetentionConfig.Table config, List<Map<String, Object>> partitions)
+    {
+        boolean month = PARTITION_MONTH.equals(config.getPartition());
+        if (!month && !PARTITION_DAY.equals(config.getPartition()))
+        {
+            return 0;
+        }
+        Map<String, Object> max = partitions.get(partitions.size() - 1);
+        if (!"MAXVALUE".equalsIgnoreCase(String.valueOf(max.get("lessThan"))) || partitions.size() < 2)
+        {
+            return 0;
+        }
+        String maxPartition = String.valueOf(max.get("partitionName"));
+        LocalDate bound = fromToDays(partitions.get(partitions.size() - 2).get("lessThan"));
+        LocalDate today = LocalDate.now();
+        LocalDate current = month ? today.withDayOfMonth(1) : today;
+        LocalDate start = config.getRetentionDays() > 0 ? today.minusDays(config.getRetentionDays()) : today;
+        if (month)
+        {
+            start = start.withDayOfMonth(1);
+        }
+        LocalDate target = month ? today.withDayOfMonth(1).plusMonths(config.getPrecreate() + 1)
+                : today.plusDays(config.getPrecreate() + 1);
+        int limit = Math.max(1, retentionConfig.getMaxCreatePartitions());
+        int created = 0;
+        while (bound.isBefore(target) && created < limit)
+        {
+            LocalDate next = month ? bound.withDayOfMonth(1).plusMonths(1) : bound.plusDays(1);
+            if (next.isBefore(start))
+            {
+                next = start;
+            }
+            else if (next.isBefore(current))
+            {
+                next = current;
+            }
+            String name = "p" + (month ? bound.format(MONTH_FORMAT) : bound.format(DAY_FORMAT));
+            retentionMapper.addPartition(table, maxPartition, name, next.toString());
+            log.info("创建分区 {}.{} < {}", table, name, next);
+            bound = next;
+            created++;
+        }
+        if (bound.isBefore(target))
+        {
+            log.warn("{} 本次已创建{}个分区，剩余分区在下次清理时继续创建", table, created);
+        }
+        return created;
+    }
+
+    /**
+     * 归档并删除上界不晚于截止日期的分区
+     */
+    private int dropPartitions(String table, RetentionConfig.Table config, List<Map<String, Object>> partitions,
+            LocalDate cutoff) throws IOException
+    {
+        int dropped = 0;
+        for (Map<String, Object> partition : partitions)
+        {
+            Object lessThan = partition.get("lessThan");
+            if ("MAXVALUE".equalsIgnoreCase(String.valueOf(lessThan)) || fromToDays(lessThan).isAfter(cutoff))
+            {
+                // 分区按上界顺序排列，之后的分区都未过期
+                break;
+            }
+            String name = String.valueOf(partition.get("partitionName"));
+            checkIdentifier(name);
+            if (isArchive(config))
+            {
+                File file = archiveFile(table, name);
+                long rows = archive(file, handler -> retentionMapper.selectPartitionRows(table, name, handler));
+                log.info("归档分区 {}.{} {}行 -> {}", table, name, rows, file);
+            }
+            retentionMapper.dropPartition(table, name);
+            log.info("删除分区 {}.{}", table, name);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * 按天归档后分批删除截止日期之前的数据
+     */
+    private long deleteRows(String table, RetentionConfig.Table config, LocalDate cutoff) throws IOException
+    {
+        String column = config.getColumn();
+        long deleted = 0;
+        if (isArchive(config))
+        {
+            Date minTime = retentionMapper.selectMinTime(table, column);
+            if (minTime == null)
+            {
+                return 0;
+            }
+            LocalDate day = minTime.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            while (day.isBefore(cutoff))
+            {
+                LocalDate next = day.plusDays(1);
+                Date begin = toDate(day);
+                Date end = toDate(next);
+                File file = archiveFile(table, day.format(DAY_FORMAT));
+                long rows = archive(file, handler -> retentionMapper.selectRangeRows(table, column, begin, end, handler));
+                if (rows == 0)
+                {
+                    file.delete();
+                }
+                deleted += deleteBefore(table, column, end);
+                day = next;
+            }
+            return deleted;
+        }
+        return deleteBefore(table, column, toDate(cutoff));
+    }
+
+    private long deleteBefore(String table, String column, Date end)
+    {
+        long deleted = 0;
+        int batchSize = Math.max(1, retentionConfig.getDeleteBatchSize());
+        int rows;
+        do
+        {
+            rows = retentionMapper.deleteBefore(table, column, end, batchSize);
+            deleted += rows;
+        }
+        while (rows >= batchSize);
+        return deleted;
+    }
+
+    /**
+     * 逐行写入gzip压缩的JSON Lines文件，写完后再改名，避免留下不完整的文件
+     */
+    private long archive(File file, RowSource source) throws IOException
+    {
+        File temp = new File(file.getPath() + ".tmp");
+        long[] rows = new long[1];
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(temp), 65536), StandardCharsets.UTF_8)))
+        {
+            IOException[] error = new IOException[1];
+            source.select(context -> {
+                if (error[0] != null)
+                {
+                    return;
+                }
+                try
+                {
+                    writer.write(JSON.toJSONStringWithDateFormat(context.getResultObject(), "yyyy-MM-dd HH:mm:ss"));
+                    writer.newLine();
+                    rows[0]++;
+                }
+                catch (IOException e)
+                {
+                    error[0] = e;
+                    context.stop();
+                }
+            });
+            if (error[0] != null)
+            {
+                throw error[0];
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return rows[0];
+    }
+
+    private File archiveFile(String table, String label)
+    {
+        File dir = new File(retentionConfig.getArchivePath(), table);
+        if (!dir.exists() && !dir.mkdirs())
+        {
+            throw new CustomException("无法创建归档目录：" + dir);
+        }
+        return new File(dir, table + "_" + label + ".jsonl.gz");
+    }
+
+    private boolean isArchive(RetentionConfig.Table config)
+    {
+        return config.isArchive() && StringUtils.isNotEmpty(retentionConfig.getArchivePath());
+    }
+
+    private void checkIdentifier(String name)
+    {
+        if (name == null || !IDENTIFIER.matcher(name).matches())
+        {
+            throw new CustomException("非法的表名或字段名：" + name);
+        }
+    }
+
+    private static LocalDate fromToDays(Object toDays)
+    {
+        return LocalDate.ofEpochDay(Long.parseLong(String.valueOf(toDays).trim()) - TO_DAYS_EPOCH);
+    }
+
+    private static Date toDate(LocalDate date)
+    {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * 数据来源
+     */
+    private interface RowSource
+    {
+        void select(ResultHandler<Map<String, Object>> handler);
+    }
+}
@@ -22,6 +22,7 @@ import com.ruoyi.framework.web.domain.AjaxResult;
 import com.ruoyi.framework.web.page.TableDataInfo;
 import com.ruoyi.project.system.domain.SysConfig;
 import com.ruoyi.project.system.service.ISysConfigService;
+import com.ruoyi.project.system.service.ISysSnapshotService;
 
 /**
  * 参数配置 信息操作处理
@@ -35,6 +36,9 @@ public class SysConfigController extends BaseController
     @Autowired
     private ISysConfigService configService;
 
+    @Autowired
+    private ISysSnapshotService snapshotService;
+
     /**
      * 获取参数配置列表
      */
@@ -118,4 +122,16 @@ public class SysConfigController extends BaseController
     {
         return toAjax(configService.deleteConfigByIds(configIds));
     }
+
+    /**
+     * 刷新参数快照
+     */
+    @PreAuthorize("@ss.hasPermi('system:config:remove')")
+    @Log(title = "参数管理", businessType = BusinessType.CLEAN)
+    @DeleteMapping("/refreshCache")
+    public AjaxResult refreshCache()
+    {
+        snapshotService.refreshConfig();
+        return AjaxResult.success(snapshotService.selectSnapshotInfo());
+    }
 }
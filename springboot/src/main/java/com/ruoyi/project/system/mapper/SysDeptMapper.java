@@ -106,4 +106,37 @@ public interface SysDeptMapper
      * @return 结果
      */
     public int deleteDeptById(Long deptId);
+
+    /**
+     * 新增部门的上下级关系
+     * 
+     * @param dept 部门信息
+     * @return 结果
+     */
+    public int insertDeptClosure(SysDept dept);
+
+    /**
+     * 删除部门及其下级部门与原上级部门的关系
+     * 
+     * @param deptId 部门ID
+     * @return 结果
+     */
+    public int deleteDeptClosureAncestors(Long deptId);
+
+    /**
+     * 新增部门及其下级部门与新上级部门的关系
+     * 
+     * @param deptId 部门ID
+     * @param parentId 新的上级部门ID
+     * @return 结果
+     */
+    public int insertDeptClosureAncestors(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 删除部门的上下级关系
+     * 
+     * @param deptId 部门ID
+     * @return 结果
+     */
+    public int deleteDeptClosureById(Long deptId);
 }
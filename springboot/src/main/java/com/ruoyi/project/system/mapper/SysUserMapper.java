@@ -1,6 +1,7 @@
 package com.ruoyi.project.system.mapper;
 
 import java.util.List;
+import org.apache.ibatis.session.ResultHandler;
 
 import org.apache.ibatis.annotations.Param;
 
@@ -21,6 +22,14 @@ public interface SysUserMapper
      */
     public List<SysUser> selectUserList(SysUser sysUser);
 
+    /**
+     * 流式查询用户列表，逐行交给handler处理
+     * 
+     * @param sysUser 用户信息
+     * @param handler 结果处理
+     */
+    public void streamUserList(SysUser sysUser, ResultHandler<SysUser> handler);
+
     /**
      * 通过用户名查询用户
      * 
@@ -29,6 +38,14 @@ public interface SysUserMapper
      */
     public SysUser selectUserByUserName(String userName);
 
+    /**
+     * 通过用户名批量查询用户编号
+     * 
+     * @param userNames 用户名列表
+     * @return 用户编号和用户名
+     */
+    public List<SysUser> selectUserIdsByUserNames(List<String> userNames);
+
     /**
      * 通过用户ID查询用户
      * 
@@ -53,6 +70,14 @@ public interface SysUserMapper
      */
     public int updateUser(SysUser user);
 
+    /**
+     * 批量新增用户信息
+     * 
+     * @param userList 用户信息列表
+     * @return 结果
+     */
+    public int batchInsertUser(List<SysUser> userList);
+
     /**
      * 修改用户头像
      * 
@@ -0,0 +1,55 @@
+package com.ruoyi.project.system.service;
+
+import java.util.List;
+import java.util.Map;
+import com.ruoyi.project.system.domain.SysDictData;
+
+/**
+ * 参数配置、字典数据内存快照 服务层
+ * 
+ * @author ruoyi
+ */
+public interface ISysSnapshotService
+{
+    /**
+     * 根据键名查询参数键值
+     * 
+     * @param configKey 参数键名
+     * @return 参数键值，不存在返回空字符串
+     */
+    public String selectConfigValue(String configKey);
+
+    /**
+     * 根据字典类型查询正常状态的字典数据
+     * 
+     * @param dictType 字典类型
+     * @return 字典数据集合（只读）
+     */
+    public List<SysDictData> selectDictDataByType(String dictType);
+
+    /**
+     * 根据字典类型和字典键值查询字典标签
+     * 
+     * @param dictType 字典类型
+     * @param dictValue 字典键值
+     * @return 字典标签
+     */
+    public String selectDictLabel(String dictType, String dictValue);
+
+    /**
+     * 重新加载参数配置快照，并通知其它节点
+     */
+    public void refreshConfig();
+
+    /**
+     * 重新加载字典数据快照，并通知其它节点
+     */
+    public void refreshDict();
+
+    /**
+     * 快照版本信息
+     * 
+     * @return 版本号及加载时间
+     */
+    public Map<String, Object> selectSnapshotInfo();
+}
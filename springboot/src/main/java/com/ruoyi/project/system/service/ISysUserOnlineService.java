@@ -1,5 +1,6 @@
 package com.ruoyi.project.system.service;
 
+import java.util.List;
 import com.ruoyi.framework.security.LoginUser;
 import com.ruoyi.project.monitor.domain.SysUserOnline;
 
@@ -10,6 +11,17 @@ import com.ruoyi.project.monitor.domain.SysUserOnline;
  */
 public interface ISysUserOnlineService
 {
+    /**
+     * 查询在线用户列表，按在线用户索引分页，不扫描全部令牌
+     * 
+     * @param ipaddr 登录地址
+     * @param userName 用户名称
+     * @param pageNum 当前页码，为空时返回全部
+     * @param pageSize 每页条数，为空时返回全部
+     * @return 在线用户集合（分页时为带总数的Page）
+     */
+    public List<SysUserOnline> selectOnlineList(String ipaddr, String userName, Integer pageNum, Integer pageSize);
+
     /**
      * 通过登录地址查询信息
      * 
@@ -1,6 +1,8 @@
 package com.ruoyi.project.system.service;
 
+import java.io.InputStream;
 import java.util.List;
+import org.apache.ibatis.session.ResultHandler;
 import com.ruoyi.project.system.domain.SysUser;
 
 /**
@@ -18,6 +20,14 @@ public interface ISysUserService
      */
     public List<SysUser> selectUserList(SysUser user);
 
+    /**
+     * 流式查询用户列表，用于导出
+     * 
+     * @param user 用户信息
+     * @param handler 结果处理
+     */
+    public void selectUserList(SysUser user, ResultHandler<SysUser> handler);
+
     /**
      * 通过用户名查询用户
      * 
@@ -164,4 +174,14 @@ public interface ISysUserService
      * @return 结果
      */
     public String importUser(List<SysUser> userList, Boolean isUpdateSupport, String operName);
+
+    /**
+     * 从Excel分批导入用户数据
+     * 
+     * @param is Excel输入流
+     * @param isUpdateSupport 是否更新支持，如果已存在，则进行更新数据
+     * @param operName 操作用户
+     * @return 结果
+     */
+    public String importUser(InputStream is, Boolean isUpdateSupport, String operName) throws Exception;
 }
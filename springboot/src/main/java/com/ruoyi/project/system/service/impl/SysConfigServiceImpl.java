@@ -8,6 +8,7 @@ import com.ruoyi.common.utils.StringUtils;
 import com.ruoyi.project.system.domain.SysConfig;
 import com.ruoyi.project.system.mapper.SysConfigMapper;
 import com.ruoyi.project.system.service.ISysConfigService;
+import com.ruoyi.project.system.service.ISysSnapshotService;
 
 /**
  * 参数配置 服务层实现
@@ -20,6 +21,9 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Autowired
     private SysConfigMapper configMapper;
 
+    @Autowired
+    private ISysSnapshotService snapshotService;
+
     /**
      * 查询参数配置信息
      * 
@@ -43,10 +47,7 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public String selectConfigByKey(String configKey)
     {
-        SysConfig config = new SysConfig();
-        config.setConfigKey(configKey);
-        SysConfig retConfig = configMapper.selectConfig(config);
-        return StringUtils.isNotNull(retConfig) ? retConfig.getConfigValue() : "";
+        return snapshotService.selectConfigValue(configKey);
     }
 
     /**
@@ -70,7 +71,12 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public int insertConfig(SysConfig config)
     {
-        return configMapper.insertConfig(config);
+        int rows = configMapper.insertConfig(config);
+        if (rows > 0)
+        {
+            snapshotService.refreshConfig();
+        }
+        return rows;
     }
 
     /**
@@ -82,7 +88,12 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public int updateConfig(SysConfig config)
     {
-        return configMapper.updateConfig(config);
+        int rows = configMapper.updateConfig(config);
+        if (rows > 0)
+        {
+            snapshotService.refreshConfig();
+        }
+        return rows;
     }
 
     /**
@@ -94,7 +105,12 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public int deleteConfigById(Long configId)
     {
-        return configMapper.deleteConfigById(configId);
+        int rows = configMapper.deleteConfigById(configId);
+        if (rows > 0)
+        {
+            snapshotService.refreshConfig();
+        }
+        return rows;
     }
 
     /**
@@ -106,7 +122,12 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public int deleteConfigByIds(Long[] configIds)
     {
-        return configMapper.deleteConfigByIds(configIds);
+        int rows = configMapper.deleteConfigByIds(configIds);
+        if (rows > 0)
+        {
+            snapshotService.refreshConfig();
+        }
+        return rows;
     }
 
     /**
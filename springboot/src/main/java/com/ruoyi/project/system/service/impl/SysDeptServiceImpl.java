@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.ruoyi.common.constant.UserConstants;
 import com.ruoyi.common.exception.CustomException;
 import com.ruoyi.common.utils.StringUtils;
@@ -146,6 +147,7 @@ public class SysDeptServiceImpl implements ISysDeptService {
      * @return 结果
      */
     @Override
+    @Transactional
     public int insertDept(SysDept dept) {
         SysDept info = deptMapper.selectDeptById(dept.getParentId());
         // 如果父节点不为正常状态,则不允许新增子节点
@@ -153,7 +155,9 @@ public class SysDeptServiceImpl implements ISysDeptService {
             throw new CustomException("部门停用，不允许新增");
         }
         dept.setAncestors(info.getAncestors() + "," + dept.getParentId());
-        return deptMapper.insertDept(dept);
+        int rows = deptMapper.insertDept(dept);
+        deptMapper.insertDeptClosure(dept);
+        return rows;
     }
 
     /**
@@ -163,14 +167,23 @@ public class SysDeptServiceImpl implements ISysDeptService {
      * @return 结果
      */
     @Override
+    @Transactional
     public int updateDept(SysDept dept) {
         SysDept newParentDept = deptMapper.selectDeptById(dept.getParentId());
         SysDept oldDept = deptMapper.selectDeptById(dept.getDeptId());
         if (StringUtils.isNotNull(newParentDept) && StringUtils.isNotNull(oldDept)) {
+            if (("," + newParentDept.getAncestors() + ",").contains("," + dept.getDeptId() + ",")) {
+                throw new CustomException("修改部门失败，上级部门不能是自己的下级部门");
+            }
             String newAncestors = newParentDept.getAncestors() + "," + newParentDept.getDeptId();
             String oldAncestors = oldDept.getAncestors();
             dept.setAncestors(newAncestors);
             updateDeptChildren(dept.getDeptId(), newAncestors, oldAncestors);
+            if (!newParentDept.getDeptId().equals(oldDept.getParentId())) {
+                // 上级部门变更时，整个子树改挂到新的上级部门下
+                deptMapper.deleteDeptClosureAncestors(dept.getDeptId());
+                deptMapper.insertDeptClosureAncestors(dept.getDeptId(), newParentDept.getDeptId());
+            }
         }
         int result = deptMapper.updateDept(dept);
         if (UserConstants.DEPT_NORMAL.equals(dept.getStatus())) {
@@ -216,7 +229,9 @@ public class SysDeptServiceImpl implements ISysDeptService {
      * @return 结果
      */
     @Override
+    @Transactional
     public int deleteDeptById(Long deptId) {
+        deptMapper.deleteDeptClosureById(deptId);
         return deptMapper.deleteDeptById(deptId);
     }
 
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 import com.ruoyi.project.system.domain.SysDictData;
 import com.ruoyi.project.system.mapper.SysDictDataMapper;
 import com.ruoyi.project.system.service.ISysDictDataService;
+import com.ruoyi.project.system.service.ISysSnapshotService;
 
 /**
  * 字典 业务层处理
@@ -18,6 +19,9 @@ public class SysDictDataServiceImpl implements ISysDictDataService
     @Autowired
     private SysDictDataMapper dictDataMapper;
 
+    @Autowired
+    private ISysSnapshotService snapshotService;
+
     /**
      * 根据条件分页查询字典数据
      * 
@@ -39,7 +43,7 @@ public class SysDictDataServiceImpl implements ISysDictDataService
     @Override
     public List<SysDictData> selectDictDataByType(String dictType)
     {
-        return dictDataMapper.selectDictDataByType(dictType);
+        return snapshotService.selectDictDataByType(dictType);
     }
 
     /**
@@ -52,7 +56,7 @@ public class SysDictDataServiceImpl implements ISysDictDataService
     @Override
     public String selectDictLabel(String dictType, String dictValue)
     {
-        return dictDataMapper.selectDictLabel(dictType, dictValue);
+        return snapshotService.selectDictLabel(dictType, dictValue);
     }
 
     /**
@@ -76,7 +80,12 @@ public class SysDictDataServiceImpl implements ISysDictDataService
     @Override
     public int deleteDictDataById(Long dictCode)
     {
-        return dictDataMapper.deleteDictDataById(dictCode);
+        int rows = dictDataMapper.deleteDictDataById(dictCode);
+        if (rows > 0)
+        {
+            snapshotService.refreshDict();
+        }
+        return rows;
     }
 
     /**
@@ -87,7 +96,12 @@ public class SysDictDataServiceImpl implements ISysDictDataService
      */
     public int deleteDictDataByIds(Long[] dictCodes)
     {
-        return dictDataMapper.deleteDictDataByIds(dictCodes);
+        int rows = dictDataMapper.deleteDictDataByIds(dictCodes);
+        if (rows > 0)
+        {
+            snapshotService.refreshDict();
+        }
+        return rows;
     }
 
     /**
@@ -99,7 +113,12 @@ public class SysDictDataServiceImpl implements ISysDictDataService
     @Override
     public int insertDictData(SysDictData dictData)
     {
-        return dictDataMapper.insertDictData(dictData);
+        int rows = dictDataMapper.insertDictData(dictData);
+        if (rows > 0)
+        {
+            snapshotService.refreshDict();
+        }
+        return rows;
     }
 
     /**
@@ -111,6 +130,11 @@ public class SysDictDataServiceImpl implements ISysDictDataService
     @Override
     public int updateDictData(SysDictData dictData)
     {
-        return dictDataMapper.updateDictData(dictData);
+        int rows = dictDataMapper.updateDictData(dictData);
+        if (rows > 0)
+        {
+            snapshotService.refreshDict();
+        }
+        return rows;
     }
 }
@@ -10,6 +10,7 @@ import com.ruoyi.project.system.domain.SysDictType;
 import com.ruoyi.project.system.mapper.SysDictDataMapper;
 import com.ruoyi.project.system.mapper.SysDictTypeMapper;
 import com.ruoyi.project.system.service.ISysDictTypeService;
+import com.ruoyi.project.system.service.ISysSnapshotService;
 
 /**
  * 字典 业务层处理
@@ -25,6 +26,9 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService
     @Autowired
     private SysDictDataMapper dictDataMapper;
 
+    @Autowired
+    private ISysSnapshotService snapshotService;
+
     /**
      * 根据条件分页查询字典类型
      * 
@@ -118,6 +122,7 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService
     {
         SysDictType oldDict = dictTypeMapper.selectDictTypeById(dictType.getDictId());
         dictDataMapper.updateDictDataType(oldDict.getDictType(), dictType.getDictType());
+        snapshotService.refreshDict();
         return dictTypeMapper.updateDictType(dictType);
     }
 
@@ -0,0 +1,274 @@
+package com.ruoyi.project.system.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.common.constant.UserConstants;
+import com.ruoyi.common.utils.IdUtils;
+import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.project.system.domain.SysConfig;
+import com.ruoyi.project.system.domain.SysDictData;
+import com.ruoyi.project.system.mapper.SysConfigMapper;
+import com.ruoyi.project.system.mapper.SysDictDataMapper;
+import com.ruoyi.project.system.service.ISysSnapshotService;
+
+/**
+ * 参数配置、字典数据内存快照 服务层处理
+ * 启动时全量加载成不可变快照，读操作不再访问数据库；数据变更后整体重建并原子替换，
+ * 通过redis频道通知其它节点重新加载。
+ * 
+ * @author ruoyi
+ */
+@Service
+public class SysSnapshotServiceImpl implements ISysSnapshotService
+{
+    private static final Logger log = LoggerFactory.getLogger(SysSnapshotServiceImpl.class);
+
+    private static final String CONFIG = "config";
+
+    private static final String DICT = "dict";
+
+    @Autowired
+    private SysConfigMapper configMapper;
+
+    @Autowired
+    private SysDictDataMapper dictDataMapper;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    /** 当前节点标识，忽略自己发出的通知 */
+    private final String nodeId = IdUtils.fastSimpleUUID();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile ConfigSnapshot configSnapshot = new ConfigSnapshot(0, Collections.<String, String>emptyMap());
+
+    private volatile DictSnapshot dictSnapshot = new DictSnapshot(0,
+            Collections.<String, List<SysDictData>>emptyMap(), Collections.<String, Map<String, String>>emptyMap());
+
+    /**
+     * 项目启动时加载快照，并订阅其它节点的变更通知
+     */
+    @PostConstruct
+    public void init()
+    {
+        loadConfig();
+        loadDict();
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Object body = redisCache.redisTemplate.getValueSerializer().deserialize(message.getBody());
+            onChanged(StringUtils.isNull(body) ? null : body.toString());
+        }, new ChannelTopic(Constants.SNAPSHOT_TOPIC));
+    }
+
+    @Override
+    public String selectConfigValue(String configKey)
+    {
+        String value = configSnapshot.values.get(configKey);
+        return StringUtils.isNotNull(value) ? value : "";
+    }
+
+    @Override
+    public List<SysDictData> selectDictDataByType(String dictType)
+    {
+        List<SysDictData> dictDatas = dictSnapshot.dataByType.get(dictType);
+        return StringUtils.isNotNull(dictDatas) ? dictDatas : Collections.<SysDictData>emptyList();
+    }
+
+    @Override
+    public String selectDictLabel(String dictType, String dictValue)
+    {
+        Map<String, String> labels = dictSnapshot.labelByType.get(dictType);
+        return StringUtils.isNotNull(labels) ? labels.get(dictValue) : null;
+    }
+
+    @Override
+    public void refreshConfig()
+    {
+        afterCommit(CONFIG);
+    }
+
+    @Override
+    public void refreshDict()
+    {
+        afterCommit(DICT);
+    }
+
+    @Override
+    public Map<String, Object> selectSnapshotInfo()
+    {
+        ConfigSnapshot config = configSnapshot;
+        DictSnapshot dict = dictSnapshot;
+        Map<String, Object> info = new LinkedHashMap<String, Object>();
+        info.put("configVersion", config.version);
+        info.put("configSize", config.values.size());
+        info.put("dictVersion", dict.version);
+        info.put("dictTypeSize", dict.labelByType.size());
+        return info;
+    }
+
+    /**
+     * 在事务提交后再重新加载并通知，避免读到未提交或被回滚的数据
+     */
+    private void afterCommit(final String type)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    reload(type);
+                }
+            });
+        }
+        else
+        {
+            reload(type);
+        }
+    }
+
+    private void reload(String type)
+    {
+        if (CONFIG.equals(type))
+        {
+            loadConfig();
+        }
+        else
+        {
+            loadDict();
+        }
+        redisCache.publish(Constants.SNAPSHOT_TOPIC, nodeId + ":" + type);
+    }
+
+    private void onChanged(String message)
+    {
+        int index = StringUtils.isEmpty(message) ? -1 : message.indexOf(':');
+        if (index <= 0 || nodeId.equals(message.substring(0, index)))
+        {
+            return;
+        }
+        try
+        {
+            if (CONFIG.equals(message.substring(index + 1)))
+            {
+                loadConfig();
+            }
+            else
+            {
+                loadDict();
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("重新加载快照异常", e);
+        }
+    }
+
+    private synchronized void loadConfig()
+    {
+        Map<String, String> values = new HashMap<String, String>();
+        for (SysConfig config : configMapper.selectConfigList(new SysConfig()))
+        {
+            values.put(config.getConfigKey(), config.getConfigValue());
+        }
+        configSnapshot = new ConfigSnapshot(version.incrementAndGet(), Collections.unmodifiableMap(values));
+    }
+
+    private synchronized void loadDict()
+    {
+        Map<String, List<SysDictData>> dataByType = new HashMap<String, List<SysDictData>>();
+        Map<String, Map<String, String>> labelByType = new HashMap<String, Map<String, String>>();
+        for (SysDictData data : dictDataMapper.selectDictDataList(new SysDictData()))
+        {
+            Map<String, String> labels = labelByType.get(data.getDictType());
+            if (labels == null)
+            {
+                labels = new HashMap<String, String>();
+                labelByType.put(data.getDictType(), labels);
+            }
+            labels.put(data.getDictValue(), data.getDictLabel());
+            if (UserConstants.DICT_NORMAL.equals(data.getStatus()))
+            {
+                List<SysDictData> list = dataByType.get(data.getDictType());
+                if (list == null)
+                {
+                    list = new ArrayList<SysDictData>();
+                    dataByType.put(data.getDictType(), list);
+                }
+                list.add(data);
+            }
+        }
+        Comparator<SysDictData> bySort = Comparator.comparing(SysDictData::getDictSort,
+                Comparator.nullsLast(Comparator.naturalOrder()));
+        for (Map.Entry<String, List<SysDictData>> entry : dataByType.entrySet())
+        {
+            entry.getValue().sort(bySort);
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        for (Map.Entry<String, Map<String, String>> entry : labelByType.entrySet())
+        {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+        dictSnapshot = new DictSnapshot(version.incrementAndGet(), Collections.unmodifiableMap(dataByType),
+                Collections.unmodifiableMap(labelByType));
+    }
+
+    /**
+     * 参数配置快照
+     */
+    private static final class ConfigSnapshot
+    {
+        private final long version;
+
+        private final Map<String, String> values;
+
+        private ConfigSnapshot(long version, Map<String, String> values)
+        {
+            this.version = version;
+            this.values = values;
+        }
+    }
+
+    /**
+     * 字典数据快照
+     */
+    private static final class DictSnapshot
+    {
+        private final long version;
+
+        /** 字典类型 -> 正常状态的字典数据（按排序） */
+        private final Map<String, List<SysDictData>> dataByType;
+
+        /** 字典类型 -> 字典键值 -> 字典标签 */
+        private final Map<String, Map<String, String>> labelByType;
+
+        private DictSnapshot(long version, Map<String, List<SysDictData>> dataByType,
+                Map<String, Map<String, String>> labelByType)
+        {
+            this.version = version;
+            this.dataByType = dataByType;
+            this.labelByType = labelByType;
+        }
+    }
+}
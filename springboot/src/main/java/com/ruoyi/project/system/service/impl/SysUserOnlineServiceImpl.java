@@ -1,8 +1,17 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import com.github.pagehelper.Page;
+import com.ruoyi.common.constant.Constants;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.framework.redis.RedisCache;
 import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.framework.security.service.LoginUserRegistry;
+import com.ruoyi.framework.security.service.TokenService;
 import com.ruoyi.project.monitor.domain.SysUserOnline;
 import com.ruoyi.project.system.service.ISysUserOnlineService;
 
@@ -14,6 +23,102 @@ import com.ruoyi.project.system.service.ISysUserOnlineService;
 @Service
 public class SysUserOnlineServiceImpl implements ISysUserOnlineService
 {
+    @Autowired
+    private LoginUserRegistry loginUserRegistry;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    /**
+     * 查询在线用户列表
+     * 无查询条件时直接按索引分页；有查询条件时取用户名称/登录地址索引的交集，一次批量获取后再分页
+     * 两种情况都按过期时间倒序（最近活跃的在前）
+     * 
+     * @param ipaddr 登录地址
+     * @param userName 用户名称
+     * @param pageNum 当前页码
+     * @param pageSize 每页条数
+     * @return 在线用户集合
+     */
+    @Override
+    public List<SysUserOnline> selectOnlineList(String ipaddr, String userName, Integer pageNum, Integer pageSize)
+    {
+        loginUserRegistry.removeExpired();
+        boolean paged = StringUtils.isNotNull(pageNum) && StringUtils.isNotNull(pageSize) && pageNum > 0 && pageSize > 0;
+        List<SysUserOnline> rows = new ArrayList<SysUserOnline>();
+        long total;
+        if (StringUtils.isEmpty(ipaddr) && StringUtils.isEmpty(userName))
+        {
+            List<String> tokens = paged ? loginUserRegistry.selectTokens((long) (pageNum - 1) * pageSize, pageSize)
+                    : loginUserRegistry.selectTokens(0, 0);
+            List<LoginUser> users = selectLoginUsers(tokens, ipaddr, userName);
+            for (LoginUser user : users)
+            {
+                rows.add(loginUserToUserOnline(user));
+            }
+            // 过期清理和本页失效uuid的移除都已完成，计数时也只统计未过期的成员
+            total = paged ? loginUserRegistry.count() : rows.size();
+        }
+        else
+        {
+            List<LoginUser> users = selectLoginUsers(loginUserRegistry.selectTokens(ipaddr, userName), ipaddr, userName);
+            // 与索引的顺序一致：按过期时间倒序，相同时按uuid倒序
+            users.sort((a, b) -> {
+                int c = Long.compare(b.getExpireTime(), a.getExpireTime());
+                return c != 0 ? c : b.getToken().compareTo(a.getToken());
+            });
+            total = users.size();
+            int from = paged ? Math.min((pageNum - 1) * pageSize, users.size()) : 0;
+            int to = paged ? Math.min(from + pageSize, users.size()) : users.size();
+            for (LoginUser user : users.subList(from, to))
+            {
+                rows.add(loginUserToUserOnline(user));
+            }
+        }
+        if (!paged)
+        {
+            return rows;
+        }
+        Page<SysUserOnline> page = new Page<SysUserOnline>(pageNum, pageSize);
+        page.setTotal(total);
+        page.addAll(rows);
+        return page;
+    }
+
+    /**
+     * 批量获取登录信息和续期记录，已失效的uuid从索引中移除
+     */
+    private List<LoginUser> selectLoginUsers(Collection<String> tokens, String ipaddr, String userName)
+    {
+        List<String> keys = new ArrayList<String>(tokens.size() * 2);
+        for (String token : tokens)
+        {
+            keys.add(Constants.LOGIN_TOKEN_KEY + token);
+            keys.add(Constants.LOGIN_TOKEN_EXPIRE_KEY + token);
+        }
+        List<Object> values = redisCache.multiGet(keys);
+        List<LoginUser> users = new ArrayList<LoginUser>(tokens.size());
+        List<String> stale = new ArrayList<String>();
+        int i = 0;
+        for (String token : tokens)
+        {
+            LoginUser user = (LoginUser) values.get(i++);
+            Object times = values.get(i++);
+            if (StringUtils.isNull(user) || StringUtils.isNull(user.getUser()))
+            {
+                stale.add(token);
+            }
+            else
+            {
+                // 只续期不重写时，登录信息里的登录时间停留在上次整体写入时
+                TokenService.mergeRefreshTimes(user, StringUtils.isNull(times) ? null : times.toString());
+                users.add(user);
+            }
+        }
+        loginUserRegistry.removeStale(ipaddr, userName, stale);
+        return users;
+    }
+
     /**
      * 通过登录地址查询信息
      * 
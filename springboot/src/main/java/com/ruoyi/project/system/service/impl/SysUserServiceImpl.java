@@ -1,17 +1,27 @@
 package com.ruoyi.project.system.service.impl;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.ibatis.session.ResultHandler;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.ruoyi.common.constant.UserConstants;
 import com.ruoyi.common.exception.CustomException;
 import com.ruoyi.common.utils.SecurityUtils;
 import com.ruoyi.common.utils.StringUtils;
+import com.ruoyi.common.utils.poi.ExcelUtil;
 import com.ruoyi.framework.aspectj.lang.annotation.DataScope;
 import com.ruoyi.project.system.domain.SysPost;
 import com.ruoyi.project.system.domain.SysRole;
@@ -35,6 +45,16 @@ import com.ruoyi.project.system.service.ISysUserService;
 public class SysUserServiceImpl implements ISysUserService {
     private static final Logger log = LoggerFactory.getLogger(SysUserServiceImpl.class);
 
+    /**
+     * 导入时每批（每个事务）的用户数
+     */
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    /**
+     * 导入结果中最多列出的成功明细条数，失败的明细全部列出
+     */
+    private static final int IMPORT_SUCCESS_DETAIL = 1000;
+
     @Autowired
     private SysUserMapper userMapper;
 
@@ -53,6 +73,9 @@ public class SysUserServiceImpl implements ISysUserService {
     @Autowired
     private ISysConfigService configService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * 根据条件分页查询用户列表
      *
@@ -65,6 +88,18 @@ public class SysUserServiceImpl implements ISysUserService {
         return userMapper.selectUserList(user);
     }
 
+    /**
+     * 流式查询用户列表，用于导出
+     *
+     * @param user    用户信息
+     * @param handler 结果处理
+     */
+    @Override
+    @DataScope(deptAlias = "d", userAlias = "u")
+    public void selectUserList(SysUser user, ResultHandler<SysUser> handler) {
+        userMapper.streamUserList(user, handler);
+    }
+
     /**
      * 通过用户名查询用户
      *
@@ -363,44 +398,255 @@ public class SysUserServiceImpl implements ISysUserService {
         if (StringUtils.isNull(userList) || userList.size() == 0) {
             throw new CustomException("导入用户数据不能为空！");
         }
-        int successNum = 0;
-        int failureNum = 0;
-        StringBuilder successMsg = new StringBuilder();
-        StringBuilder failureMsg = new StringBuilder();
-        String password = configService.selectConfigByKey("sys.user.initPassword");
-        for (SysUser user : userList) {
-            try {
-                // 验证是否存在这个用户
-                SysUser u = userMapper.selectUserByUserName(user.getUserName());
-                if (StringUtils.isNull(u)) {
-                    user.setPassword(SecurityUtils.encryptPassword(password));
+        UserImporter importer = new UserImporter(isUpdateSupport, operName);
+        for (int i = 0; i < userList.size(); i += IMPORT_BATCH_SIZE) {
+            importer.importBatch(userList.subList(i, Math.min(i + IMPORT_BATCH_SIZE, userList.size())));
+        }
+        return importer.getMessage();
+    }
+
+    /**
+     * 从Excel分批导入用户数据，边读取边导入
+     *
+     * @param is              Excel输入流
+     * @param isUpdateSupport 是否更新支持，如果已存在，则进行更新数据
+     * @param operName        操作用户
+     * @return 结果
+     */
+    @Override
+    public String importUser(InputStream is, Boolean isUpdateSupport, String operName) throws Exception {
+        UserImporter importer = new UserImporter(isUpdateSupport, operName);
+        ExcelUtil<SysUser> util = new ExcelUtil<SysUser>(SysUser.class);
+        util.importExcel(StringUtils.EMPTY, is, IMPORT_BATCH_SIZE, importer::importBatch);
+        if (importer.total == 0) {
+            throw new CustomException("导入用户数据不能为空！");
+        }
+        return importer.getMessage();
+    }
+
+    /**
+     * 批量新增用户与角色、岗位的关联
+     */
+    private void batchUserRolePost(List<SysUser> users) {
+        List<SysUserRole> userRoles = new ArrayList<>();
+        List<SysUserPost> userPosts = new ArrayList<>();
+        for (SysUser user : users) {
+            if (StringUtils.isNotNull(user.getRoleIds())) {
+                for (Long roleId : user.getRoleIds()) {
+                    SysUserRole ur = new SysUserRole();
+                    ur.setUserId(user.getUserId());
+                    ur.setRoleId(roleId);
+                    userRoles.add(ur);
+                }
+            }
+            if (StringUtils.isNotNull(user.getPostIds())) {
+                for (Long postId : user.getPostIds()) {
+                    SysUserPost up = new SysUserPost();
+                    up.setUserId(user.getUserId());
+                    up.setPostId(postId);
+                    userPosts.add(up);
+                }
+            }
+        }
+        if (userRoles.size() > 0) {
+            userRoleMapper.batchUserRole(userRoles);
+        }
+        if (userPosts.size() > 0) {
+            userPostMapper.batchUserPost(userPosts);
+        }
+    }
+
+    /**
+     * 用户批量导入
+     * 每批先一次查出已存在的账号，新增的用户用一条多行insert写入，每批一个事务；
+     * 整批失败时回滚后逐条重试，保留每一行的错误信息。
+     */
+    private final class UserImporter {
+        private final boolean updateSupport;
+
+        private final String operName;
+
+        /**
+         * 加密后的初始密码，所有新增用户相同，只加密一次
+         */
+        private final String password;
+
+        private final TransactionTemplate transactionTemplate;
+
+        /**
+         * 本次导入已新增的账号，文件中重复的账号按已存在处理
+         */
+        private final Map<String, Long> imported = new HashMap<>();
+
+        private final StringBuilder successMsg = new StringBuilder();
+
+        private final StringBuilder failureMsg = new StringBuilder();
+
+        private int total;
+
+        private int successNum;
+
+        private int failureNum;
+
+        private UserImporter(Boolean updateSupport, String operName) {
+            this.updateSupport = Boolean.TRUE.equals(updateSupport);
+            this.operName = operName;
+            this.password = SecurityUtils.encryptPassword(configService.selectConfigByKey("sys.user.initPassword"));
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+        }
+
+        private void importBatch(List<SysUser> users) {
+            total += users.size();
+            Map<String, Long> userIds = selectUserIds(users);
+            // 按行的顺序记录待保存的用户，新增的账号先占位，保存后才有用户编号
+            List<SysUser> rows = new ArrayList<>();
+            Set<SysUser> inserts = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (SysUser user : users) {
+                String userName = user.getUserName();
+                if (StringUtils.isEmpty(userName)) {
+                    failure(user, "导入失败：账号不能为空");
+                } else if (!userIds.containsKey(userName)) {
+                    user.setPassword(password);
                     user.setCreateBy(operName);
-                    this.insertUser(user);
-                    successNum++;
-                    successMsg.append("<br/>" + successNum + "、账号 " + user.getUserName() + " 导入成功");
-                } else if (isUpdateSupport) {
+                    userIds.put(userName, null);
+                    inserts.add(user);
+                    rows.add(user);
+                } else if (updateSupport) {
                     user.setUpdateBy(operName);
-                    this.updateUser(user);
-                    successNum++;
-                    successMsg.append("<br/>" + successNum + "、账号 " + user.getUserName() + " 更新成功");
+                    rows.add(user);
                 } else {
-                    failureNum++;
-                    failureMsg.append("<br/>" + failureNum + "、账号 " + user.getUserName() + " 已存在");
+                    failure(user, "已存在");
+                }
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                save(rows, inserts, userIds);
+                for (SysUser user : rows) {
+                    success(user, inserts.contains(user));
                 }
             } catch (Exception e) {
-                failureNum++;
-                String msg = "<br/>" + failureNum + "、账号 " + user.getUserName() + " 导入失败：";
-                failureMsg.append(msg + e.getMessage());
-                log.error(msg, e);
+                log.warn("批量导入用户失败，逐条重试：{}", e.getMessage());
+                for (SysUser user : rows) {
+                    boolean insert = inserts.contains(user);
+                    if (insert) {
+                        user.setUserId(null);
+                        userIds.put(user.getUserName(), null);
+                    }
+                    try {
+                        save(Collections.singletonList(user), insert ? inserts : Collections.emptySet(), userIds);
+                        success(user, insert);
+                    } catch (Exception ex) {
+                        String msg = "导入失败：";
+                        failure(user, msg + ex.getMessage());
+                        log.error(msg, ex);
+                    }
+                }
             }
         }
-        if (failureNum > 0) {
-            failureMsg.insert(0, "很抱歉，导入失败！共 " + failureNum + " 条数据格式不正确，错误如下：");
-            throw new CustomException(failureMsg.toString());
-        } else {
+
+        /**
+         * 查询已存在的账号，包括本次导入中之前批次新增的
+         */
+        private Map<String, Long> selectUserIds(List<SysUser> users) {
+            Map<String, Long> userIds = new HashMap<>();
+            List<String> userNames = new ArrayList<>();
+            for (SysUser user : users) {
+                String userName = user.getUserName();
+                if (StringUtils.isEmpty(userName) || userIds.containsKey(userName)) {
+                    continue;
+                }
+                if (imported.containsKey(userName)) {
+                    userIds.put(userName, imported.get(userName));
+                } else {
+                    userNames.add(userName);
+                }
+            }
+            if (userNames.size() > 0) {
+                for (SysUser user : userMapper.selectUserIdsByUserNames(userNames)) {
+                    userIds.put(user.getUserName(), user.getUserId());
+                }
+            }
+            return userIds;
+        }
+
+        /**
+         * 在一个事务中保存，成功后记录新增的账号
+         */
+        private void save(List<SysUser> rows, Set<SysUser> inserts, Map<String, Long> userIds) {
+            List<SysUser> insertList = new ArrayList<>();
+            for (SysUser user : rows) {
+                if (inserts.contains(user)) {
+                    insertList.add(user);
+                }
+            }
+            transactionTemplate.execute(status -> {
+                if (insertList.size() > 0) {
+                    userMapper.batchInsertUser(insertList);
+                    batchUserRolePost(insertList);
+                    for (SysUser user : insertList) {
+                        userIds.put(user.getUserName(), user.getUserId());
+                    }
+                }
+                List<SysUser> updateList = new ArrayList<>();
+                List<Long> roleUserIds = new ArrayList<>();
+                List<Long> postUserIds = new ArrayList<>();
+                for (SysUser user : rows) {
+                    if (inserts.contains(user)) {
+                        continue;
+                    }
+                    Long userId = userIds.get(user.getUserName());
+                    if (userId == null) {
+                        throw new CustomException("账号 " + user.getUserName() + " 未导入成功，无法更新");
+                    }
+                    user.setUserId(userId);
+                    userMapper.updateUser(user);
+                    updateList.add(user);
+                    // 导入数据中指定了角色、岗位时才替换原有的关联
+                    if (StringUtils.isNotNull(user.getRoleIds())) {
+                        roleUserIds.add(userId);
+                    }
+                    if (StringUtils.isNotNull(user.getPostIds())) {
+                        postUserIds.add(userId);
+                    }
+                }
+                if (roleUserIds.size() > 0) {
+                    userRoleMapper.deleteUserRole(roleUserIds.toArray(new Long[0]));
+                }
+                if (postUserIds.size() > 0) {
+                    userPostMapper.deleteUserPost(postUserIds.toArray(new Long[0]));
+                }
+                batchUserRolePost(updateList);
+                return null;
+            });
+            for (SysUser user : insertList) {
+                imported.put(user.getUserName(), user.getUserId());
+            }
+        }
+
+        private void success(SysUser user, boolean insert) {
+            successNum++;
+            if (successNum <= IMPORT_SUCCESS_DETAIL) {
+                successMsg.append("<br/>" + successNum + "、账号 " + user.getUserName() + (insert ? " 导入成功" : " 更新成功"));
+            }
+        }
+
+        private void failure(SysUser user, String reason) {
+            failureNum++;
+            failureMsg.append("<br/>" + failureNum + "、账号 " + user.getUserName() + " " + reason);
+        }
+
+        private String getMessage() {
+            if (failureNum > 0) {
+                failureMsg.insert(0, "很抱歉，导入失败！共 " + failureNum + " 条数据格式不正确，错误如下：");
+                throw new CustomException(failureMsg.toString());
+            }
+            if (successNum > IMPORT_SUCCESS_DETAIL) {
+                successMsg.append("<br/>……其余 " + (successNum - IMPORT_SUCCESS_DETAIL) + " 条略");
+            }
             successMsg.insert(0, "恭喜您，数据已全部导入成功！共 " + successNum + " 条，数据如下：");
+            return successMsg.toString();
         }
-        return successMsg.toString();
     }
-
 }
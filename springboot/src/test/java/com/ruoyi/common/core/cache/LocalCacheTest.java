@@ -0,0 +1,32 @@
+package com.ruoyi.common.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * 超出容量时按过期时间从早到晚淘汰
+ *
+ * @author ruoyi
+ */
+public class LocalCacheTest {
+    @Test
+    public void evictsEarliestExpiryFirst() {
+        LocalCache<Integer, String> cache = new LocalCache<>("test", 10, 0);
+        // 写入顺序与过期时间顺序相反，淘汰不应依赖遍历顺序
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "v" + i, (20 - i) * 60000L);
+        }
+        cache.put(10, "v10", 60 * 60000L);
+        // 超出上限后淘汰到容量的90%
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+        assertNull(cache.get(9));
+        assertNull(cache.get(8));
+        for (int i = 0; i < 8; i++) {
+            assertNotNull(cache.get(i));
+        }
+        assertNotNull(cache.get(10));
+    }
+}
@@ -0,0 +1,127 @@
+package com.ruoyi.common.utils.ip;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * IP地址解析、内网判断和离线地址库查询
+ *
+ * @author ruoyi
+ */
+public class IpUtilsTest {
+    @After
+    public void tearDown() {
+        IpDatabase.setCurrent(null);
+    }
+
+    @Test
+    public void internalIpV4() {
+        assertTrue(IpUtils.internalIp("10.1.2.3"));
+        assertTrue(IpUtils.internalIp("172.16.0.1"));
+        assertTrue(IpUtils.internalIp("192.168.1.1"));
+        assertTrue(IpUtils.internalIp("127.0.0.1"));
+        assertFalse(IpUtils.internalIp("8.8.8.8"));
+        assertFalse(IpUtils.internalIp("172.32.0.1"));
+    }
+
+    @Test
+    public void internalIpV6() {
+        assertTrue(IpUtils.internalIp("::1"));
+        assertTrue(IpUtils.internalIp("0:0:0:0:0:0:0:1"));
+        assertTrue(IpUtils.internalIp("fc00::1"));
+        assertTrue(IpUtils.internalIp("fd12:3456:789a::1"));
+        assertTrue(IpUtils.internalIp("fe80::1%eth0"));
+        assertTrue(IpUtils.internalIp("febf::1"));
+        assertFalse(IpUtils.internalIp("fec0::1"));
+        assertFalse(IpUtils.internalIp("2001:db8::1"));
+        assertFalse(IpUtils.internalIp("[2400:3200::1]"));
+        assertFalse(IpUtils.internalIp("::2"));
+    }
+
+    @Test
+    public void mappedV4IsTreatedAsV4() {
+        assertArrayEquals(new byte[] { 8, 8, 8, 8 }, IpUtils.textToNumericFormat("::ffff:8.8.8.8"));
+        assertTrue(IpUtils.internalIp("::ffff:192.168.0.1"));
+    }
+
+    @Test
+    public void onlyLiteralsAreParsed() {
+        // 非字面量不能交给InetAddress，否则会发起DNS查询
+        assertNull(IpUtils.textToNumericFormat("x:host.example"));
+        assertNull(IpUtils.textToNumericFormat("a:localhost"));
+        assertNull(IpUtils.textToNumericFormat(".a:b"));
+        assertNull(IpUtils.textToNumericFormat(".:1"));
+        assertNull(IpUtils.textToNumericFormat("[.a:b%eth0]"));
+        assertNull(IpUtils.textToNumericFormat("::1 , 10.0.0.1"));
+        assertNull(IpUtils.textToNumericFormat("１::1"));
+        assertNull(IpUtils.textToNumericFormat("1:2:3:4:5:6:7:8:9"));
+        assertNull(IpUtils.textToNumericFormat(""));
+        assertNull(IpUtils.textToNumericFormat(null));
+        assertEquals(16, IpUtils.textToNumericFormat("2001:db8::1").length);
+        // 无法解析的地址仍按原来的方式当作内网处理，不做查询
+        assertTrue(IpUtils.internalIp("x:host.example"));
+        assertTrue(IpUtils.internalIp("unknown"));
+    }
+
+    @Test
+    public void ipv6LocationFromOfflineDatabase() throws IOException {
+        Path file = Files.createTempFile("ipdb", ".csv");
+        try {
+            Files.write(file, Arrays.asList("# 测试数据", "1.0.1.0,1.0.3.255,福建省,福州市",
+                    "2400:3200::,2400:3200:ffff:ffff:ffff:ffff:ffff:ffff,浙江省,杭州市"), StandardCharsets.UTF_8);
+            IpDatabase.setCurrent(IpDatabase.load(file));
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals("浙江省 杭州市", AddressUtils.getRealAddressByIP("2400:3200::1"));
+        assertEquals("浙江省 杭州市", AddressUtils.getRealAddressByIP("[2400:3200:0:0:0:0:0:8888]"));
+        assertEquals("福建省 福州市", AddressUtils.getRealAddressByIP("1.0.2.1"));
+        assertEquals("福建省 福州市", AddressUtils.getRealAddressByIP("::ffff:1.0.2.1"));
+        assertEquals("内网IP", AddressUtils.getRealAddressByIP("fe80::1"));
+        assertEquals(AddressUtils.UNKNOWN, AddressUtils.getRealAddressByIP("2001:db8::1"));
+    }
+
+    @Test
+    public void nestedAndOverlappingRangesAreFlattened() throws IOException {
+        IpDatabase database;
+        Path file = Files.createTempFile("ipdb", ".csv");
+        try {
+            Files.write(file, Arrays.asList("1.0.0.0,1.0.255.255,省A,",
+                    // 嵌套在上一段中
+                    "1.0.16.0,1.0.31.255,省A,市B",
+                    // 与上一段部分重叠
+                    "1.0.24.0,1.0.40.255,省C,",
+                    // 最大地址结尾的嵌套
+                    "ff00::,ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff,IPv6外层,",
+                    "ffff::,ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff,IPv6内层,"), StandardCharsets.UTF_8);
+            database = IpDatabase.load(file);
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals("省A", database.lookup("1.0.0.1"));
+        assertEquals("省A", database.lookup("1.0.15.255"));
+        assertEquals("省A 市B", database.lookup("1.0.16.0"));
+        assertEquals("省A 市B", database.lookup("1.0.23.255"));
+        assertEquals("省C", database.lookup("1.0.24.0"));
+        assertEquals("省C", database.lookup("1.0.40.255"));
+        // 嵌套段之后回到外层段
+        assertEquals("省A", database.lookup("1.0.41.0"));
+        assertEquals("省A", database.lookup("1.0.255.255"));
+        assertNull(database.lookup("1.1.0.0"));
+        assertEquals(4, database.getV4Size());
+        assertEquals("IPv6外层", database.lookup("ff00::1"));
+        assertEquals("IPv6内层", database.lookup("ffff::1"));
+        assertEquals("IPv6内层", database.lookup("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertEquals(2, database.getV6Size());
+    }
+}
@@ -0,0 +1,762 @@
+package com.ruoyi.common.utils.poi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.ruoyi.common.utils.file.FileUtils;
+import com.ruoyi.framework.aspectj.lang.annotation.Excel;
+import com.ruoyi.framework.aspectj.lang.annotation.Excel.ColumnType;
+import com.ruoyi.framework.aspectj.lang.annotation.Excel.Type;
+import com.ruoyi.framework.aspectj.lang.annotation.Excels;
+import com.ruoyi.framework.config.RuoYiConfig;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * 列计划按特性校验导出、导入结果：关联属性、转换表达式、日期格式、数值列、后缀和默认值、父类字段、样式和数据有效性
+ *
+ * @author ruoyi
+ */
+public class ExcelColumnPlanTest
+{
+    private static File profile;
+
+    @BeforeClass
+    public static void setUpProfile() throws IOException
+    {
+        profile = File.createTempFile("ruoyi", "");
+        profile.delete();
+        new RuoYiConfig().setProfile(profile.getPath());
+    }
+
+    @AfterClass
+    public static void deleteProfile()
+    {
+        FileUtils.deleteFile(profile.getPath());
+        File download = new File(RuoYiConfig.getDownloadPath());
+        File[] files = download.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        download.delete();
+        profile.delete();
+    }
+
+    @Test
+    public void exportFixture() throws Exception
+    {
+        List<Goods> list = new ArrayList<Goods>();
+        for (int i = 0; i < 50; i++)
+        {
+            list.add(goods(i));
+        }
+        // 空值（关联对象本身不为空）、数值列超出int范围、转换表达式未命中
+        Goods empty = new Goods();
+        empty.setCategory(new Category());
+        empty.getCategory().setParent(new Category());
+        list.add(empty);
+        Goods overflow = goods(7);
+        overflow.setId(Long.MAX_VALUE);
+        overflow.setStatus("9");
+        list.add(overflow);
+        Workbook wb = export(Goods.class, list);
+        Sheet sheet = wb.getSheetAt(0);
+
+        // 父类字段在前，导入专用的列不导出，多注解按顺序展开
+        assertEquals(Arrays.asList("创建者", "编号", "数量", "名称", "状态", "上架时间", "金额", "比例", "备注", "隐藏", "分类名称", "上级分类"),
+                headers(sheet));
+        assertEquals(52, sheet.getLastRowNum());
+        assertEquals((int) ((30 + 0.72) * 256), sheet.getColumnWidth(column(sheet, "上架时间")));
+        assertEquals((int) ((16 + 0.72) * 256), sheet.getColumnWidth(column(sheet, "名称")));
+        // 备注的提示、隐藏列的下拉框
+        assertEquals(2, sheet.getDataValidations().size());
+        assertTrue(wb.getFontAt(cell(sheet, 0, "编号").getCellStyle().getFontIndex()).getBold());
+        assertEquals(FillPatternType.SOLID_FOREGROUND, cell(sheet, 0, "编号").getCellStyle().getFillPatternEnum());
+        assertFalse(wb.getFontAt(cell(sheet, 2, "编号").getCellStyle().getFontIndex()).getBold());
+
+        Goods goods = list.get(1);
+        assertEquals("admin", value(sheet, 2, "创建者"));
+        assertEquals(1D, value(sheet, 2, "编号"));
+        assertEquals(3D, value(sheet, 2, "数量"));
+        assertEquals("商品1件", value(sheet, 2, "名称"));
+        assertEquals("停用", value(sheet, 2, "状态"));
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(goods.getTime()), value(sheet, 2, "上架时间"));
+        assertEquals("1.05", value(sheet, 2, "金额"));
+        assertEquals(String.valueOf(1 / 7D), value(sheet, 2, "比例"));
+        assertEquals("备注1", value(sheet, 2, "备注"));
+        assertNull(cell(sheet, 2, "隐藏"));
+        assertEquals("分类1", value(sheet, 2, "分类名称"));
+        assertEquals("上级1", value(sheet, 2, "上级分类"));
+
+        // 空值写入默认值，数值列写入0
+        assertEquals("无", value(sheet, 1, "名称"));
+        assertEquals("正常", value(sheet, 1, "状态"));
+        assertEquals(0D, value(sheet, 51, "编号"));
+        assertEquals("无", value(sheet, 51, "名称"));
+        assertEquals("", value(sheet, 51, "状态"));
+        assertEquals("", value(sheet, 51, "上架时间"));
+        assertEquals("", value(sheet, 51, "上级分类"));
+        assertEquals(0D, value(sheet, 52, "编号"));
+        assertEquals("9", value(sheet, 52, "状态"));
+    }
+
+    @Test
+    public void parallelExportMatchesSerial() throws Exception
+    {
+        List<SysOperLog> logs = new ArrayList<SysOperLog>();
+        // 超过一批（4096条）的转换量，按批在线程池中转换后按顺序写入
+        for (int i = 0; i < 10000; i++)
+        {
+            logs.add(operLog(i));
+        }
+        logs.add(new SysOperLog());
+        assertSameWorkbook(export(SysOperLog.class, logs), download(new ExcelUtil<SysOperLog>(SysOperLog.class)
+                .exportExcel(logs, "对比", true).get("msg").toString()));
+    }
+
+    @Test
+    public void brokenTargetChainUsesDefaultValue() throws Exception
+    {
+        // 改造前关联对象为空时抛出异常、单元格留空；现在按空值处理，写入默认值
+        Goods goods = goods(1);
+        goods.getCategory().setParent(null);
+        Sheet sheet = export(Goods.class, Arrays.asList(goods)).getSheetAt(0);
+        assertEquals("", value(sheet, 1, "上级分类"));
+    }
+
+    @Test
+    public void exportDomainClasses() throws Exception
+    {
+        List<SysUser> users = new ArrayList<SysUser>();
+        for (int i = 0; i < 2; i++)
+        {
+            users.add(user(i));
+        }
+        SysUser empty = new SysUser();
+        empty.setDept(new SysDept());
+        users.add(empty);
+        Sheet sheet = export(SysUser.class, users).getSheetAt(0);
+        assertEquals(Arrays.asList("用户序号", "登录名称", "用户名称", "用户邮箱", "手机号码", "用户性别", "帐号状态", "最后登陆IP", "最后登陆时间",
+                "部门名称", "部门负责人"), headers(sheet));
+        assertEquals(1, sheet.getDataValidations().size());
+        assertEquals(1D, value(sheet, 2, "用户序号"));
+        assertEquals("user1", value(sheet, 2, "登录名称"));
+        assertEquals("u1@163.com", value(sheet, 2, "用户邮箱"));
+        assertEquals("女", value(sheet, 2, "用户性别"));
+        assertEquals("停用", value(sheet, 2, "帐号状态"));
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(users.get(1).getLoginDate()), value(sheet, 2, "最后登陆时间"));
+        assertEquals("研发部门", value(sheet, 2, "部门名称"));
+        assertEquals("", value(sheet, 2, "部门负责人"));
+        assertEquals("", value(sheet, 1, "用户邮箱"));
+        assertEquals("", value(sheet, 1, "最后登陆时间"));
+        assertEquals("若依", value(sheet, 1, "部门负责人"));
+        assertEquals(0D, value(sheet, 3, "用户序号"));
+        assertEquals("", value(sheet, 3, "用户性别"));
+        assertEquals("", value(sheet, 3, "部门名称"));
+
+        // 数字类型的字段按转换表达式翻译
+        List<SysOperLog> logs = Arrays.asList(operLog(1), new SysOperLog());
+        sheet = export(SysOperLog.class, logs).getSheetAt(0);
+        assertEquals(16, headers(sheet).size());
+        assertEquals(1D, value(sheet, 1, "操作序号"));
+        assertEquals("新增", value(sheet, 1, "业务类型"));
+        assertEquals("后台用户", value(sheet, 1, "操作类别"));
+        assertEquals("异常", value(sheet, 1, "状态"));
+        assertEquals("{\"userId\":1}", value(sheet, 1, "请求参数"));
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(logs.get(0).getOperTime()), value(sheet, 1, "操作时间"));
+        assertEquals("", value(sheet, 2, "业务类型"));
+        assertEquals("", value(sheet, 2, "操作时间"));
+    }
+
+    @Test
+    public void importTemplate() throws Exception
+    {
+        String filename = new ExcelUtil<SysUser>(SysUser.class).importTemplateExcel("用户").get("msg").toString();
+        Workbook wb = download(filename);
+        Sheet sheet = wb.getSheetAt(0);
+        assertEquals("用户", sheet.getSheetName());
+        // 导入模板只有表头，包含导入专用的列，不含导出专用的列
+        assertEquals(Arrays.asList("用户序号", "部门编号", "登录名称", "用户名称", "用户邮箱", "手机号码", "用户性别", "帐号状态"), headers(sheet));
+        assertEquals(0, sheet.getLastRowNum());
+        assertEquals(1, sheet.getDataValidations().size());
+        assertTrue(wb.getFontAt(cell(sheet, 0, "用户序号").getCellStyle().getFontIndex()).getBold());
+    }
+
+    @Test
+    public void importFixture() throws Exception
+    {
+        List<Goods> list = new ExcelUtil<Goods>(Goods.class).importExcel(new ByteArrayInputStream(importWorkbook()));
+        // 空行跳过
+        assertEquals(4, list.size());
+
+        Goods goods = list.get(0);
+        assertEquals(Long.valueOf(1), goods.getId());
+        assertEquals(Double.valueOf(12), goods.getQuantity());
+        assertNull(goods.getCount());
+        assertEquals("苹果", goods.getName());
+        assertEquals("0", goods.getStatus());
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.DECEMBER, 2, 8, 30, 15);
+        assertEquals(calendar.getTime(), goods.getTime());
+        assertEquals(0, new BigDecimal("12.5").compareTo(goods.getAmount()));
+        assertEquals(Double.valueOf(0.25), goods.getRatio());
+        assertEquals("3", goods.getRemark());
+        assertEquals("水果", goods.getCategory().getName());
+        // 父类字段不参与导入
+        assertNull(goods.getCreateBy());
+
+        // 文本格式的数字、日期，字符串列中的数字
+        goods = list.get(1);
+        assertEquals(Long.valueOf(2), goods.getId());
+        assertEquals(Double.valueOf(7), goods.getQuantity());
+        assertEquals("88", goods.getName());
+        assertEquals("1", goods.getStatus());
+        calendar.set(2019, Calendar.DECEMBER, 3, 10, 0, 0);
+        assertEquals(calendar.getTime(), goods.getTime());
+        assertEquals(0, new BigDecimal("1.005").compareTo(goods.getAmount()));
+        assertEquals(Double.valueOf(3), goods.getRatio());
+        assertEquals("x", goods.getRemark());
+
+        // 转换表达式未命中时保留原值
+        goods = list.get(2);
+        assertEquals(Long.valueOf(3), goods.getId());
+        assertEquals(Double.valueOf(4.5), goods.getQuantity());
+        assertEquals("未知", goods.getStatus());
+        assertEquals("蔬菜", goods.getCategory().getName());
+
+        // 只有第一列有值的行
+        assertEquals(Long.valueOf(4), list.get(3).getId());
+
+        List<SysUser> users = new ExcelUtil<SysUser>(SysUser.class).importExcel(new ByteArrayInputStream(userWorkbook()));
+        assertEquals(2, users.size());
+        assertUser(users.get(0), 1L, 103L, "admin", "ry@163.com", "15888888888", "0", "0");
+        assertUser(users.get(1), 2L, 105L, "ry", "ry@qq.com", "15666666666", "1", "1");
+    }
+
+    @Test
+    public void exportCsvEscapesFormulaPrefixes() throws Exception
+    {
+        // 公式符号、制表符、回车开头的值加单引号，负数不处理
+        String[] remarks = { "=SUM(A1)", "@SUM(A1)", "\t=SUM(A1)", "\r=SUM(A1)", "-1.5", "a,b" };
+        String[] expected = { "'=SUM(A1)", "'@SUM(A1)", "'\t=SUM(A1)", "\"'\r=SUM(A1)\"", "-1.5", "\"a,b\"" };
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("User-Agent", "Chrome");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try
+        {
+            new ExcelUtil<Goods>(Goods.class).exportCsv(response, "对比", handler -> {
+                DefaultResultContext<Goods> context = new DefaultResultContext<Goods>();
+                for (String remark : remarks)
+                {
+                    Goods goods = goods(1);
+                    goods.setRemark(remark);
+                    context.nextResultObject(goods);
+                    handler.handleResult(context);
+                }
+            });
+        }
+        finally
+        {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        String[] lines = new String(response.getContentAsByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(remarks.length + 1, lines.length);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertTrue(lines[i + 1], lines[i + 1].contains("," + expected[i] + ","));
+        }
+    }
+
+    private static <T> Workbook export(Class<T> clazz, List<T> list) throws Exception
+    {
+        return download(new ExcelUtil<T>(clazz).exportExcel(list, "对比").get("msg").toString());
+    }
+
+    private static Workbook download(String filename) throws Exception
+    {
+        File file = new File(RuoYiConfig.getDownloadPath() + filename);
+        try (InputStream in = new FileInputStream(file))
+        {
+            return new XSSFWorkbook(in);
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    private static List<String> headers(Sheet sheet)
+    {
+        List<String> headers = new ArrayList<String>();
+        for (Cell cell : sheet.getRow(0))
+        {
+            headers.add(cell.getStringCellValue());
+        }
+        return headers;
+    }
+
+    private static int column(Sheet sheet, String header)
+    {
+        int column = headers(sheet).indexOf(header);
+        if (column < 0)
+        {
+            throw new AssertionError("缺少列：" + header);
+        }
+        return column;
+    }
+
+    private static Cell cell(Sheet sheet, int row, String header)
+    {
+        return sheet.getRow(row).getCell(column(sheet, header));
+    }
+
+    /**
+     * 单元格的值，数值列为Double，其它为String
+     */
+    private static Object value(Sheet sheet, int row, String header)
+    {
+        Cell cell = cell(sheet, row, header);
+        assertNotNull("第" + row + "行 " + header, cell);
+        return cell.getCellTypeEnum() == CellType.NUMERIC ? (Object) cell.getNumericCellValue() : cell.getStringCellValue();
+    }
+
+    private static void assertUser(SysUser user, Long userId, Long deptId, String userName, String email, String phonenumber,
+            String sex, String status)
+    {
+        assertEquals(userId, user.getUserId());
+        assertEquals(deptId, user.getDeptId());
+        assertEquals(userName, user.getUserName());
+        assertEquals("若依", user.getNickName());
+        assertEquals(email, user.getEmail());
+        assertEquals(phonenumber, user.getPhonenumber());
+        assertEquals(sex, user.getSex());
+        assertEquals(status, user.getStatus());
+    }
+
+    /**
+     * 逐个单元格比较类型、值和样式，以及列宽、行高和数据有效性
+     */
+    private static void assertSameWorkbook(Workbook expected, Workbook actual)
+    {
+        assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+        for (int s = 0; s < expected.getNumberOfSheets(); s++)
+        {
+            Sheet es = expected.getSheetAt(s);
+            Sheet as = actual.getSheetAt(s);
+            assertEquals(es.getSheetName(), as.getSheetName());
+            assertEquals(es.getLastRowNum(), as.getLastRowNum());
+            assertEquals(es.getDataValidations().size(), as.getDataValidations().size());
+            for (int r = 0; r <= es.getLastRowNum(); r++)
+            {
+                Row er = es.getRow(r);
+                Row ar = as.getRow(r);
+                assertEquals("row " + r, er == null, ar == null);
+                if (er == null)
+                {
+                    continue;
+                }
+                assertEquals("row " + r, er.getHeight(), ar.getHeight());
+                assertEquals("row " + r, er.getLastCellNum(), ar.getLastCellNum());
+                for (int c = 0; c < er.getLastCellNum(); c++)
+                {
+                    String at = "sheet " + s + " row " + r + " column " + c;
+                    if (r == 0)
+                    {
+                        assertEquals(at, es.getColumnWidth(c), as.getColumnWidth(c));
+                    }
+                    Cell ec = er.getCell(c);
+                    Cell ac = ar.getCell(c);
+                    assertEquals(at, ec == null, ac == null);
+                    if (ec == null)
+                    {
+                        continue;
+                    }
+                    assertEquals(at, ec.getCellTypeEnum(), ac.getCellTypeEnum());
+                    assertEquals(at, ec.toString(), ac.toString());
+                    assertStyle(at, ec.getCellStyle(), ac.getCellStyle(), expected, actual);
+                }
+            }
+        }
+    }
+
+    private static void assertStyle(String at, CellStyle expected, CellStyle actual, Workbook ew, Workbook aw)
+    {
+        assertEquals(at, expected.getAlignmentEnum(), actual.getAlignmentEnum());
+        assertEquals(at, expected.getFillPatternEnum(), actual.getFillPatternEnum());
+        assertEquals(at, expected.getFillForegroundColor(), actual.getFillForegroundColor());
+        assertEquals(at, ew.getFontAt(expected.getFontIndex()).getBold(), aw.getFontAt(actual.getFontIndex()).getBold());
+    }
+
+    /**
+     * 导入文件：数值、日期格式、文本日期、小数、表达式反向转换、关联属性、空行
+     */
+    private static byte[] importWorkbook() throws IOException
+    {
+        try (XSSFWorkbook wb = new XSSFWorkbook())
+        {
+            CreationHelper helper = wb.getCreationHelper();
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(helper.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            Sheet sheet = wb.createSheet();
+            String[] header = { "编号", "数量", "名称", "状态", "上架时间", "金额", "比例", "备注", "分类名称", "创建者" };
+            write(sheet.createRow(0), (Object[]) header);
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(2019, Calendar.DECEMBER, 2, 8, 30, 15);
+            write(sheet.createRow(1), 1D, 12D, "苹果", "正常", calendar.getTime(), 12.5D, 0.25D, 3D, "水果", "admin");
+            sheet.getRow(1).getCell(4).setCellStyle(dateStyle);
+            write(sheet.createRow(2), "2", "7.0", 88D, "停用", "2019-12-03 10:00:00", "1.005", "3", "x", "", "");
+            write(sheet.createRow(3), "", "", "", "", "", "", "", "", "", "");
+            write(sheet.createRow(4), 3.0D, 4.5D, "梨", "未知", "", "", "", "", "蔬菜", "ry");
+            write(sheet.createRow(5), 4D, null, null, null, null, null, null, null, null, null);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] userWorkbook() throws IOException
+    {
+        try (XSSFWorkbook wb = new XSSFWorkbook())
+        {
+            Sheet sheet = wb.createSheet();
+            write(sheet.createRow(0), "用户序号", "部门编号", "登录名称", "用户名称", "用户邮箱", "手机号码", "用户性别", "帐号状态");
+            write(sheet.createRow(1), 1D, 103D, "admin", "若依", "ry@163.com", 15888888888D, "男", "正常");
+            write(sheet.createRow(2), "2", "105", "ry", "若依", "ry@qq.com", "15666666666", "女", "停用");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void write(Row row, Object... values)
+    {
+        for (int i = 0; i < values.length; i++)
+        {
+            Object value = values[i];
+            if (value == null)
+            {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Double)
+            {
+                cell.setCellValue((Double) value);
+            }
+            else if (value instanceof Date)
+            {
+                cell.setCellValue((Date) value);
+            }
+            else
+            {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    private static Goods goods(int i)
+    {
+        Goods goods = new Goods();
+        goods.setId((long) i);
+        goods.setCount(i * 3);
+        goods.setName(i % 5 == 0 ? null : "商品" + i);
+        goods.setStatus(String.valueOf(i % 2));
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.DECEMBER, 1 + i % 28, i % 24, i % 60, i % 60);
+        goods.setTime(calendar.getTime());
+        goods.setAmount(new BigDecimal(i + ".05"));
+        goods.setRatio(i / 7D);
+        goods.setRemark("备注" + i);
+        goods.setHidden("不导出");
+        Category category = new Category();
+        category.setName("分类" + i % 3);
+        Category parent = new Category();
+        parent.setName("上级" + i % 2);
+        category.setParent(parent);
+        goods.setCategory(category);
+        goods.setCreateBy("admin");
+        return goods;
+    }
+
+    private static SysUser user(int i)
+    {
+        SysUser user = new SysUser();
+        user.setUserId((long) i);
+        user.setDeptId(103L);
+        user.setUserName("user" + i);
+        user.setNickName("用户" + i);
+        user.setEmail(i % 3 == 0 ? null : "u" + i + "@163.com");
+        user.setPhonenumber("1588888888" + i % 10);
+        user.setSex(String.valueOf(i % 3));
+        user.setStatus(String.valueOf(i % 2));
+        user.setLoginIp("127.0.0." + i);
+        user.setLoginDate(i % 4 == 0 ? null : new Date(1575158400000L + i * 3600000L));
+        SysDept dept = new SysDept();
+        dept.setDeptName("研发部门");
+        dept.setLeader(i % 2 == 0 ? "若依" : null);
+        user.setDept(dept);
+        return user;
+    }
+
+    private static SysOperLog operLog(int i)
+    {
+        SysOperLog operLog = new SysOperLog();
+        operLog.setOperId((long) i);
+        operLog.setTitle("用户管理");
+        operLog.setBusinessType(i % 4);
+        operLog.setMethod("com.ruoyi.project.system.controller.SysUserController.edit()");
+        operLog.setRequestMethod("PUT");
+        operLog.setOperatorType(i % 3);
+        operLog.setOperName("admin");
+        operLog.setDeptName("研发部门");
+        operLog.setOperUrl("/system/user");
+        operLog.setOperIp("127.0.0.1");
+        operLog.setOperLocation("内网IP");
+        operLog.setOperParam("{\"userId\":" + i + "}");
+        operLog.setJsonResult("{\"code\":200}");
+        operLog.setStatus(i % 2);
+        operLog.setErrorMsg(i % 2 == 0 ? null : "错误" + i);
+        operLog.setOperTime(new Date(1575158400000L + i * 1000L));
+        return operLog;
+    }
+
+    /**
+     * 测试用实体，父类字段也参与导出
+     */
+    public static class BaseGoods
+    {
+        @Excel(name = "创建者")
+        private String createBy;
+
+        public String getCreateBy()
+        {
+            return createBy;
+        }
+
+        public void setCreateBy(String createBy)
+        {
+            this.createBy = createBy;
+        }
+    }
+
+    public static class Goods extends BaseGoods
+    {
+        @Excel(name = "编号", cellType = ColumnType.NUMERIC)
+        private Long id;
+
+        @Excel(name = "数量", cellType = ColumnType.NUMERIC, type = Type.EXPORT)
+        private Integer count;
+
+        @Excel(name = "数量", type = Type.IMPORT)
+        private Double quantity;
+
+        @Excel(name = "名称", suffix = "件", defaultValue = "无")
+        private String name;
+
+        @Excel(name = "状态", readConverterExp = "0=正常,1=停用")
+        private String status;
+
+        @Excel(name = "上架时间", dateFormat = "yyyy-MM-dd HH:mm:ss", width = 30)
+        private Date time;
+
+        @Excel(name = "金额")
+        private BigDecimal amount;
+
+        @Excel(name = "比例")
+        private Double ratio;
+
+        @Excel(name = "备注", prompt = "选填", height = 20)
+        private String remark;
+
+        @Excel(name = "隐藏", isExport = false, combo = { "是", "否" })
+        private String hidden;
+
+        @Excel(name = "分类名称", targetAttr = "name", type = Type.IMPORT)
+        @Excels({ @Excel(name = "分类名称", targetAttr = "name", type = Type.EXPORT),
+                @Excel(name = "上级分类", targetAttr = "parent.name", type = Type.EXPORT) })
+        private Category category;
+
+        public Long getId()
+        {
+            return id;
+        }
+
+        public void setId(Long id)
+        {
+            this.id = id;
+        }
+
+        public Integer getCount()
+        {
+            return count;
+        }
+
+        public void setCount(Integer count)
+        {
+            this.count = count;
+        }
+
+        public Double getQuantity()
+        {
+            return quantity;
+        }
+
+        public void setQuantity(Double quantity)
+        {
+            this.quantity = quantity;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public String getStatus()
+        {
+            return status;
+        }
+
+        public void setStatus(String status)
+        {
+            this.status = status;
+        }
+
+        public Date getTime()
+        {
+            return time;
+        }
+
+        public void setTime(Date time)
+        {
+            this.time = time;
+        }
+
+        public BigDecimal getAmount()
+        {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount)
+        {
+            this.amount = amount;
+        }
+
+        public Double getRatio()
+        {
+            return ratio;
+        }
+
+        public void setRatio(Double ratio)
+        {
+            this.ratio = ratio;
+        }
+
+        public String getRemark()
+        {
+            return remark;
+        }
+
+        public void setRemark(String remark)
+        {
+            this.remark = remark;
+        }
+
+        public String getHidden()
+        {
+            return hidden;
+        }
+
+        public void setHidden(String hidden)
+        {
+            this.hidden = hidden;
+        }
+
+        public Category getCategory()
+        {
+            if (category == null)
+            {
+                // 导入时按关联属性赋值需要先有对象
+                category = new Category();
+            }
+            return category;
+        }
+
+        public void setCategory(Category category)
+        {
+            this.category = category;
+        }
+    }
+
+    public static class Category
+    {
+        private String name;
+
+        private Category parent;
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+
+        public Category getParent()
+        {
+            return parent;
+        }
+
+        public void setParent(Category parent)
+        {
+            this.parent = parent;
+        }
+    }
+}
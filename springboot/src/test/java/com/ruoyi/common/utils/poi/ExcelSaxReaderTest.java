@@ -0,0 +1,70 @@
+package com.ruoyi.common.utils.poi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 事件模式读取：共享字符串表解压后超过限制时拒绝导入
+ *
+ * @author ruoyi
+ */
+public class ExcelSaxReaderTest
+{
+    private File file;
+
+    @Before
+    public void createFile() throws IOException
+    {
+        file = File.createTempFile("sax", ".xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = new FileOutputStream(file))
+        {
+            Sheet sheet = wb.createSheet("sheet1");
+            for (int i = 0; i < 100; i++)
+            {
+                sheet.createRow(i).createCell(0).setCellValue("name-" + i);
+            }
+            wb.write(out);
+        }
+    }
+
+    @After
+    public void deleteFile()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void readsSharedStringsWithinLimit() throws Exception
+    {
+        final List<Object> values = new ArrayList<Object>();
+        ExcelSaxReader.read(file, null, (rowNum, cells) -> values.add(cells.get(0)));
+        assertEquals(100, values.size());
+        assertEquals("name-99", values.get(99));
+    }
+
+    @Test
+    public void rejectsSharedStringsOverLimit() throws Exception
+    {
+        try
+        {
+            ExcelSaxReader.read(file, null, (rowNum, cells) -> fail("超出限制时不应读取行"), 512);
+            fail("共享字符串超出限制时应拒绝导入");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("文本内容过多"));
+        }
+    }
+}
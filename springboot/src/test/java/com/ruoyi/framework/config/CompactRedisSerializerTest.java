@@ -0,0 +1,256 @@
+package com.ruoyi.framework.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.system.domain.SysConfig;
+import com.ruoyi.project.system.domain.SysDept;
+import com.ruoyi.project.system.domain.SysRole;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * 紧凑二进制序列化：已注册类型往返一致，FastJson历史数据可读
+ *
+ * @author ruoyi
+ */
+public class CompactRedisSerializerTest
+{
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private final RedisSerializer<Object> json = new FastJson2JsonRedisSerializer(Object.class);
+
+    private final CompactRedisSerializer compact = RedisConfig.compactSerializer(json);
+
+    @Test
+    public void roundTripRegisteredScalars()
+    {
+        assertEquals("admin", roundTrip("admin"));
+        assertEquals("", roundTrip(""));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), roundTrip(Long.MAX_VALUE));
+        assertEquals(Integer.valueOf(-1), roundTrip(-1));
+    }
+
+    @Test
+    public void roundTripSysDept()
+    {
+        SysDept dept = dept();
+        assertSame(dept, roundTrip(dept));
+    }
+
+    @Test
+    public void roundTripSysRole()
+    {
+        SysRole role = role(2L, "common");
+        SysRole copy = (SysRole) roundTrip(role);
+        assertSame(role, copy);
+        assertArrayEquals(role.getMenuIds(), copy.getMenuIds());
+    }
+
+    @Test
+    public void roundTripSysUser()
+    {
+        SysUser user = user();
+        SysUser copy = (SysUser) roundTrip(user);
+        assertSame(user, copy);
+        // 接口返回时忽略的密码，缓存里必须保留
+        assertEquals(user.getPassword(), copy.getPassword());
+        assertEquals(user.getDept().getDeptName(), copy.getDept().getDeptName());
+        assertEquals(2, copy.getRoles().size());
+        assertArrayEquals(user.getRoleIds(), copy.getRoleIds());
+    }
+
+    @Test
+    public void roundTripLoginUser()
+    {
+        LoginUser loginUser = loginUser();
+        LoginUser copy = (LoginUser) roundTrip(loginUser);
+        assertSame(loginUser, copy);
+        assertEquals(loginUser.getPermissions(), copy.getPermissions());
+        assertEquals(loginUser.getUser().getPassword(), copy.getUser().getPassword());
+        // 本地权限位图按uuid和权限版本缓存，版本必须随loginUser写入redis
+        assertEquals(loginUser.getPermissionVersion(), copy.getPermissionVersion());
+    }
+
+    @Test
+    public void compactIsSmallerThanJson()
+    {
+        LoginUser loginUser = loginUser();
+        byte[] bytes = compact.serialize(loginUser);
+        assertEquals(0x01, bytes[0]);
+        assertTrue(bytes.length < json.serialize(loginUser).length);
+    }
+
+    @Test
+    public void unregisteredTypeFallsBackToJson()
+    {
+        SysConfig config = new SysConfig();
+        config.setConfigKey("sys.index.skinName");
+        config.setConfigValue("skin-blue");
+        byte[] bytes = compact.serialize(config);
+        assertEquals('{', bytes[0]);
+        assertSame(config, compact.deserialize(bytes));
+    }
+
+    @Test
+    public void readsValuesWrittenByFastJson()
+    {
+        Object[] values = { "admin", 123L, 5, dept(), role(1L, "admin"), user(), loginUser() };
+        for (Object value : values)
+        {
+            byte[] bytes = json.serialize(value);
+            assertNotEquals(0x01, bytes[0]);
+            Object copy = compact.deserialize(bytes);
+            assertEquals(value.getClass(), copy.getClass());
+            assertSame(value, copy);
+        }
+    }
+
+    @Test
+    public void readsFastJsonCollections()
+    {
+        List<SysDept> depts = new ArrayList<SysDept>(Arrays.asList(dept(), dept()));
+        Object copy = compact.deserialize(json.serialize(depts));
+        assertEquals(toJson(depts), toJson(copy));
+    }
+
+    @Test
+    public void emptyValues()
+    {
+        assertEquals(0, compact.serialize(null).length);
+        assertNull(compact.deserialize(null));
+        assertNull(compact.deserialize(new byte[0]));
+    }
+
+    @Test(expected = SerializationException.class)
+    public void unknownTypeIdIsRejected()
+    {
+        compact.deserialize(new byte[] { 0x01, 0x7F, 0x7F, 0x00 });
+    }
+
+    @Test
+    public void truncatedBinaryIsRejected()
+    {
+        byte[][] values = { { 0x01 }, { 0x01, 0x00 } };
+        for (byte[] bytes : values)
+        {
+            try
+            {
+                compact.deserialize(bytes);
+                fail("expected SerializationException for " + bytes.length + " bytes");
+            }
+            catch (SerializationException e)
+            {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateTypeIdIsRejected()
+    {
+        compact.register(100, SysConfig.class);
+    }
+
+    private Object roundTrip(Object value)
+    {
+        Object copy = compact.deserialize(compact.serialize(value));
+        assertEquals(value.getClass(), copy.getClass());
+        return copy;
+    }
+
+    /**
+     * 按FastJson的字段排序输出比较，覆盖继承自BaseEntity的字段
+     */
+    private static void assertSame(Object expected, Object actual)
+    {
+        assertEquals(toJson(expected), toJson(actual));
+    }
+
+    private static String toJson(Object value)
+    {
+        return JSON.toJSONString(value, SerializerFeature.MapSortField, SerializerFeature.WriteMapNullValue);
+    }
+
+    private static SysDept dept()
+    {
+        SysDept dept = new SysDept();
+        dept.setDeptId(103L);
+        dept.setParentId(101L);
+        dept.setAncestors("0,100,101");
+        dept.setDeptName("研发部门");
+        dept.setOrderNum("1");
+        dept.setLeader("若依");
+        dept.setStatus("0");
+        dept.setDelFlag("0");
+        dept.setCreateBy("admin");
+        dept.setCreateTime(new Date(1575158400123L));
+        return dept;
+    }
+
+    private static SysRole role(Long roleId, String roleKey)
+    {
+        SysRole role = new SysRole();
+        role.setRoleId(roleId);
+        role.setRoleName("角色" + roleId);
+        role.setRoleKey(roleKey);
+        role.setRoleSort(String.valueOf(roleId));
+        role.setDataScope("2");
+        role.setStatus("0");
+        role.setFlag(true);
+        role.setMenuIds(new Long[] { 1L, 100L, 1001L });
+        return role;
+    }
+
+    private static SysUser user()
+    {
+        SysUser user = new SysUser();
+        user.setUserId(1L);
+        user.setDeptId(103L);
+        user.setUserName("admin");
+        user.setNickName("若依");
+        user.setEmail("ry@163.com");
+        user.setPhonenumber("15888888888");
+        user.setSex("1");
+        user.setPassword("$2a$10$7JB720yubVSZvUI0rEqK/.VqGOZTH.ulu33dHOiBE8ByOhJIrdAu2");
+        user.setStatus("0");
+        user.setDelFlag("0");
+        user.setLoginIp("127.0.0.1");
+        user.setLoginDate(new Date(1575158400000L));
+        user.setDept(dept());
+        user.setRoles(new ArrayList<SysRole>(Arrays.asList(role(1L, "admin"), role(2L, "common"))));
+        user.setRoleIds(new Long[] { 1L, 2L });
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("dataScope", "");
+        user.setParams(params);
+        return user;
+    }
+
+    private static LoginUser loginUser()
+    {
+        LoginUser loginUser = new LoginUser(user(),
+                new HashSet<String>(Arrays.asList("system:user:list", "system:user:add", "monitor:online:list")));
+        loginUser.setToken("f0ba6a6a-7c8d-4f0b-9a63-5a2d1c0c2e11");
+        loginUser.setLoginTime(1575158400000L);
+        loginUser.setExpireTime(1575160200000L);
+        loginUser.setIpaddr("10.0.0.8");
+        loginUser.setLoginLocation("内网IP");
+        loginUser.setBrowser("Chrome 78");
+        loginUser.setOs("Windows 10");
+        return loginUser;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ruoyi.framework.config;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * redis模板：hash的field按字符串、value与普通值使用同一序列化方式
+ *
+ * @author ruoyi
+ */
+public class RedisConfigTest
+{
+    @Test
+    public void hashSerializersFollowJsonValues()
+    {
+        RedisTemplate<Object, Object> template = template("json");
+        assertTrue(template.getValueSerializer() instanceof FastJson2JsonRedisSerializer);
+        assertSame(template.getValueSerializer(), template.getHashValueSerializer());
+        assertTrue(template.getHashKeySerializer() instanceof StringRedisSerializer);
+    }
+
+    @Test
+    public void hashSerializersFollowCompactValues()
+    {
+        RedisTemplate<Object, Object> template = template("compact");
+        assertTrue(template.getValueSerializer() instanceof CompactRedisSerializer);
+        assertSame(template.getValueSerializer(), template.getHashValueSerializer());
+        assertTrue(template.getHashKeySerializer() instanceof StringRedisSerializer);
+    }
+
+    private static RedisTemplate<Object, Object> template(String serializerType)
+    {
+        RedisConfig config = new RedisConfig();
+        ReflectionTestUtils.setField(config, "serializerType", serializerType);
+        return config.redisTemplate(mock(RedisConnectionFactory.class));
+    }
+}
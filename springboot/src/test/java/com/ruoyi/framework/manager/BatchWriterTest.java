@@ -0,0 +1,49 @@
+package com.ruoyi.framework.manager;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * 批量写入失败时逐条重试，只丢弃写入失败的数据
+ *
+ * @author ruoyi
+ */
+public class BatchWriterTest {
+    private final List<Integer> written = new ArrayList<>();
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    /**
+     * 模拟数据库：整批插入时任意一条为负数则整批失败
+     */
+    private final BatchWriter<Integer> writer = new BatchWriter<>("test", 10, 10, 1000,
+            BatchWriter.OverflowPolicy.DROP, 0, batch -> {
+                batchSizes.add(batch.size());
+                for (Integer item : batch) {
+                    if (item < 0) {
+                        throw new IllegalStateException("bad row " + item);
+                    }
+                }
+                written.addAll(batch);
+            });
+
+    @Test
+    public void onlyFailingRowsOfABatchAreDropped() {
+        writer.start();
+        for (Integer item : Arrays.asList(1, 2, -3, 4, -5)) {
+            writer.offer(item);
+        }
+        writer.shutdown(5000);
+
+        // 一次整批写入失败，之后每条单独写入
+        assertEquals(Arrays.asList(5, 1, 1, 1, 1, 1), batchSizes);
+        assertEquals(Arrays.asList(1, 2, 4), written);
+        Map<String, Object> stats = writer.getStats();
+        assertEquals(3L, stats.get("writtenCount"));
+        assertEquals(2L, stats.get("failedCount"));
+    }
+}
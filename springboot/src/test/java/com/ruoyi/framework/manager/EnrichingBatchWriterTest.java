@@ -0,0 +1,69 @@
+package com.ruoyi.framework.manager;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * 补充信息失败或线程繁忙时使用默认值，数据照常写入
+ *
+ * @author ruoyi
+ */
+public class EnrichingBatchWriterTest {
+    private final List<String> written = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void failedAndSkippedItemsAreWrittenWithFallback() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BatchWriter<StringBuilder> batchWriter = new BatchWriter<>("test", 10, 10, 10,
+                BatchWriter.OverflowPolicy.DROP, 0, batch -> {
+                    for (StringBuilder item : batch) {
+                        written.add(item.toString());
+                    }
+                });
+        EnrichingBatchWriter<StringBuilder> writer = new EnrichingBatchWriter<>("test", 1, 1, item -> {
+            if (item.toString().equals("slow")) {
+                started.countDown();
+                await(release);
+            }
+            if (item.toString().equals("bad")) {
+                throw new IllegalStateException("lookup failed");
+            }
+            item.append(":ok");
+        }, item -> item.append(":unknown"), batchWriter, 5000);
+        writer.start();
+
+        writer.record(new StringBuilder("slow"));
+        started.await(5, TimeUnit.SECONDS);
+        // 唯一的线程被占用，bad进入等待队列，full因队列已满直接跳过补充
+        writer.record(new StringBuilder("bad"));
+        writer.record(new StringBuilder("full"));
+        release.countDown();
+        writer.shutdown();
+
+        assertEquals(3, written.size());
+        assertEquals("full:unknown", written.get(0));
+        assertEquals(new HashSet<String>(Arrays.asList("slow:ok", "bad:unknown", "full:unknown")),
+                new HashSet<String>(written));
+        Map<String, Object> address = (Map<String, Object>) writer.getStats().get("address");
+        assertEquals(1L, address.get("skippedCount"));
+        assertEquals(1L, address.get("failedCount"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
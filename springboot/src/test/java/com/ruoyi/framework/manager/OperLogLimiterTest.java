@@ -0,0 +1,117 @@
+package com.ruoyi.framework.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import com.ruoyi.framework.aspectj.lang.enums.BusinessStatus;
+import com.ruoyi.framework.aspectj.lang.enums.BusinessType;
+import com.ruoyi.project.monitor.domain.SysOperLog;
+
+/**
+ * 操作日志聚合在退出时输出，未开启时不启动定时任务
+ *
+ * @author ruoyi
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class OperLogLimiterTest {
+    @Mock
+    private OperLogWriter operLogWriter;
+
+    @Mock
+    private ScheduledExecutorService scheduledExecutorService;
+
+    @InjectMocks
+    private OperLogLimiter limiter;
+
+    @Test
+    public void shutdownFlushesOpenAggregates() {
+        limiter.setAggregateSeconds(60);
+        limiter.init();
+        verify(scheduledExecutorService).scheduleWithFixedDelay(any(Runnable.class), eq(60L), eq(60L),
+                eq(TimeUnit.SECONDS));
+
+        assertTrue(limiter.accept(operLog(), BusinessType.UPDATE));
+        for (int i = 0; i < 4; i++) {
+            assertFalse(limiter.accept(operLog(), BusinessType.UPDATE));
+        }
+        verify(operLogWriter, never()).record(any(SysOperLog.class));
+
+        limiter.shutdown();
+        ArgumentCaptor<SysOperLog> summary = ArgumentCaptor.forClass(SysOperLog.class);
+        verify(operLogWriter).record(summary.capture());
+        assertEquals("60秒内相同操作另有4次，未逐条记录", summary.getValue().getOperParam());
+        assertEquals("admin", summary.getValue().getOperName());
+        assertEquals(1L, limiter.getStats().get("summaryCount"));
+
+        // 退出过程中的操作直接写入，不再聚合
+        assertTrue(limiter.accept(operLog(), BusinessType.UPDATE));
+        assertEquals(0, limiter.getStats().get("aggregateSize"));
+    }
+
+    @Test
+    public void differentParamsAreNotAggregated() {
+        limiter.setAggregateSeconds(60);
+        limiter.init();
+
+        assertTrue(limiter.accept(operLog("{\"userId\":1}"), BusinessType.UPDATE));
+        assertTrue(limiter.accept(operLog("{\"userId\":2}"), BusinessType.UPDATE));
+        assertFalse(limiter.accept(operLog("{\"userId\":1}"), BusinessType.UPDATE));
+        assertTrue(limiter.accept(operLog(null), BusinessType.UPDATE));
+        assertEquals(1L, limiter.getStats().get("aggregatedCount"));
+        assertEquals(3, limiter.getStats().get("aggregateSize"));
+
+        limiter.shutdown();
+        ArgumentCaptor<SysOperLog> summary = ArgumentCaptor.forClass(SysOperLog.class);
+        verify(operLogWriter).record(summary.capture());
+        assertEquals("60秒内相同操作另有1次，未逐条记录", summary.getValue().getOperParam());
+    }
+
+    @Test
+    public void noScheduleWhenDisabled() {
+        limiter.init();
+        verifyZeroInteractions(scheduledExecutorService);
+        assertTrue(limiter.accept(operLog(), BusinessType.UPDATE));
+        assertTrue(limiter.accept(operLog(), BusinessType.UPDATE));
+        limiter.shutdown();
+        verifyZeroInteractions(operLogWriter);
+    }
+
+    @Test
+    public void rateLimitOnlyStillCleansWindows() {
+        limiter.setUserRatePerMinute(1);
+        limiter.init();
+        verify(scheduledExecutorService).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(),
+                eq(TimeUnit.SECONDS));
+        assertTrue(limiter.accept(operLog(), BusinessType.UPDATE));
+        assertFalse(limiter.accept(operLog(), BusinessType.UPDATE));
+    }
+
+    private static SysOperLog operLog() {
+        return operLog("{\"userId\":1}");
+    }
+
+    private static SysOperLog operLog(String operParam) {
+        SysOperLog operLog = new SysOperLog();
+        operLog.setTitle("用户管理");
+        operLog.setBusinessType(BusinessType.UPDATE.ordinal());
+        operLog.setMethod("com.ruoyi.project.system.controller.SysUserController.edit()");
+        operLog.setOperName("admin");
+        operLog.setOperParam(operParam);
+        operLog.setStatus(BusinessStatus.SUCCESS.ordinal());
+        return operLog;
+    }
+}
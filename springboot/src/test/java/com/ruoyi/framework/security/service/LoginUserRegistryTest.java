@@ -0,0 +1,106 @@
+package com.ruoyi.framework.security.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import com.ruoyi.common.constant.Constants;
+import com.ruoyi.framework.redis.RedisCache;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * 在线用户索引启动补登记
+ *
+ * @author ruoyi
+ */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LoginUserRegistryTest {
+    @Mock
+    private RedisCache redisCache;
+
+    @InjectMocks
+    private LoginUserRegistry registry;
+
+    @Test
+    public void rebuildRegistersLiveSessionsWithRemainingTtl() {
+        List<String> keys = new ArrayList<String>();
+        List<Object> users = new ArrayList<Object>();
+        List<Long> expires = new ArrayList<Long>();
+        // 正常会话，登录信息里的过期时间已经落后于键值的有效期
+        keys.add(Constants.LOGIN_TOKEN_KEY + "a");
+        users.add(loginUser("admin", "10.0.0.1", 1L));
+        expires.add(600000L);
+        // 扫描后已过期
+        keys.add(Constants.LOGIN_TOKEN_KEY + "b");
+        users.add(null);
+        expires.add(-2L);
+        // 没有有效期的异常数据
+        keys.add(Constants.LOGIN_TOKEN_KEY + "c");
+        users.add(loginUser("ry", null, 1L));
+        expires.add(-1L);
+        when(redisCache.scan(Constants.LOGIN_TOKEN_KEY + "*", 500)).thenReturn(keys);
+        when(redisCache.multiGet(keys)).thenReturn(users);
+        when(redisCache.getExpires(keys, TimeUnit.MILLISECONDS)).thenReturn(expires);
+        when(redisCache.getExpire(anyString(), same(TimeUnit.MILLISECONDS))).thenReturn(-2L);
+
+        long before = System.currentTimeMillis();
+        assertEquals(1, registry.rebuild());
+
+        ArgumentCaptor<Double> score = ArgumentCaptor.forClass(Double.class);
+        verify(redisCache).addCacheZSet(eq(Constants.LOGIN_TOKEN_INDEX_KEY), eq("a"), score.capture());
+        long expireTime = score.getValue().longValue();
+        assertTrue(expireTime >= before + 600000L && expireTime <= System.currentTimeMillis() + 600000L);
+        verify(redisCache).addCacheSetMembers(Constants.LOGIN_TOKEN_USER_KEY + "admin", "a");
+        verify(redisCache).addCacheSetMembers(Constants.LOGIN_TOKEN_IP_KEY + "10.0.0.1", "a");
+        verify(redisCache, never()).addCacheZSet(eq(Constants.LOGIN_TOKEN_INDEX_KEY), eq("c"), anyDouble());
+        verify(redisCache).expire(eq(Constants.LOGIN_TOKEN_USER_KEY + "admin"), anyLong(), same(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void rebuildWithoutSessions() {
+        when(redisCache.scan(Constants.LOGIN_TOKEN_KEY + "*", 500)).thenReturn(new ArrayList<String>());
+        assertEquals(0, registry.rebuild());
+        verify(redisCache, never()).multiGet(Arrays.<String>asList());
+    }
+
+    @Test
+    public void countOnlyIncludesUnexpiredMembers() {
+        when(redisCache.countCacheZSetByScore(eq(Constants.LOGIN_TOKEN_INDEX_KEY), anyDouble(), anyDouble()))
+                .thenReturn(3L);
+        long before = System.currentTimeMillis();
+        assertEquals(3, registry.count());
+
+        ArgumentCaptor<Double> min = ArgumentCaptor.forClass(Double.class);
+        verify(redisCache).countCacheZSetByScore(eq(Constants.LOGIN_TOKEN_INDEX_KEY), min.capture(),
+                eq(Double.POSITIVE_INFINITY));
+        assertTrue(min.getValue() > before && min.getValue() <= System.currentTimeMillis() + 1);
+        verify(redisCache, never()).getCacheZSetSize(anyString());
+    }
+
+    private static LoginUser loginUser(String userName, String ipaddr, long expireTime) {
+        SysUser user = new SysUser();
+        user.setUserName(userName);
+        LoginUser loginUser = new LoginUser(user, new HashSet<String>());
+        loginUser.setIpaddr(ipaddr);
+        loginUser.setExpireTime(expireTime);
+        return loginUser;
+    }
+}
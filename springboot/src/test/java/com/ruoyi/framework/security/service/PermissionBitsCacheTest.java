@@ -0,0 +1,66 @@
+package com.ruoyi.framework.security.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.framework.security.LoginUser;
+import com.ruoyi.project.system.domain.SysUser;
+
+/**
+ * 权限位图按uuid和权限版本缓存，请求中的loginUser副本共用同一份位图
+ *
+ * @author ruoyi
+ */
+public class PermissionBitsCacheTest {
+    private PermissionDictionary dictionary;
+
+    private PermissionBitsCache cache;
+
+    @Before
+    public void setUp() {
+        dictionary = new PermissionDictionary();
+        cache = new PermissionBitsCache();
+        ReflectionTestUtils.setField(cache, "expireTime", 30);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "permissionDictionary", dictionary);
+        cache.init();
+    }
+
+    @Test
+    public void copiesOfSameVersionShareBits() {
+        LoginUser loginUser = loginUser(1L, "system:user:list");
+        cache.put(loginUser);
+        long[] bits = cache.get(loginUser(1L, "system:user:list"));
+        assertSame(bits, cache.get(loginUser(1L, "system:user:list")));
+        assertTrue(PermissionDictionary.test(bits, dictionary.indexOf("system:user:list")));
+    }
+
+    @Test
+    public void newVersionRebuildsBits() {
+        long[] bits = cache.get(loginUser(1L, "system:user:list"));
+        long[] changed = cache.get(loginUser(2L, "system:role:list"));
+        assertNotSame(bits, changed);
+        assertFalse(PermissionDictionary.test(changed, dictionary.indexOf("system:user:list")));
+        assertTrue(PermissionDictionary.test(changed, dictionary.indexOf("system:role:list")));
+    }
+
+    @Test
+    public void evictDropsBits() {
+        long[] bits = cache.get(loginUser(1L, "system:user:list"));
+        cache.evict("uuid");
+        assertNotSame(bits, cache.get(loginUser(1L, "system:user:list")));
+    }
+
+    private static LoginUser loginUser(Long version, String... permissions) {
+        LoginUser loginUser = new LoginUser(new SysUser(), new HashSet<String>(Arrays.asList(permissions)));
+        loginUser.setToken("uuid");
+        loginUser.setPermissionVersion(version);
+        return loginUser;
+    }
+}
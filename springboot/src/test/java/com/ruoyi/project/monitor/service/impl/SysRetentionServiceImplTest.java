@@ -0,0 +1,177 @@
+package com.ruoyi.project.monitor.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ruoyi.framework.config.RetentionConfig;
+import com.ruoyi.project.monitor.mapper.SysRetentionMapper;
+
+/**
+ * 分区补建：落后很多时合并成少量分区，单次创建数量有上限
+ *
+ * @author ruoyi
+ */
+public class SysRetentionServiceImplTest
+{
+    private static final long TO_DAYS_EPOCH = 719528L;
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final LocalDate today = LocalDate.now();
+
+    private SysRetentionMapper mapper;
+
+    private RetentionConfig config;
+
+    private RetentionConfig.Table table;
+
+    private SysRetentionServiceImpl service;
+
+    @Before
+    public void setUp()
+    {
+        mapper = mock(SysRetentionMapper.class);
+        table = new RetentionConfig.Table();
+        table.setColumn("oper_time");
+        table.setRetentionDays(180);
+        table.setPartition("day");
+        table.setPrecreate(3);
+        table.setArchive(false);
+        config = new RetentionConfig();
+        config.getTables().put("sys_oper_log", table);
+        service = new SysRetentionServiceImpl();
+        ReflectionTestUtils.setField(service, "retentionConfig", config);
+        ReflectionTestUtils.setField(service, "retentionMapper", mapper);
+    }
+
+    @Test
+    public void firstRunJumpsOverHistory()
+    {
+        LocalDate cutoff = today.minusDays(180);
+        when(mapper.selectPartitions("sys_oper_log")).thenReturn(
+                partitions(LocalDate.of(2020, 1, 1)),
+                partitions(LocalDate.of(2020, 1, 1), cutoff, today, today.plusDays(1), today.plusDays(2),
+                        today.plusDays(3), today.plusDays(4)));
+
+        Map<String, Object> result = result(service.clean());
+
+        // 2020-01-01到保留期、保留期到今天各一个分区，之后是今天和提前创建的3天
+        assertEquals(6, result.get("created"));
+        InOrder order = inOrder(mapper);
+        order.verify(mapper).addPartition("sys_oper_log", "p_max", "p20200101", cutoff.toString());
+        order.verify(mapper).addPartition("sys_oper_log", "p_max", "p" + cutoff.format(DAY_FORMAT), today.toString());
+        for (int i = 0; i < 4; i++)
+        {
+            LocalDate bound = today.plusDays(i);
+            order.verify(mapper).addPartition("sys_oper_log", "p_max", "p" + bound.format(DAY_FORMAT),
+                    bound.plusDays(1).toString());
+        }
+        // 重新读取分区后删除已过期的两个分区
+        assertEquals(2, result.get("dropped"));
+        verify(mapper).dropPartition("sys_oper_log", "p_init");
+        verify(mapper).dropPartition("sys_oper_log", "p20200101");
+        verify(mapper, times(2)).dropPartition(eq("sys_oper_log"), anyString());
+    }
+
+    @Test
+    public void upToDateTableOnlyAddsTheNextDay()
+    {
+        when(mapper.selectPartitions("sys_oper_log")).thenReturn(partitions(today.minusDays(10), today.plusDays(3)));
+
+        Map<String, Object> result = result(service.clean());
+
+        assertEquals(1, result.get("created"));
+        verify(mapper).addPartition("sys_oper_log", "p_max", "p" + today.plusDays(3).format(DAY_FORMAT),
+                today.plusDays(4).toString());
+        verify(mapper, never()).dropPartition(anyString(), anyString());
+    }
+
+    @Test
+    public void createdPartitionsAreCapped()
+    {
+        config.setMaxCreatePartitions(2);
+        table.setRetentionDays(0);
+        table.setPrecreate(30);
+        when(mapper.selectPartitions("sys_oper_log")).thenReturn(partitions(today));
+
+        Map<String, Object> result = result(service.clean());
+
+        assertEquals(2, result.get("created"));
+        verify(mapper, times(2)).addPartition(eq("sys_oper_log"), eq("p_max"), anyString(), anyString());
+    }
+
+    @Test
+    public void monthPartitionsJumpToMonthBoundaries()
+    {
+        table.setPartition("month");
+        table.setRetentionDays(365);
+        table.setPrecreate(1);
+        LocalDate cutoff = today.minusDays(365).withDayOfMonth(1);
+        LocalDate current = today.withDayOfMonth(1);
+        when(mapper.selectPartitions("sys_oper_log")).thenReturn(partitions(LocalDate.of(2020, 1, 1)));
+
+        Map<String, Object> result = result(service.clean());
+
+        assertEquals(4, result.get("created"));
+        InOrder order = inOrder(mapper);
+        order.verify(mapper).addPartition("sys_oper_log", "p_max", "p202001", cutoff.toString());
+        order.verify(mapper).addPartition(eq("sys_oper_log"), eq("p_max"), anyString(), eq(current.toString()));
+        order.verify(mapper).addPartition(eq("sys_oper_log"), eq("p_max"), anyString(),
+                eq(current.plusMonths(1).toString()));
+        order.verify(mapper).addPartition(eq("sys_oper_log"), eq("p_max"), anyString(),
+                eq(current.plusMonths(2).toString()));
+        verify(mapper, never()).selectMinTime(anyString(), anyString());
+        verify(mapper, never()).deleteBefore(anyString(), anyString(), any(), any(Integer.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> result(Map<String, Object> clean)
+    {
+        Object result = clean.get("sys_oper_log");
+        if (!(result instanceof Map))
+        {
+            throw new AssertionError(String.valueOf(result));
+        }
+        return (Map<String, Object>) result;
+    }
+
+    /**
+     * p_init和各分区按上界依次排列，最后是p_max
+     */
+    private static List<Map<String, Object>> partitions(LocalDate... bounds)
+    {
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i++)
+        {
+            String name = i == 0 ? "p_init" : "p" + bounds[i - 1].format(DAY_FORMAT);
+            partitions.add(partition(name, String.valueOf(bounds[i].toEpochDay() + TO_DAYS_EPOCH)));
+        }
+        partitions.add(partition("p_max", "MAXVALUE"));
+        return partitions;
+    }
+
+    private static Map<String, Object> partition(String name, String lessThan)
+    {
+        Map<String, Object> partition = new LinkedHashMap<>();
+        partition.put("partitionName", name);
+        partition.put("lessThan", lessThan);
+        return partition;
+    }
+}
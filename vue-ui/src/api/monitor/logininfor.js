@@ -1,4 +1,5 @@
 import request from '@/utils/request'
+import { downLoadExcel, downLoadCsv } from '@/utils/zipdownload'
 
 // 查询登录日志列表
 export function list(query) {
@@ -27,9 +28,10 @@ export function cleanLogininfor() {
 
 // 导出登录日志
 export function exportLogininfor(query) {
-  return request({
-    url: '/monitor/logininfor/export',
-    method: 'get',
-    params: query
-  })
+  return downLoadExcel('/monitor/logininfor/export', query)
+}
+
+// 导出登录日志CSV
+export function exportLogininforCsv(query) {
+  return downLoadCsv('/monitor/logininfor/exportCsv', query)
 }
\ No newline at end of file
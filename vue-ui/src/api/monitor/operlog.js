@@ -1,4 +1,5 @@
 import request from '@/utils/request'
+import { downLoadExcel, downLoadCsv } from '@/utils/zipdownload'
 
 // 查询操作日志列表
 export function list(query) {
@@ -27,9 +28,10 @@ export function cleanOperlog() {
 
 // 导出操作日志
 export function exportOperlog(query) {
-  return request({
-    url: '/monitor/operlog/export',
-    method: 'get',
-    params: query
-  })
+  return downLoadExcel('/monitor/operlog/export', query)
+}
+
+// 导出操作日志CSV
+export function exportOperlogCsv(query) {
+  return downLoadCsv('/monitor/operlog/exportCsv', query)
 }
\ No newline at end of file
@@ -58,4 +58,12 @@ export function exportConfig(query) {
     method: 'get',
     params: query
   })
-}
\ No newline at end of file
+}
+
+// 刷新缓存
+export function refreshCache() {
+  return request({
+    url: '/system/config/refreshCache',
+    method: 'delete'
+  })
+}
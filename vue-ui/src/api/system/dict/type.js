@@ -58,4 +58,12 @@ export function optionselect() {
     url: '/system/dict/type/optionselect',
     method: 'get'
   })
-}
\ No newline at end of file
+}
+
+// 刷新缓存
+export function refreshCache() {
+  return request({
+    url: '/system/dict/type/refreshCache',
+    method: 'delete'
+  })
+}
@@ -1,4 +1,5 @@
 import request from '@/utils/request'
+import { downLoadExcel } from '@/utils/zipdownload'
 import { praseStrEmpty } from "@/utils/ruoyi";
 
 // 查询用户列表
@@ -46,11 +47,7 @@ export function delUser(userId) {
 
 // 导出用户
 export function exportUser(query) {
-  return request({
-    url: '/system/user/export',
-    method: 'get',
-    params: query
-  })
+  return downLoadExcel('/system/user/export', query)
 }
 
 // 用户密码重置
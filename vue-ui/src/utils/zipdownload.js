@@ -1,9 +1,11 @@
 import axios from 'axios'
+import { Message } from 'element-ui'
 import { getToken } from '@/utils/auth'
 
 const mimeMap = {
   xlsx: 'application/vnd.openxmlformats-officedocument.spreadsheetml.sheet',
-  zip: 'application/zip'
+  zip: 'application/zip',
+  csv: 'text/csv'
 }
 
 const baseUrl = process.env.VUE_APP_BASE_API
@@ -18,6 +20,47 @@ export function downLoadZip(str, filename) {
     resolveBlob(res, mimeMap.zip)
   })
 }
+/**
+ * 下载后台直接输出的Excel文件
+ * @param {String} str 请求地址
+ * @param {Object} params 查询参数
+ */
+export function downLoadExcel(str, params) {
+  return downLoadFile(str, params, mimeMap.xlsx)
+}
+/**
+ * 下载后台直接输出的CSV文件
+ * @param {String} str 请求地址
+ * @param {Object} params 查询参数
+ */
+export function downLoadCsv(str, params) {
+  return downLoadFile(str, params, mimeMap.csv)
+}
+/**
+ * 下载后台直接输出的文件
+ * @param {String} str 请求地址
+ * @param {Object} params 查询参数
+ * @param {String} mimeType MIME类型
+ */
+export function downLoadFile(str, params, mimeType) {
+  var url = baseUrl + str
+  return axios({
+    method: 'get',
+    url: url,
+    params: params,
+    responseType: 'blob',
+    headers: { 'Authorization': 'Bearer ' + getToken() }
+  }).then(res => {
+    // 导出失败时后台返回的是JSON格式的错误信息
+    if (res.data.type === 'application/json') {
+      return new Response(res.data).json().then(data => {
+        Message({ message: data.msg, type: 'error' })
+        return Promise.reject(new Error(data.msg))
+      })
+    }
+    resolveBlob(res, mimeType)
+  })
+}
 /**
  * 解析blob响应内容并下载
  * @param {*} res blob响应内容